@@ -0,0 +1,73 @@
+package sync.slamtalk.chat.bench;
+
+import org.mockito.Mockito;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+import sync.slamtalk.chat.repository.UserChatRoomRepository;
+import sync.slamtalk.common.BaseEntity;
+
+import java.util.function.Consumer;
+
+/**
+ * DB 가 필요한 벤치마크용 최소 스프링 컨텍스트
+ * 채팅 엔티티/레포지토리와 JPA, JDBC 만 올린다. (보안, 웹소켓, Redis, 외부 연동은 올리지 않음)
+ *
+ * 기본은 인메모리 H2 (Hibernate 가 스키마 생성)이고,
+ * MySQL 로 측정하려면 -Dspring.datasource.url=... -Dspring.datasource.username=... -Dspring.datasource.password=...
+ * 와 -Dspring.jpa.hibernate.ddl-auto=create-drop 을 jmh jvmArgs 로 넘긴다. (벤치마크 전용 DB 사용)
+ */
+@Configuration
+@ImportAutoConfiguration({
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        TransactionAutoConfiguration.class
+})
+@EntityScan(basePackages = "sync.slamtalk")
+@EnableJpaRepositories(basePackageClasses = UserChatRoomRepository.class)
+@Import({BaseEntity.class, MessagesJdbcRepository.class})
+public class ChatBenchContext {
+
+    /**
+     * 컨텍스트 시작
+     *
+     * @param beans 벤치마크 대상 빈 등록
+     * @return 스프링 컨텍스트
+     */
+    public static ConfigurableApplicationContext start(Consumer<GenericApplicationContext> beans) {
+        return new SpringApplicationBuilder(ChatBenchContext.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> beans.accept((GenericApplicationContext) context))
+                .run();
+    }
+
+    /**
+     * 벤치마크 대상과 상관없는 의존성을 Mockito mock 으로 등록
+     *
+     * @param context 스프링 컨텍스트
+     * @param types   mock 으로 등록할 타입
+     */
+    public static void registerMocks(GenericApplicationContext context, Class<?>... types) {
+        for (Class<?> type : types) {
+            registerMock(context, type);
+        }
+    }
+
+    private static <T> void registerMock(GenericApplicationContext context, Class<T> type) {
+        context.registerBean(type, () -> Mockito.mock(type, Mockito.withSettings().stubOnly()));
+    }
+}
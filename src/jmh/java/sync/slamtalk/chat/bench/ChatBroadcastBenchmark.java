@@ -0,0 +1,134 @@
+package sync.slamtalk.chat.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.DefaultContentTypeResolver;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import sync.slamtalk.chat.config.ChatPayloadCodec;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅방 브로드캐스트 (구독자 수 N, SimpleBroker)
+ * - sendToConverter : 이전 방식, @SendTo 반환값 처리와 같은 경로
+ *                     (SendToMethodReturnValueHandler -> brokerMessagingTemplate.convertAndSend -> 브로커 MessageConverter)
+ * - codecFrame      : 현재 방식, ChatPayloadCodec 으로 만든 byte[] 프레임을 brokerMessagingTemplate.send
+ *
+ * 두 방식 모두 메세지당 JSON 직렬화는 한 번이고 세션마다 STOMP 프레임 인코딩을 한다.
+ * 차이는 converter 선택/헤더 복사와 ObjectWriter(Blackbird) 뿐이므로 구독자 수가 늘어도 차이는 거의 일정해야 한다.
+ * 브로커와 clientOutboundChannel 은 실행기 없이 호출 스레드에서 동작하고,
+ * clientOutboundChannel 은 StompSubProtocolHandler 처럼 세션마다 STOMP 프레임을 인코딩한다.
+ * 할당량까지 비교하려면 build.gradle 의 jmh 설정에 profilers = ['gc'] 를 추가해서 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatBroadcastBenchmark {
+
+    private static final String DESTINATION = "/sub/chat/room/1";
+
+    @Param({"100", "1000"})
+    public int subscribers;
+
+    private ChatPayloadCodec chatPayloadCodec;
+    private SimpleBrokerMessageHandler broker;
+    private SimpMessagingTemplate brokerMessagingTemplate;
+    private ChatMessageDTO message;
+    private long encodedBytes;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        chatPayloadCodec = new ChatPayloadCodec(objectMapper);
+
+        ExecutorSubscribableChannel clientInboundChannel = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        MessageChannel clientOutboundChannel = new StompEncodingChannel();
+        broker = new SimpleBrokerMessageHandler(clientInboundChannel, clientOutboundChannel, brokerChannel, List.of("/sub"));
+        broker.start();
+        for (int i = 0; i < subscribers; i++) {
+            SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            subscribe.setSessionId("session-" + i);
+            subscribe.setSubscriptionId("sub-" + i);
+            subscribe.setDestination(DESTINATION);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+        }
+
+        // AbstractMessageBrokerConfiguration.brokerMessageConverter 와 같은 구성
+        DefaultContentTypeResolver contentTypeResolver = new DefaultContentTypeResolver();
+        contentTypeResolver.setDefaultMimeType(MimeTypeUtils.APPLICATION_JSON);
+        MappingJackson2MessageConverter jsonConverter = new MappingJackson2MessageConverter();
+        jsonConverter.setContentTypeResolver(contentTypeResolver);
+        jsonConverter.setObjectMapper(objectMapper);
+        brokerMessagingTemplate = new SimpMessagingTemplate(brokerChannel);
+        brokerMessagingTemplate.setMessageConverter(new CompositeMessageConverter(List.of(
+                new StringMessageConverter(), new ByteArrayMessageConverter(), jsonConverter)));
+
+        message = ChatMessageDTO.builder()
+                .messageId("7153846791638093824")
+                .roomId("1")
+                .senderId(3L)
+                .senderNickname("슬램")
+                .imgUrl("https://slamtalk.s3.ap-northeast-2.amazonaws.com/profile/3.png")
+                .content("오늘 저녁 7시에 한 게임 어때요?")
+                .timestamp("2024-01-01T19:00:00.000000")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.stop();
+    }
+
+    @Benchmark
+    public long sendToConverter() {
+        brokerMessagingTemplate.convertAndSend(DESTINATION, message);
+        return encodedBytes;
+    }
+
+    @Benchmark
+    public long codecFrame() {
+        brokerMessagingTemplate.send(DESTINATION, chatPayloadCodec.encode(message));
+        return encodedBytes;
+    }
+
+    // 세션으로 나가는 메세지를 STOMP 프레임으로 인코딩 (StompSubProtocolHandler.handleMessageToClient)
+    private class StompEncodingChannel implements MessageChannel {
+
+        private final StompEncoder stompEncoder = new StompEncoder();
+
+        @Override
+        public boolean send(Message<?> sessionMessage, long timeout) {
+            StompHeaderAccessor stompAccessor = StompHeaderAccessor.wrap(sessionMessage);
+            stompAccessor.setCommandIfNotSet(StompCommand.MESSAGE);
+            encodedBytes += stompEncoder.encode(stompAccessor.toNativeHeaderMap(), (byte[]) sessionMessage.getPayload()).length;
+            return true;
+        }
+    }
+}
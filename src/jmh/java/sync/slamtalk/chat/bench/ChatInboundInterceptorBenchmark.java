@@ -0,0 +1,108 @@
+package sync.slamtalk.chat.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import sync.slamtalk.chat.cache.ChatAuthorizationCache;
+import sync.slamtalk.chat.config.ChatInboundInterceptor;
+import sync.slamtalk.chat.config.ChatPayloadCodec;
+import sync.slamtalk.chat.config.StompHandler;
+import sync.slamtalk.chat.config.StompPrincipal;
+import sync.slamtalk.chat.entity.RoomType;
+import sync.slamtalk.chat.service.ChatServiceImpl;
+import sync.slamtalk.security.jwt.JwtTokenProvider;
+import sync.slamtalk.user.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * STOMP 인바운드 프레임 처리 (ChatInboundInterceptor.preSend)
+ * 레포지토리/서비스는 mock 이므로 프레임당 인터셉터 자체 비용(권한 캐시 조회, 본문 디코딩, 헤더 복사)만 측정한다.
+ * (웹소켓 스레드에서 실행되는 부분, 메세지 저장과 readIndex 기록은 메세지 핸들러에서 실행)
+ * (mock 은 호출 기록이 쌓이지 않도록 stubOnly)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChatInboundInterceptorBenchmark {
+
+    private static final long USER_ID = 3L;
+    private static final long ROOM_ID = 1L;
+
+    private ChatInboundInterceptor interceptor;
+    private MessageChannel channel;
+    private Message<byte[]> sendMessage;
+    private Message<byte[]> sendBack;
+    private Message<byte[]> subscribe;
+
+    @Setup
+    public void setUp() {
+        ChatServiceImpl chatService = mock(ChatServiceImpl.class, withSettings().stubOnly());
+
+        ChatAuthorizationCache chatAuthorizationCache = mock(ChatAuthorizationCache.class, withSettings().stubOnly());
+        when(chatAuthorizationCache.roomType(anyLong())).thenReturn(Optional.of(RoomType.TOGETHER));
+        when(chatAuthorizationCache.isMember(anyLong(), anyLong())).thenReturn(true);
+
+        interceptor = new ChatInboundInterceptor(
+                mock(JwtTokenProvider.class),
+                mock(UserRepository.class),
+                new StompHandler(chatService, chatAuthorizationCache),
+                new ChatPayloadCodec(Jackson2ObjectMapperBuilder.json().build()),
+                new SimpleMeterRegistry());
+        channel = mock(MessageChannel.class, withSettings().stubOnly());
+
+        String body = "{\"senderId\":3,\"senderNickname\":\"슬램\",\"content\":\"오늘 저녁 7시에 한 게임 어때요?\"}";
+        sendMessage = frame(StompCommand.SEND, "/pub/chat/message/" + ROOM_ID, body);
+        sendBack = frame(StompCommand.SEND, "/pub/chat/back/" + ROOM_ID, "{\"senderId\":3}");
+        subscribe = frame(StompCommand.SUBSCRIBE, "/sub/chat/room/" + ROOM_ID, "");
+    }
+
+    @Benchmark
+    public Message<?> sendMessage() {
+        return interceptor.preSend(sendMessage, channel);
+    }
+
+    @Benchmark
+    public Message<?> sendBack() {
+        return interceptor.preSend(sendBack, channel);
+    }
+
+    @Benchmark
+    public Message<?> subscribe() {
+        return interceptor.preSend(subscribe, channel);
+    }
+
+    // CONNECT 를 거친 세션의 프레임 (세션에 인증 정보 저장)
+    private Message<byte[]> frame(StompCommand command, String destination, String body) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setSessionId("session-1");
+        accessor.setSubscriptionId("sub-1");
+        Map<String, Object> sessionAttributes = new HashMap<>();
+        sessionAttributes.put(StompPrincipal.SESSION_ATTRIBUTE,
+                new StompPrincipal(USER_ID, Instant.now().plusSeconds(3600)));
+        accessor.setSessionAttributes(sessionAttributes);
+        return MessageBuilder.createMessage(body.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+}
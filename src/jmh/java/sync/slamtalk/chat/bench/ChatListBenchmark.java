@@ -0,0 +1,146 @@
+package sync.slamtalk.chat.bench;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import sync.slamtalk.chat.archive.MessageArchive;
+import sync.slamtalk.chat.cache.ChatAuthorizationCache;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.dto.Response.ChatRoomDTO;
+import sync.slamtalk.chat.entity.ChatRoom;
+import sync.slamtalk.chat.entity.RoomType;
+import sync.slamtalk.chat.entity.UserChatRoom;
+import sync.slamtalk.chat.redis.ReadIndexStore;
+import sync.slamtalk.chat.redis.RedisService;
+import sync.slamtalk.chat.redis.UnreadCountStore;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+import sync.slamtalk.chat.service.ChatRoomCreator;
+import sync.slamtalk.chat.service.ChatServiceImpl;
+import sync.slamtalk.chat.service.MessageIdGenerator;
+import sync.slamtalk.chat.service.MessageWriteBehindQueue;
+import sync.slamtalk.common.id.SnowflakeIdGenerator;
+import sync.slamtalk.map.repository.BasketballCourtRepository;
+import sync.slamtalk.user.UserRepository;
+import sync.slamtalk.user.cache.SenderProfileCache;
+import sync.slamtalk.user.dto.request.UserSignUpReq;
+import sync.slamtalk.user.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 리스트 조회 (ChatServiceImpl.getChatLIst)
+ * 유저가 참여한 채팅방 수(10/100/1000)별로 채팅 리스트 한 번 조회 비용을 측정한다.
+ * 채팅방 절반은 1:1 (상대방 프로필 join), 나머지는 같이하기 채팅방이고 모든 채팅방에 마지막 메세지가 있다.
+ * 안 읽은 메세지 수는 embedded Redis 의 UnreadCountStore 에서 조회한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatListBenchmark {
+
+    private static final String PASSWORD = "123@password!";
+
+    @Param({"10", "100", "1000"})
+    public int rooms;
+
+    private EmbeddedRedis embeddedRedis;
+    private ConfigurableApplicationContext context;
+    private ChatServiceImpl chatService;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        embeddedRedis = new EmbeddedRedis();
+        UnreadCountStore unreadCountStore = new UnreadCountStore(embeddedRedis.template(), 120_000, 600);
+        context = ChatBenchContext.start(beans -> {
+            beans.registerBean(UnreadCountStore.class, () -> unreadCountStore);
+            beans.registerBean(ChatServiceImpl.class);
+            ChatBenchContext.registerMocks(beans,
+                    UserRepository.class,
+                    BasketballCourtRepository.class,
+                    RedisService.class,
+                    SenderProfileCache.class,
+                    MessageIdGenerator.class,
+                    MessageWriteBehindQueue.class,
+                    ChatAuthorizationCache.class,
+                    ChatRoomCreator.class,
+                    MessageArchive.class,
+                    ReadIndexStore.class);
+        });
+        chatService = context.getBean(ChatServiceImpl.class);
+
+        List<Long> roomIds = new ArrayList<>();
+        userId = context.getBean(TransactionTemplate.class).execute(status -> seed(roomIds));
+
+        // 채팅방마다 마지막 메세지 (메세지 저장 경로에서 채팅방의 마지막 메세지도 함께 갱신됨)
+        List<ChatMessageDTO> lastMessages = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            lastMessages.add(ChatMessageDTO.builder()
+                    .messageId(String.valueOf(SnowflakeIdGenerator.shared().nextId()))
+                    .roomId(roomId.toString())
+                    .senderId(userId)
+                    .senderNickname("me")
+                    .content("오늘 저녁 7시에 한 게임 어때요?")
+                    .timestamp("2024-01-01T19:00:00.000000")
+                    .build());
+            unreadCountStore.markRead(userId, roomId);
+            unreadCountStore.onMessage(roomId, null);
+        }
+        context.getBean(MessagesJdbcRepository.class).batchInsert(lastMessages);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        embeddedRedis.close();
+    }
+
+    @Benchmark
+    public List<ChatRoomDTO> getChatList() {
+        return chatService.getChatLIst(userId);
+    }
+
+    // 유저 한 명과 채팅방 rooms 개 (1:1 채팅방은 상대방 유저도 생성)
+    private Long seed(List<Long> roomIds) {
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        User me = new UserSignUpReq("me@slamtalk.com", PASSWORD, "me").toEntity();
+        entityManager.persist(me);
+
+        for (int i = 0; i < rooms; i++) {
+            boolean direct = i % 2 == 0;
+            ChatRoom chatRoom = ChatRoom.builder()
+                    .name("채팅방" + i)
+                    .roomType(direct ? RoomType.DIRECT : RoomType.TOGETHER)
+                    .build();
+            entityManager.persist(chatRoom);
+
+            UserChatRoom.UserChatRoomBuilder userChatRoom = UserChatRoom.builder()
+                    .user(me)
+                    .chat(chatRoom)
+                    .name(chatRoom.getName())
+                    .roomType(chatRoom.getRoomType())
+                    .readIndex(0L);
+            if (direct) {
+                User partner = new UserSignUpReq("partner" + i + "@slamtalk.com", PASSWORD, "partner" + i).toEntity();
+                entityManager.persist(partner);
+                userChatRoom.directId(partner.getId());
+            } else {
+                userChatRoom.togetherId((long) i);
+            }
+            entityManager.persist(userChatRoom.build());
+            roomIds.add(chatRoom.getId());
+        }
+        return me.getId();
+    }
+}
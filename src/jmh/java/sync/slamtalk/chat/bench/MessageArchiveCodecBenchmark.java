@@ -0,0 +1,53 @@
+package sync.slamtalk.chat.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import sync.slamtalk.chat.archive.ArchivedMessage;
+import sync.slamtalk.chat.archive.MessageArchiveCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 아카이브 블록 압축/압축 해제 (chat.archive.block-size 기본값 1000개)
+ * decode 는 과거 내역이 아카이브로 넘어갈 때 블록 캐시에 없으면 한 번 일어나는 비용이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageArchiveCodecBenchmark {
+
+    private static final int BLOCK_SIZE = 1000;
+
+    private MessageArchiveCodec messageArchiveCodec;
+    private List<ArchivedMessage> messages;
+    private byte[] block;
+
+    @Setup
+    public void setUp() {
+        messageArchiveCodec = new MessageArchiveCodec(Jackson2ObjectMapperBuilder.json().build());
+        messages = new ArrayList<>();
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            messages.add(new ArchivedMessage(7153846791638093824L + i, (long) (i % 8), "슬램" + (i % 8),
+                    "오늘 저녁 7시에 한 게임 어때요? " + i, "2024-01-01T19:00:00.000000"));
+        }
+        block = messageArchiveCodec.encode(messages);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return messageArchiveCodec.encode(messages);
+    }
+
+    @Benchmark
+    public List<ArchivedMessage> decode() {
+        return messageArchiveCodec.decode(block);
+    }
+}
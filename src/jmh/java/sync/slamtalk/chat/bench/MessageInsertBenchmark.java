@@ -0,0 +1,127 @@
+package sync.slamtalk.chat.bench;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.entity.ChatRoom;
+import sync.slamtalk.chat.entity.Messages;
+import sync.slamtalk.chat.entity.RoomType;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+import sync.slamtalk.chat.repository.MessagesRepository;
+import sync.slamtalk.common.id.SnowflakeIdGenerator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메세지 저장 처리량 (초당 메세지 수)
+ * - batchInsert  : write-behind 큐가 모아서 저장하는 JDBC batch insert (Batch.size 개씩)
+ * - jpaSave      : 메세지마다 트랜잭션 하나로 저장하던 이전 방식 기준선
+ * 기본 H2 는 MySQL 의 rewriteBatchedStatements 효과가 없으므로 절대값은 MySQL 로 측정한다. (ChatBenchContext 참고)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MessageInsertBenchmark {
+
+    private static final int MESSAGES = 500;
+
+    private ConfigurableApplicationContext context;
+    private MessagesJdbcRepository messagesJdbcRepository;
+    private MessagesRepository messagesRepository;
+    private JdbcTemplate jdbcTemplate;
+    private ChatRoom chatRoom;
+
+    @Setup
+    public void setUp() {
+        context = ChatBenchContext.start(beans -> {
+        });
+        messagesJdbcRepository = context.getBean(MessagesJdbcRepository.class);
+        messagesRepository = context.getBean(MessagesRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        chatRoom = context.getBean(TransactionTemplate.class).execute(status -> {
+            ChatRoom room = ChatRoom.builder()
+                    .name("농구방")
+                    .roomType(RoomType.BASKETBALL)
+                    .build();
+            context.getBean(EntityManager.class).persist(room);
+            return room;
+        });
+    }
+
+    // 반복마다 테이블을 비워서 테이블 크기가 결과에 섞이지 않도록 함
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.update("delete from messages");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void batchInsert(Batch batchSize) {
+        List<ChatMessageDTO> batch = new ArrayList<>(batchSize.size);
+        for (int i = 0; i < MESSAGES; i++) {
+            batch.add(message());
+            if (batch.size() == batchSize.size) {
+                messagesJdbcRepository.batchInsert(batch);
+                batch = new ArrayList<>(batchSize.size);
+            }
+        }
+        if (!batch.isEmpty()) {
+            messagesJdbcRepository.batchInsert(batch);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void jpaSave() {
+        for (int i = 0; i < MESSAGES; i++) {
+            ChatMessageDTO message = message();
+            messagesRepository.save(Messages.builder()
+                    .chatRoom(chatRoom)
+                    .senderId(message.getSenderId())
+                    .senderNickname(message.getSenderNickname())
+                    .content(message.getContent())
+                    .creation_time(message.getTimestamp())
+                    .sentAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    private ChatMessageDTO message() {
+        return ChatMessageDTO.builder()
+                .messageId(String.valueOf(SnowflakeIdGenerator.shared().nextId()))
+                .roomId(chatRoom.getId().toString())
+                .senderId(3L)
+                .senderNickname("슬램")
+                .content("오늘 저녁 7시에 한 게임 어때요?")
+                .timestamp(LocalDateTime.now().format(Messages.CREATION_TIME_FORMAT))
+                .build();
+    }
+
+    // batch insert 한 번에 저장하는 메세지 수 (jpaSave 는 사용하지 않음)
+    @State(Scope.Benchmark)
+    public static class Batch {
+        @Param({"1", "50", "500"})
+        public int size;
+    }
+}
@@ -0,0 +1,184 @@
+package sync.slamtalk.chat.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import sync.slamtalk.chat.archive.LocalArchiveStore;
+import sync.slamtalk.chat.archive.MessageArchive;
+import sync.slamtalk.chat.archive.MessageArchiveCodec;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.entity.ChatRoom;
+import sync.slamtalk.chat.entity.Messages;
+import sync.slamtalk.chat.entity.RoomType;
+import sync.slamtalk.chat.repository.MessageArchiveBlockRepository;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+import sync.slamtalk.chat.repository.MessagesRepository;
+import sync.slamtalk.chat.service.MessageArchiver;
+import sync.slamtalk.chat.service.SnowflakeMessageIdGenerator;
+import sync.slamtalk.common.id.SnowflakeIdGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 메세지 아카이브 전후 messages 테이블 크기와 과거 내역 한 페이지 조회 비용
+ * 채팅방 하나에 메세지 messages 개 (90% 는 120일 전, 10% 는 최근) 를 넣고,
+ * archived=true 이면 MessageArchiver 로 오래된 메세지를 압축 블록(임시 디렉토리)으로 옮긴 뒤 측정한다.
+ *
+ * - recentPage : 최근 메세지 한 페이지 (DB)
+ * - oldPage    : 오래된 메세지 한 페이지 (archived=false 이면 DB, true 이면 아카이브 블록, 블록 캐시 포함)
+ * 테이블 크기(행 수, MySQL 이면 data_length + index_length)는 setUp 에서 출력한다.
+ * 버퍼 풀에 미치는 효과는 H2 에서 재현되지 않으므로 MySQL 로 측정한다. (ChatBenchContext 참고)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageTieringBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int BLOCK_SIZE = 1000;
+
+    @Param({"false", "true"})
+    public boolean archived;
+
+    @Param({"100000"})
+    public int messages;
+
+    private Path archiveDir;
+    private ConfigurableApplicationContext context;
+    private MessagesRepository messagesRepository;
+    private MessageArchive messageArchive;
+    private Long roomId;
+    private long recentCursor;
+    private long oldCursor;
+
+    @Setup
+    public void setUp() throws IOException {
+        archiveDir = Files.createTempDirectory("chat-archive-bench");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MessageArchiveCodec codec = new MessageArchiveCodec(Jackson2ObjectMapperBuilder.json().build());
+        LocalArchiveStore archiveStore = new LocalArchiveStore(archiveDir.toString(), true, "simple");
+        context = ChatBenchContext.start(beans -> beans.registerBean(MessageArchive.class, () -> new MessageArchive(
+                beans.getBean(MessageArchiveBlockRepository.class),
+                beans.getBean(MessagesJdbcRepository.class),
+                archiveStore, codec, meterRegistry, 64)));
+        messagesRepository = context.getBean(MessagesRepository.class);
+        messageArchive = context.getBean(MessageArchive.class);
+
+        roomId = context.getBean(TransactionTemplate.class).execute(status -> {
+            ChatRoom room = ChatRoom.builder()
+                    .name("농구방")
+                    .roomType(RoomType.BASKETBALL)
+                    .build();
+            context.getBean(EntityManager.class).persist(room);
+            return room.getId();
+        });
+
+        // 오래된 메세지 90%, 최근 메세지 10% (메세지마다 1ms 씩 지난 시각으로 발급)
+        long now = System.currentTimeMillis();
+        AtomicLong clock = new AtomicLong(now - Duration.ofDays(120).toMillis());
+        SnowflakeIdGenerator ids = new SnowflakeIdGenerator(1, clock::get);
+        int oldMessages = messages * 9 / 10;
+        MessagesJdbcRepository messagesJdbcRepository = context.getBean(MessagesJdbcRepository.class);
+        List<ChatMessageDTO> batch = new ArrayList<>();
+        for (int i = 0; i < messages; i++) {
+            if (i == oldMessages) {
+                clock.set(now - Duration.ofMinutes(10).toMillis());
+            }
+            clock.incrementAndGet();
+            long id = ids.nextId();
+            if (i == oldMessages / 2) {
+                oldCursor = id;
+            }
+            recentCursor = id + 1;
+            batch.add(ChatMessageDTO.builder()
+                    .messageId(String.valueOf(id))
+                    .roomId(roomId.toString())
+                    .senderId((long) (i % 8))
+                    .senderNickname("슬램" + (i % 8))
+                    .content("오늘 저녁 7시에 한 게임 어때요? " + i)
+                    .timestamp("2024-01-01T19:00:00.000000")
+                    .build());
+            if (batch.size() == BLOCK_SIZE) {
+                messagesJdbcRepository.batchInsert(batch);
+                batch.clear();
+            }
+        }
+        messagesJdbcRepository.batchInsert(batch);
+
+        if (archived) {
+            // 아이디는 위에서 직접 발급했으므로 채팅방 마지막 아이디(Redis)는 사용하지 않음
+            MessageArchiver archiver = new MessageArchiver(messagesJdbcRepository, messageArchive, archiveStore, codec,
+                    new SnowflakeMessageIdGenerator(ids, null, 1000), meterRegistry, -1, 90, BLOCK_SIZE, 100);
+            // 한 번 실행에 채팅방마다 블록 하나
+            for (int run = 0; run <= oldMessages / BLOCK_SIZE; run++) {
+                archiver.archive();
+            }
+        }
+        printTableSize();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        FileSystemUtils.deleteRecursively(archiveDir.toFile());
+    }
+
+    @Benchmark
+    public int recentPage() {
+        return page(recentCursor);
+    }
+
+    @Benchmark
+    public int oldPage() {
+        return page(oldCursor);
+    }
+
+    // ChatServiceImpl.getPreviousChatMessages 의 DB -> 아카이브 순서 (Redis, 프로필 조회 제외)
+    private int page(long cursor) {
+        List<Messages> rows = messagesRepository.findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(
+                roomId, cursor, PageRequest.of(0, PAGE_SIZE));
+        int size = rows.size();
+        if (size < PAGE_SIZE) {
+            long next = rows.isEmpty() ? cursor : rows.get(size - 1).getId();
+            size += messageArchive.findBefore(roomId, next, PAGE_SIZE - size).size();
+        }
+        return size;
+    }
+
+    private void printTableSize() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long rows = jdbcTemplate.queryForObject("select count(*) from messages", Long.class);
+        Long blocks = jdbcTemplate.queryForObject("select count(*) from message_archive_block", Long.class);
+        System.out.printf("archived=%s messages 행 %d개, 아카이브 블록 %d개%n", archived, rows, blocks);
+        try {
+            // 통계 갱신 (InnoDB 는 지운 행의 페이지를 재사용할 뿐 파일을 줄이지 않으므로 OPTIMIZE TABLE 전까지 data_length 는 천천히 준다)
+            jdbcTemplate.execute("analyze table messages");
+            Long bytes = jdbcTemplate.queryForObject("select data_length + index_length from information_schema.tables " +
+                    "where table_schema = database() and table_name = 'messages'", Long.class);
+            System.out.printf("archived=%s messages 테이블 %d bytes (data + index)%n", archived, bytes);
+        } catch (Exception e) {
+            // H2 는 테이블 크기를 제공하지 않음
+        }
+    }
+}
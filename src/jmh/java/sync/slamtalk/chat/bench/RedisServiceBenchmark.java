@@ -0,0 +1,90 @@
+package sync.slamtalk.chat.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.redis.RedisService;
+import sync.slamtalk.user.cache.SenderProfileCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 채팅 메세지 캐시 (RedisService, embedded Redis)
+ * - saveMessage        : 메세지 저장 스크립트 (hash + 채팅방 인덱스 + 채팅방 LRU + 채팅방당 최대 갯수 정리)
+ * - getMessagesBefore  : 과거 내역 한 페이지 (20개)
+ * - getMessagesAfter   : 재연결 catch-up 한 배치 (50개)
+ * 로컬 embedded Redis 라서 네트워크 왕복은 실제보다 짧다. (명령 수/스크립트 비용 비교용)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RedisServiceBenchmark {
+
+    private static final long ROOM_ID = 1L;
+    private static final int CACHED_MESSAGES = 200;
+
+    private EmbeddedRedis embeddedRedis;
+    private RedisService redisService;
+    private final AtomicLong nextMessageId = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        embeddedRedis = new EmbeddedRedis();
+        SenderProfileCache senderProfileCache = mock(SenderProfileCache.class, withSettings().stubOnly());
+        when(senderProfileCache.getAll(any())).thenReturn(Map.of());
+        redisService = new RedisService(embeddedRedis.template(), embeddedRedis.template(), senderProfileCache,
+                new SimpleMeterRegistry(), 43200, CACHED_MESSAGES, 5000);
+
+        // 조회용 채팅방 (캐시 최대 갯수만큼 채움)
+        for (int i = 0; i < CACHED_MESSAGES; i++) {
+            redisService.saveMessage(message(ROOM_ID, nextMessageId.incrementAndGet()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        embeddedRedis.close();
+    }
+
+    @Benchmark
+    public void saveMessage() {
+        // 조회용 채팅방과 섞이지 않도록 다른 채팅방에 저장
+        redisService.saveMessage(message(ROOM_ID + 1, nextMessageId.incrementAndGet()));
+    }
+
+    @Benchmark
+    public List<ChatMessageDTO> getMessagesBefore() {
+        return redisService.getMessagesBefore(ROOM_ID, Long.MAX_VALUE, 20);
+    }
+
+    @Benchmark
+    public List<ChatMessageDTO> getMessagesAfter() {
+        return redisService.getMessagesAfter(ROOM_ID, CACHED_MESSAGES - 50, 50);
+    }
+
+    private ChatMessageDTO message(long roomId, long messageId) {
+        return ChatMessageDTO.builder()
+                .messageId(String.valueOf(messageId))
+                .roomId(String.valueOf(roomId))
+                .senderId(3L)
+                .senderNickname("슬램")
+                .content("오늘 저녁 7시에 한 게임 어때요? " + messageId)
+                .timestamp("2024-01-01T19:00:00.000000")
+                .build();
+    }
+}
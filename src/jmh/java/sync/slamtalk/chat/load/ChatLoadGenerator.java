@@ -0,0 +1,201 @@
+package sync.slamtalk.chat.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 채팅 웹소켓 부하 테스트
+ * N 개 클라이언트가 M 개 채팅방에 나눠서 구독하고, 클라이언트마다 초당 load.rate 개 메세지를 보낸다.
+ * 메세지 본문에 보낸 시각(System.nanoTime)을 담아서 같은 채팅방 구독자가 받을 때까지 걸린 시간(fan-out 지연)을 잰다.
+ * (보내는 쪽과 받는 쪽이 같은 JVM 이라서 시계 차이가 없음)
+ *
+ * - load.url     : 웹소켓 엔드포인트 (기본 ws://localhost:8080/ws/slamtalk)
+ * - load.tokens  : 액세스 토큰 파일 (한 줄에 하나, 클라이언트 i 는 i % 토큰 수 번째 토큰 사용)
+ * - load.rooms   : 채팅방 아이디 목록 (쉼표 구분, 클라이언트 i 는 i % 채팅방 수 번째 채팅방 구독)
+ * - load.clients : 클라이언트 수 (기본 토큰 수)
+ * - load.rate    : 클라이언트당 초당 메세지 수 (기본 1)
+ * - load.seconds : 메세지를 보내는 시간 (기본 60)
+ *
+ * 1:1/같이하기/팀매칭 채팅방은 토큰의 유저가 참여자여야 구독할 수 있으므로 농구장 채팅방(구독 시 참여)을 쓰는 것이 편하다.
+ */
+public class ChatLoadGenerator {
+
+    private static final String CONTENT_PREFIX = "load:";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final Timer fanoutTimer;
+
+    private ChatLoadGenerator(int seconds) {
+        // 실행 중에 분포가 초기화되지 않도록 만료 시간을 실행 시간보다 길게
+        this.fanoutTimer = Timer.builder("chat.load.fanout")
+                .publishPercentiles(0.5, 0.99)
+                .distributionStatisticExpiry(Duration.ofSeconds(seconds).plusMinutes(5))
+                .distributionStatisticBufferLength(1)
+                .register(meterRegistry);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("load.url", "ws://localhost:8080/ws/slamtalk");
+        List<String> tokens = Files.readAllLines(Path.of(required("load.tokens"))).stream()
+                .map(String::trim)
+                .filter(token -> !token.isEmpty())
+                .toList();
+        List<Long> rooms = Arrays.stream(required("load.rooms").split(","))
+                .map(String::trim)
+                .map(Long::valueOf)
+                .toList();
+        int clients = Integer.getInteger("load.clients", tokens.size());
+        double rate = Double.parseDouble(System.getProperty("load.rate", "1"));
+        int seconds = Integer.getInteger("load.seconds", 60);
+        if (tokens.isEmpty() || rooms.isEmpty() || clients <= 0 || rate <= 0) {
+            throw new IllegalArgumentException("load.tokens, load.rooms, load.clients, load.rate 를 확인하세요.");
+        }
+
+        new ChatLoadGenerator(seconds).run(url, tokens, rooms, clients, rate, seconds);
+    }
+
+    private void run(String url, List<String> tokens, List<Long> rooms, int clients, double rate, int seconds)
+            throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setDefaultHeartbeat(new long[]{0, 0});
+
+        // 연결, 구독 (서버에 한꺼번에 몰리지 않도록 순서대로)
+        List<StompSession> sessions = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            StompHeaders connectHeaders = new StompHeaders();
+            connectHeaders.add("authorization", tokens.get(i % tokens.size()));
+            StompSession session = stompClient.connectAsync(url, null, connectHeaders, new ErrorCounter())
+                    .get(10, TimeUnit.SECONDS);
+            session.subscribe("/sub/chat/room/" + rooms.get(i % rooms.size()), new FanoutHandler());
+            sessions.add(session);
+        }
+        System.out.printf("클라이언트 %d개 연결, 채팅방 %d개%n", clients, rooms.size());
+
+        // 클라이언트마다 초당 rate 개 (시작 시각은 흩어서)
+        long periodMicros = (long) (1_000_000 / rate);
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < clients; i++) {
+            StompSession session = sessions.get(i);
+            String destination = "/pub/chat/message/" + rooms.get(i % rooms.size());
+            scheduler.scheduleAtFixedRate(() -> send(session, destination),
+                    ThreadLocalRandom.current().nextLong(periodMicros), periodMicros, TimeUnit.MICROSECONDS);
+        }
+
+        TimeUnit.SECONDS.sleep(seconds);
+        scheduler.shutdownNow();
+        // 전송 중인 메세지가 도착할 때까지 대기
+        TimeUnit.SECONDS.sleep(3);
+        sessions.forEach(StompSession::disconnect);
+        stompClient.stop();
+
+        report(clients, rooms.size(), seconds);
+    }
+
+    private void send(StompSession session, String destination) {
+        try {
+            StompHeaders headers = new StompHeaders();
+            headers.setDestination(destination);
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            String body = "{\"senderNickname\":\"load\",\"content\":\"" + CONTENT_PREFIX + System.nanoTime() + "\"}";
+            session.send(headers, body.getBytes(StandardCharsets.UTF_8));
+            sent.incrementAndGet();
+        } catch (Exception e) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private void report(int clients, int rooms, int seconds) {
+        System.out.printf("실행 시간 %ds, 클라이언트 %d개, 채팅방 %d개%n", seconds, clients, rooms);
+        System.out.printf("보낸 메세지 %d개 (%.1f/s), 받은 메세지 %d개 (%.1f/s), 오류 %d건%n",
+                sent.get(), sent.get() / (double) seconds, received.get(), received.get() / (double) seconds, errors.get());
+        // 채팅방마다 구독자 수만큼 받아야 함 (clients / rooms 명)
+        System.out.printf("예상 수신 %d개%n", sent.get() * clients / rooms);
+        for (ValueAtPercentile percentile : fanoutTimer.takeSnapshot().percentileValues()) {
+            System.out.printf("fan-out p%.0f : %.2f ms%n", percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS));
+        }
+        System.out.printf("fan-out max : %.2f ms%n", fanoutTimer.max(TimeUnit.MILLISECONDS));
+    }
+
+    // 채팅방 메세지 수신 -> 보낸 시각부터 걸린 시간 기록
+    private class FanoutHandler implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long now = System.nanoTime();
+            try {
+                JsonNode content = objectMapper.readTree((byte[]) payload).get("content");
+                if (content == null || !content.asText().startsWith(CONTENT_PREFIX)) {
+                    return;
+                }
+                long sentAt = Long.parseLong(content.asText().substring(CONTENT_PREFIX.length()));
+                fanoutTimer.record(now - sentAt, TimeUnit.NANOSECONDS);
+                received.incrementAndGet();
+            } catch (IOException | NumberFormatException e) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    // STOMP ERROR 프레임, 전송 오류
+    private class ErrorCounter extends StompSessionHandlerAdapter {
+
+        @Override
+        public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                                    byte[] payload, Throwable exception) {
+            errors.incrementAndGet();
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            errors.incrementAndGet();
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private static String required(String name) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " 가 필요합니다.");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,13 @@
+package sync.slamtalk.chat.archive;
+
+/**
+ * 아카이브 블록 저장소 (chat.archive.store = local | s3)
+ */
+public interface ArchiveStore {
+
+    // 블록 저장 (같은 키가 있으면 덮어씀)
+    void put(String key, byte[] block);
+
+    // 블록 조회
+    byte[] get(String key);
+}
@@ -0,0 +1,21 @@
+package sync.slamtalk.chat.archive;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 아카이브 블록에 저장하는 메세지 (블록 크기를 줄이기 위해 짧은 필드 이름으로 직렬화)
+ *
+ * @param id             메세지 아이디
+ * @param senderId       작성자 아이디
+ * @param senderNickname 작성자 닉네임
+ * @param content        메세지 내용
+ * @param creationTime   메세지 작성 시간
+ */
+public record ArchivedMessage(
+        @JsonProperty("i") long id,
+        @JsonProperty("s") Long senderId,
+        @JsonProperty("n") String senderNickname,
+        @JsonProperty("c") String content,
+        @JsonProperty("t") String creationTime
+) {
+}
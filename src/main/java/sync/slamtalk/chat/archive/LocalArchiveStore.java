@@ -0,0 +1,74 @@
+package sync.slamtalk.chat.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import sync.slamtalk.common.BaseException;
+import sync.slamtalk.common.ErrorResponseCode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 로컬 디렉토리 아카이브 저장소 (기본값, 서버 한 대 / 개발용)
+ * 임시 파일에 쓴 뒤 이동해서 읽는 쪽에서 쓰다 만 블록을 보지 않도록 한다.
+ *
+ * 블록은 아카이브를 실행한 서버의 디스크에만 있으므로 여러 서버로 운영하면 다른 서버에서 과거 내역을 읽을 수 없다.
+ * 아카이브를 켠 상태로 chat.broker.mode 가 simple 이 아니면(여러 서버) 시작하지 않는다. (chat.archive.store=s3 사용)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.archive.store", havingValue = "local", matchIfMissing = true)
+public class LocalArchiveStore implements ArchiveStore {
+
+    private final Path root;
+
+    public LocalArchiveStore(
+            @Value("${chat.archive.local-dir:chat-archive}") String root,
+            @Value("${chat.archive.enabled:false}") boolean archiveEnabled,
+            @Value("${chat.broker.mode:simple}") String brokerMode
+    ) {
+        if (archiveEnabled && !"simple".equals(brokerMode)) {
+            throw new IllegalStateException("chat.broker.mode=" + brokerMode
+                    + " (여러 서버) 에서는 로컬 아카이브 저장소를 사용할 수 없습니다. chat.archive.store=s3 를 설정하세요.");
+        }
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, byte[] block) {
+        Path target = resolve(key);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), "block", ".tmp");
+            Files.write(temp, block);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("아카이브 블록 저장 실패 key:{}", key, e);
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return Files.readAllBytes(resolve(key));
+        } catch (IOException e) {
+            log.error("아카이브 블록 조회 실패 key:{}", key, e);
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+    }
+
+    // 저장소 디렉토리 밖의 경로는 허용하지 않음
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,109 @@
+package sync.slamtalk.chat.archive;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import sync.slamtalk.chat.entity.MessageArchiveBlock;
+import sync.slamtalk.chat.repository.MessageArchiveBlockRepository;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 메세지 아카이브 (cold tier)
+ * messages 테이블에서 옮긴 오래된 메세지를 채팅방별 압축 블록으로 보관하고,
+ * 과거 내역 조회가 DB 에 남은 메세지보다 이전으로 넘어가면 블록에서 이어서 읽는다.
+ *
+ * 과거 내역은 한 블록을 여러 페이지에 걸쳐 읽으므로 압축을 푼 블록을 chat.archive.block-cache-size 개까지 캐시한다.
+ */
+@Slf4j
+@Component
+public class MessageArchive {
+
+    public static final String CACHE_NAME = "chat.archive.block";
+
+    private final MessageArchiveBlockRepository messageArchiveBlockRepository;
+    private final MessagesJdbcRepository messagesJdbcRepository;
+    private final ArchiveStore archiveStore;
+    private final MessageArchiveCodec messageArchiveCodec;
+    private final Cache<Long, List<ArchivedMessage>> blocks;
+    private final Timer readTimer;
+
+    public MessageArchive(
+            MessageArchiveBlockRepository messageArchiveBlockRepository,
+            MessagesJdbcRepository messagesJdbcRepository,
+            ArchiveStore archiveStore,
+            MessageArchiveCodec messageArchiveCodec,
+            MeterRegistry meterRegistry,
+            @Value("${chat.archive.block-cache-size:64}") long blockCacheSize
+    ) {
+        this.messageArchiveBlockRepository = messageArchiveBlockRepository;
+        this.messagesJdbcRepository = messagesJdbcRepository;
+        this.archiveStore = archiveStore;
+        this.messageArchiveCodec = messageArchiveCodec;
+        this.blocks = Caffeine.newBuilder()
+                .maximumSize(blockCacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, blocks, CACHE_NAME);
+        this.readTimer = meterRegistry.timer("chat.archive.read");
+    }
+
+    /**
+     * 아카이브에서 beforeMessageId 이전 메세지를 최신순으로 limit 개 조회
+     * 블록끼리 아이디 범위가 겹치지 않으므로 커서 이전 블록부터 거꾸로 읽는다.
+     *
+     * @param chatRoomId      채팅방 아이디
+     * @param beforeMessageId 커서 (포함하지 않음)
+     * @param limit           최대 메세지 수
+     * @return 메세지 목록 (아이디 내림차순)
+     */
+    public List<ArchivedMessage> findBefore(Long chatRoomId, long beforeMessageId, int limit) {
+        return readTimer.record(() -> {
+            List<ArchivedMessage> result = new ArrayList<>();
+            long cursor = beforeMessageId;
+            while (result.size() < limit) {
+                Optional<MessageArchiveBlock> block = messageArchiveBlockRepository
+                        .findFirstByChatRoomIdAndFirstMessageIdLessThanOrderByFirstMessageIdDesc(chatRoomId, cursor);
+                if (block.isEmpty()) {
+                    break;
+                }
+                List<ArchivedMessage> messages = read(block.get());
+                for (int i = messages.size() - 1; i >= 0 && result.size() < limit; i--) {
+                    if (messages.get(i).id() < cursor) {
+                        result.add(messages.get(i));
+                    }
+                }
+                cursor = block.get().getFirstMessageId();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 블록 등록
+     * 블록 본문은 ArchiveStore 에 먼저 저장되어 있어야 하고,
+     * 블록 등록과 messages 삭제는 한 트랜잭션으로 처리한다. (실패하면 메세지는 DB 에 그대로 남음)
+     *
+     * @param block 등록할 블록
+     * @return 삭제한 메세지 수
+     */
+    @Transactional
+    public int register(MessageArchiveBlock block) {
+        messageArchiveBlockRepository.save(block);
+        return messagesJdbcRepository.deleteRange(block.getChatRoomId(), block.getFirstMessageId(), block.getLastMessageId());
+    }
+
+    // 블록 압축 해제 (캐시)
+    private List<ArchivedMessage> read(MessageArchiveBlock block) {
+        return blocks.get(block.getId(), id -> messageArchiveCodec.decode(archiveStore.get(block.getStorageKey())));
+    }
+}
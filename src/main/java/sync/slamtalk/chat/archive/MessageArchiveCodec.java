@@ -0,0 +1,66 @@
+package sync.slamtalk.chat.archive;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import sync.slamtalk.common.BaseException;
+import sync.slamtalk.common.ErrorResponseCode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 아카이브 블록 코덱
+ * 메세지 목록(아이디 오름차순)을 JSON 배열로 직렬화한 뒤 deflate 로 압축한다.
+ * 같은 채팅방의 닉네임, 날짜 형식이 반복되므로 압축률이 높다.
+ */
+@Slf4j
+@Component
+public class MessageArchiveCodec {
+
+    private static final TypeReference<List<ArchivedMessage>> BLOCK_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectWriter blockWriter;
+    private final ObjectReader blockReader;
+
+    public MessageArchiveCodec(ObjectMapper objectMapper) {
+        this.blockWriter = objectMapper.writerFor(BLOCK_TYPE);
+        this.blockReader = objectMapper.readerFor(BLOCK_TYPE);
+    }
+
+    // 메세지 목록 -> 압축된 블록
+    public byte[] encode(List<ArchivedMessage> messages) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            blockWriter.writeValue(out, messages);
+        } catch (IOException e) {
+            log.error("아카이브 블록 압축 실패", e);
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    // 압축된 블록 -> 메세지 목록 (아이디 오름차순)
+    public List<ArchivedMessage> decode(byte[] block) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(block))) {
+            return blockReader.readValue(in);
+        } catch (IOException e) {
+            log.error("아카이브 블록 압축 해제 실패", e);
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+    }
+}
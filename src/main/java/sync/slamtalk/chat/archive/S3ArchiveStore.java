@@ -0,0 +1,66 @@
+package sync.slamtalk.chat.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import sync.slamtalk.common.BaseException;
+import sync.slamtalk.common.ErrorResponseCode;
+
+/**
+ * S3 (호환) 아카이브 저장소
+ * 이미지 업로드와 같은 S3Client 를 사용하고 버킷은 chat.archive.s3.bucket 으로 따로 지정할 수 있다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.archive.store", havingValue = "s3")
+public class S3ArchiveStore implements ArchiveStore {
+
+    private final S3Client s3Client;
+    private final String bucketName;
+    private final String prefix;
+
+    public S3ArchiveStore(
+            S3Client s3Client,
+            @Value("${chat.archive.s3.bucket:${spring.cloud.aws.s3.bucket}}") String bucketName,
+            @Value("${chat.archive.s3.prefix:chat-archive/}") String prefix
+    ) {
+        this.s3Client = s3Client;
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void put(String key, byte[] block) {
+        try {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(prefix + key)
+                            .contentType("application/octet-stream")
+                            .contentLength((long) block.length)
+                            .build(),
+                    RequestBody.fromBytes(block));
+        } catch (SdkException e) {
+            log.error("아카이브 블록 업로드 실패 key:{}", key, e);
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(prefix + key)
+                    .build()).asByteArray();
+        } catch (SdkException e) {
+            log.error("아카이브 블록 다운로드 실패 key:{}", key, e);
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package sync.slamtalk.chat.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sync.slamtalk.chat.entity.ChatRoom;
+import sync.slamtalk.chat.entity.RoomType;
+import sync.slamtalk.chat.repository.ChatRoomRepository;
+import sync.slamtalk.chat.repository.UserChatRoomRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * STOMP SUBSCRIBE/SEND 권한 검사용 캐시
+ * - 채팅방 아이디 -> 채팅방 타입 (존재하지 않는 방도 캐시)
+ * - (유저 아이디, 채팅방 아이디) -> 사용자 채팅방(UserChatRoom) 존재 여부 (없는 경우도 캐시)
+ *
+ * 채팅방/사용자 채팅방을 생성하거나 나갈 때 해당 키를 제거하고, Redis 채널(chat:authorization:evict)로
+ * 다른 서버에도 알려서 같은 키를 제거하게 한다. (나간 유저가 다른 서버에서 계속 구독/전송하지 못하도록)
+ * pub/sub 은 연결이 끊긴 동안의 신호를 잃을 수 있으므로 참여 중(positive) 도 ttl 이 지나면 다시 조회하고,
+ * 없는 경우(negative) 는 짧게만 캐시한다.
+ * 히트/미스 는 cache.* 메트릭(cache=chat.room.type, chat.room.membership)으로 노출된다.
+ */
+@Slf4j
+@Component
+public class ChatAuthorizationCache implements MessageListener {
+
+    public static final String ROOM_TYPE_CACHE_NAME = "chat.room.type";
+    public static final String MEMBERSHIP_CACHE_NAME = "chat.room.membership";
+    public static final String EVICT_CHANNEL = "chat:authorization:evict";
+
+    private static final String ROOM_PREFIX = "room:";
+    private static final String MEMBERSHIP_PREFIX = "membership:";
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final UserChatRoomRepository userChatRoomRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Cache<Long, Optional<RoomType>> roomTypes;
+    private final Cache<MembershipKey, Boolean> memberships;
+
+    public ChatAuthorizationCache(
+            ChatRoomRepository chatRoomRepository,
+            UserChatRoomRepository userChatRoomRepository,
+            StringRedisTemplate stringRedisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${chat.authorization-cache.maximum-size:100000}") long maximumSize,
+            @Value("${chat.authorization-cache.ttl-seconds:120}") long ttlSeconds,
+            @Value("${chat.authorization-cache.negative-ttl-seconds:5}") long negativeTtlSeconds
+    ) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.userChatRoomRepository = userChatRoomRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        Duration negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+        this.roomTypes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeAwareExpiry<Long, Optional<RoomType>>(Optional::isPresent, ttl, negativeTtl))
+                .recordStats()
+                .build();
+        this.memberships = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeAwareExpiry<MembershipKey, Boolean>(Boolean::booleanValue, ttl, negativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, roomTypes, ROOM_TYPE_CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, memberships, MEMBERSHIP_CACHE_NAME);
+    }
+
+    /**
+     * 채팅방 타입 조회
+     *
+     * @param roomId 채팅방 아이디
+     * @return 채팅방 타입 (존재하지 않는 채팅방이면 empty)
+     */
+    public Optional<RoomType> roomType(Long roomId) {
+        return roomTypes.get(roomId, this::loadRoomType);
+    }
+
+    /**
+     * 유저의 채팅 리스트(UserChatRoom)에 채팅방이 있는지 확인
+     *
+     * @param userId 유저 아이디
+     * @param roomId 채팅방 아이디
+     * @return 존재 여부
+     */
+    public boolean isMember(Long userId, Long roomId) {
+        return memberships.get(new MembershipKey(userId, roomId), this::loadMembership);
+    }
+
+    /**
+     * 채팅방이 생성/변경되었을 때 채팅방 타입 제거
+     *
+     * @param roomId 채팅방 아이디
+     */
+    public void evictRoom(Long roomId) {
+        evict(() -> roomTypes.invalidate(roomId), ROOM_PREFIX + roomId);
+    }
+
+    /**
+     * 사용자 채팅방이 생성/삭제되었을 때 참여 여부 제거
+     *
+     * @param userId 유저 아이디
+     * @param roomId 채팅방 아이디
+     */
+    public void evictMembership(Long userId, Long roomId) {
+        MembershipKey key = new MembershipKey(userId, roomId);
+        evict(() -> memberships.invalidate(key), MEMBERSHIP_PREFIX + userId + ":" + roomId);
+    }
+
+    // 다른 서버에서 보낸 제거 신호 수신
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            if (body.startsWith(ROOM_PREFIX)) {
+                roomTypes.invalidate(Long.parseLong(body.substring(ROOM_PREFIX.length())));
+            } else if (body.startsWith(MEMBERSHIP_PREFIX)) {
+                String[] parts = body.substring(MEMBERSHIP_PREFIX.length()).split(":");
+                memberships.invalidate(new MembershipKey(Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+            }
+        } catch (RuntimeException e) {
+            log.warn("[채팅 권한 캐시] 잘못된 제거 신호 : {}", body);
+        }
+    }
+
+    // 트랜잭션 안에서 호출되면 커밋 이후에 한번 더 제거해서 커밋 전에 다시 적재된 값이 남지 않도록 함
+    // 다른 서버에는 커밋 이후에 알림 (커밋 전에 알리면 다른 서버가 이전 값을 다시 적재할 수 있음)
+    private void evict(Runnable invalidate, String signal) {
+        invalidate.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                    publish(signal);
+                }
+            });
+            return;
+        }
+        publish(signal);
+    }
+
+    // 알림에 실패해도 다른 서버는 ttl 이 지나면 다시 조회하므로 예외를 던지지 않음
+    private void publish(String signal) {
+        try {
+            stringRedisTemplate.convertAndSend(EVICT_CHANNEL, signal);
+        } catch (Exception e) {
+            log.warn("[채팅 권한 캐시] 제거 신호 발행 실패 {} : {}", signal, e.getMessage());
+        }
+    }
+
+    private Optional<RoomType> loadRoomType(Long roomId) {
+        log.debug("[채팅 권한 캐시] 채팅방 조회 : {}", roomId);
+        return chatRoomRepository.findById(roomId).map(ChatRoom::getRoomType);
+    }
+
+    private Boolean loadMembership(MembershipKey key) {
+        log.debug("[채팅 권한 캐시] 사용자 채팅방 조회 : {}", key);
+        return userChatRoomRepository.existsByUserChatroom(key.userId(), key.roomId());
+    }
+
+    private record MembershipKey(Long userId, Long roomId) {
+    }
+
+    // 값이 있으면 ttl, 없으면 negativeTtl 동안 유지 (갱신 시에도 다시 계산)
+    private record NegativeAwareExpiry<K, V>(Predicate<V> positive, Duration ttl, Duration negativeTtl) implements Expiry<K, V> {
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return (positive.test(value) ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,47 +1,102 @@
 package sync.slamtalk.chat.config;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
-import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.stereotype.Component;
 import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
-import sync.slamtalk.chat.entity.ChatRoom;
-import sync.slamtalk.chat.entity.Messages;
 import sync.slamtalk.chat.entity.RoomType;
-import sync.slamtalk.chat.repository.ChatRoomRepository;
-import sync.slamtalk.chat.service.ChatServiceImpl;
 import sync.slamtalk.security.jwt.JwtTokenProvider;
 import sync.slamtalk.user.UserRepository;
 import sync.slamtalk.user.entity.User;
 
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.util.Map;
 import java.util.Optional;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메세지 헤더에 존재하는 Authorization 으로 사용자 검증
+ * 토큰 만료나 변조 시, 예외를 터트린다.
+ *
+ * preSend 는 프레임을 받은 웹소켓 스레드에서 실행되므로 인증, 권한 검사(캐시)와 본문 디코딩만 하고
+ * 메세지 저장, readIndex 기록은 메세지 핸들러(StompChatController)에서,
+ * 농구장 채팅방 참여(DB 저장)는 beforeHandle 에서 clientInbound 실행기(StompChannelExecutors)가 실행한다.
+ */
 @Slf4j
 @RequiredArgsConstructor
 @Component
-public class ChatInboundInterceptor implements ChannelInterceptor {
+public class ChatInboundInterceptor implements ExecutorChannelInterceptor {
 
-    /**
-     * 메세지 헤더에 존재하는 Authorization 으로 사용자 검증
-     * 토큰 만료나 변조 시, 예외를 터트린다.
-     */
-    private final ChatServiceImpl chatService;
     private final JwtTokenProvider tokenProvider;
     private final UserRepository userRepository;
-    private final ChatRoomRepository chatRoomRepository;
     private final StompHandler stompHandler;
+    private final ChatPayloadCodec chatPayloadCodec;
+    private final MeterRegistry meterRegistry;
+    private final Map<StompCommand, Timer> inboundTimers = new ConcurrentHashMap<>();
+
+    // 구독 시 농구장 채팅방 참여가 필요하다는 표시 (preSend -> beforeHandle)
+    static final String JOIN_BASKETBALL_HEADER = "slamtalk.joinBasketball";
 
 
     // 메세지가 전송되기 전에 실행
+    // 커맨드별 처리 시간은 chat.stomp.inbound 타이머(히스토그램)로 기록
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(message);
+        StompCommand command = headerAccessor.getCommand();
+        if(command == null){
+            return message;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return handle(message, headerAccessor);
+        } finally {
+            sample.stop(inboundTimers.computeIfAbsent(command, this::inboundTimer));
+        }
+    }
+
+
+    // clientInbound 실행기에서 핸들러마다 실행
+    // 농구장 채팅방 구독은 브로커 핸들러로 전달되기 직전에 한 번만 유저의 채팅 리스트에 추가
+    // (실패하면 예외로 브로커에 구독이 등록되지 않음)
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if(!(handler instanceof AbstractBrokerMessageHandler)){
+            return message;
+        }
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(message);
+        if(!StompCommand.SUBSCRIBE.equals(headerAccessor.getCommand())
+                || !Boolean.TRUE.equals(headerAccessor.getHeader(JOIN_BASKETBALL_HEADER))){
+            return message;
+        }
+        log.debug("유저의 채팅 리스트에 추가");
+        stompHandler.addUserChatRoom(headerAccessor);
+        return message;
+    }
+
+
+    private Timer inboundTimer(StompCommand command){
+        return Timer.builder("chat.stomp.inbound")
+                .tag("command", command.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+
+    private Message<?> handle(Message<?> message, StompHeaderAccessor headerAccessor) {
 
 
         // CONNECT
@@ -51,12 +106,37 @@ public class ChatInboundInterceptor implements ChannelInterceptor {
         if(StompCommand.CONNECT.equals(headerAccessor.getCommand())){
             log.debug("=== CONNECT 진입 ===");
 
-            Long authorization = tokenProvider.stompExtractUserIdFromToken(headerAccessor.getFirstNativeHeader("authorization").toString());
-            Optional<User> userOptional = userRepository.findById(authorization);
+            String authorization = headerAccessor.getFirstNativeHeader("authorization");
+            if(authorization == null){
+                log.debug("인증실패");
+                throw new RuntimeException("JWT");
+            }
+
+            // 토큰 서명 검증과 사용자 조회는 CONNECT 에서 한 번만 수행
+            Claims claims = tokenProvider.stompExtractClaimsFromToken(authorization);
+            Long userId = Long.valueOf(claims.getSubject());
+            Optional<User> userOptional = userRepository.findById(userId);
             if(userOptional.isEmpty()){
                 log.debug("인증실패");
                 throw new RuntimeException("JWT");
             }
+
+            // 검증 결과를 세션에 저장 -> 이후 SUBSCRIBE/SEND 에서는 세션에서 꺼내서 사용
+            Instant expiresAt = claims.getExpiration() == null ? null : claims.getExpiration().toInstant();
+            StompPrincipal principal = new StompPrincipal(userId, expiresAt);
+            headerAccessor.getSessionAttributes().put(StompPrincipal.SESSION_ATTRIBUTE, principal);
+
+            // 재연결이면 채팅방별 마지막으로 받은 메세지 아이디 저장 -> /pub/chat/resume 구독 시 catch-up
+            String resume = headerAccessor.getFirstNativeHeader(StompHandler.RESUME_HEADER);
+            if(resume != null){
+                headerAccessor.getSessionAttributes().put(StompHandler.RESUME_SESSION_ATTRIBUTE, stompHandler.extractResumePoints(resume));
+            }
+
+            // 원본 accessor 에 user 를 설정해야 세션의 Principal 로 등록된다
+            StompHeaderAccessor connectAccessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+            if(connectAccessor != null){
+                connectAccessor.setUser(principal);
+            }
             log.debug("성공");
             log.debug("=== CONNECT 완료 ===");
         }
@@ -69,11 +149,26 @@ public class ChatInboundInterceptor implements ChannelInterceptor {
         1. 구독이 가능한(ChatRoom 에 존재하는) 채팅방인지 검증
         (채팅방생성 시 participants 의 userchatroom 에 해당 채팅방 설정해주었음)
          */
+        if(StompCommand.SUBSCRIBE.equals(headerAccessor.getCommand())
+                && StompHandler.RESUME_DESTINATION.equals(headerAccessor.getDestination())){
+            log.debug("=== SUBSCRIBE_RESUME 진입 ===");
+
+            // 인증된 세션인지만 확인 (채팅방별 권한은 ChatService.resume 에서 검사)
+            stompHandler.extractUserId(headerAccessor);
+
+            // 구독 프레임에 resume 헤더가 있으면 CONNECT 때 저장한 값 대신 사용
+            String resume = headerAccessor.getFirstNativeHeader(StompHandler.RESUME_HEADER);
+            if(resume != null){
+                headerAccessor.getSessionAttributes().put(StompHandler.RESUME_SESSION_ATTRIBUTE, stompHandler.extractResumePoints(resume));
+            }
+            return message;
+        }
+
         if(StompCommand.SUBSCRIBE.equals(headerAccessor.getCommand())){
             log.debug("=== SUBSCRIBE 진입 ===");
 
             // 채팅방의 존재 여부 검증
-            stompHandler.isExistChatRoom(headerAccessor);
+            RoomType roomType = stompHandler.isExistChatRoom(headerAccessor);
 
             // RoomId 만 추출
             String destination = headerAccessor.getDestination();
@@ -84,39 +179,30 @@ public class ChatInboundInterceptor implements ChannelInterceptor {
 
 
             // userChatRoom 검사
-            Optional<ChatRoom> chatRoomOptional = chatRoomRepository.findById(roomId);
-            if(chatRoomOptional.isPresent()){
-                ChatRoom chatRoom = chatRoomOptional.get();
-
-
-                // basketball chat 이 아닌 경우 userchatRoom 에 이미 추가 되어 있어야 함
-                if(!chatRoom.getRoomType().equals(RoomType.BASKETBALL)){
-                    log.debug("이미 참여하고 있는 농구장");
-                    stompHandler.isExistUserChatRoom(headerAccessor);
-                }
-
-                // basketball chat 인 경우 userChatRoom 에 추가
-                // BasketBallChatRoom 은 구독했을 때 유저의 채팅리스트에 추가됨
-                if(chatRoom.getRoomType().equals(RoomType.BASKETBALL)){
+            // basketball chat 이 아닌 경우 userchatRoom 에 이미 추가 되어 있어야 함
+            if(!roomType.equals(RoomType.BASKETBALL)){
+                log.debug("이미 참여하고 있는 채팅방인지 검사");
+                stompHandler.isExistUserChatRoom(headerAccessor);
+            }
 
-                    // destination 가져오기
-                    String dest = headerAccessor.getDestination();
-                    Long basketRoomId = stompHandler.extractRoomId(dest);
+            // basketball chat 인 경우 userChatRoom 에 추가
+            // BasketBallChatRoom 은 구독했을 때 유저의 채팅리스트에 추가됨
+            if(roomType.equals(RoomType.BASKETBALL)){
 
-                    // 이미 유저가 참여중인 농구장 채팅방인지 확인
-                    Optional<Boolean> existAlreadyUserChatRoom = stompHandler.isExistAlreadyUserChatRoom(userId, basketRoomId);
+                // 이미 유저가 참여중인 농구장 채팅방인지 확인
+                Optional<Boolean> existAlreadyUserChatRoom = stompHandler.isExistAlreadyUserChatRoom(userId, roomId);
 
 
-                    // 존재하지 않는 경우에만 유저의 채팅 리스트에 추가
-                    if(existAlreadyUserChatRoom.isEmpty()){
-                        log.debug("유저의 채팅 리스트에 추가");
-                        stompHandler.addUserChatRoom(headerAccessor);
-                    }
+                // 존재하지 않는 경우에만 유저의 채팅 리스트에 추가 (beforeHandle 에서 실행)
+                if(existAlreadyUserChatRoom.isEmpty()){
+                    headerAccessor.setHeader(JOIN_BASKETBALL_HEADER, Boolean.TRUE);
+                    log.debug("=== SUBSCRIBE 완료 ===");
+                    return MessageBuilder.createMessage(message.getPayload(), headerAccessor.getMessageHeaders());
+                }
 
-                    // 이미 존재하는 경우 디버그
-                    if(existAlreadyUserChatRoom.isPresent()){
-                        log.debug("이미 참여 하고 있는 방 재 입장");
-                    }
+                // 이미 존재하는 경우 디버그
+                if(existAlreadyUserChatRoom.isPresent()){
+                    log.debug("이미 참여 하고 있는 방 재 입장");
                 }
             }
 
@@ -136,25 +222,22 @@ public class ChatInboundInterceptor implements ChannelInterceptor {
              참여자들의 userChatRoom 에 추가하므로 사용자가 구독한 채팅방인지 검사함
 
         3. 일반메세지 / 뒤로가기 메세지 인지 구분
-        case1 : 일반메세지
-            1. 일반 메세지는 메세지 파싱해서 전달
-            2. 메세지 바디에 content 부분 메세지 저장
-
-        case2 : 뒤로 가기
-            1. 해당 채팅룸 아이디로 메세지 테이블을 조회해서 가장 최근에 저장된 메세지 (최근에 발생한 메세지) 아이디 추출
-            2. UserChatRoom readIndex 에 메세지 아이디 저장
+        4. 메세지 파싱해서 헤더에 담아 전달
+           - 일반 메세지 저장, 뒤로 가기(readIndex 저장)는 StompChatController 에서 처리
 
          */
         if(StompCommand.SEND.equals(headerAccessor.getCommand())){
             log.debug("=== SEND 진입 ===");
 
             // 채팅방의 존재 여부 검증
-            stompHandler.isExistChatRoom(headerAccessor);
+            RoomType roomType = stompHandler.isExistChatRoom(headerAccessor);
             log.debug("=== 채팅방 존재 여부 검사 ===");
 
             // client 가 destination 에 메세지를 보낼 수 있는지 검증(사용자 채팅방에 있는 채팅방인지)
-            stompHandler.isExistChatRoom(headerAccessor);
-            log.debug("=== 유저가 참여하고 있는 채팅방인지 검사 ===");
+            if(!roomType.equals(RoomType.BASKETBALL)){
+                stompHandler.isExistUserChatRoom(headerAccessor);
+                log.debug("=== 유저가 참여하고 있는 채팅방인지 검사 ===");
+            }
 
 
             // destination 가져오기
@@ -167,46 +250,14 @@ public class ChatInboundInterceptor implements ChannelInterceptor {
             Long userId = stompHandler.extractUserId(headerAccessor);
 
 
-            // 뒤로 가기
-            // 채팅방의 마지막 메세지id 를 저장 == ReadIndex 업데이트
-            if(destination.contains("back")){
-                log.debug("=== SEND_BACK 진입 ===");
-                Messages lastMessageFromChatRoom = chatService.getLastMessageFromChatRoom(roomId);
-                chatService.saveReadIndex(userId,roomId,lastMessageFromChatRoom.getId());
-                log.debug("=== ReadIndex 저장 ===");
-            }
-
+            // 본문은 프레임당 한 번만 디코딩하고, 컨트롤러에서 다시 파싱하지 않도록 헤더에 담아서 전달
+            ChatMessageDTO chatMessageDTO = chatPayloadCodec.decode((byte[]) message.getPayload());
+            chatMessageDTO.setRoomId(roomId.toString());
+            // 보낸 사람은 본문이 아닌 인증된 세션 기준
+            chatMessageDTO.setSenderId(userId);
 
-            // 일반 메세지
-            if(destination.contains("message")) {
-                log.debug("=== SEND_MESSAGE 진입 ===");
-                // 본문 바디 가져오기
-                String messageContent = new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
-
-                // 메시지의 페이로드(본문) 추출
-                String content = stompHandler.extractRoomContent(messageContent);
-                log.debug("=== extract message content:{}",content);
-
-                // 메시지 보낸 유저의 닉네임 추출
-                String nickname = stompHandler.extractNickname(messageContent);
-                log.debug("=== extract message nickname:{}",nickname);
-
-                // 메세지 보낸 유저의 아이디 추출
-                String uid = stompHandler.extractUserId(messageContent);
-                Long userid = Long.parseLong(uid);
-
-                if (content != null) {
-                    ChatMessageDTO chatMessageDTO = ChatMessageDTO.builder()
-                            .roomId(roomId.toString())
-                            .senderId(userid)
-                            .content(content)
-                            .senderNickname(nickname)
-                            .timestamp(LocalDateTime.now().toString())
-                            .build();
-                    chatService.saveMessage(chatMessageDTO);
-                    log.debug("=== MESSAGE 저장 완료 ===");
-                }
-            }
+            headerAccessor.setHeader(ChatPayloadCodec.DECODED_MESSAGE_HEADER, chatMessageDTO);
+            return MessageBuilder.createMessage(message.getPayload(), headerAccessor.getMessageHeaders());
         }
 
 
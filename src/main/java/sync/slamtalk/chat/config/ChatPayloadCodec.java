@@ -0,0 +1,87 @@
+package sync.slamtalk.chat.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.common.BaseException;
+import sync.slamtalk.common.ErrorResponseCode;
+
+import java.io.IOException;
+
+/**
+ * STOMP 프레임 본문 코덱
+ * 프레임마다 ObjectMapper 를 새로 만들지 않도록 미리 구성한 ObjectReader/ObjectWriter 를 공유한다.
+ * (ObjectReader/ObjectWriter 는 불변이라 여러 스레드에서 동시에 사용해도 안전하다)
+ */
+@Slf4j
+@Component
+public class ChatPayloadCodec {
+
+    // 디코딩한 ChatMessageDTO 를 담아두는 메세지 헤더 이름
+    public static final String DECODED_MESSAGE_HEADER = "slamtalk.chatMessage";
+
+    private final ObjectReader messageReader;
+    private final ObjectWriter messageWriter;
+
+    public ChatPayloadCodec(ObjectMapper objectMapper) {
+        // 스프링 ObjectMapper 설정(모듈, 날짜 포맷)은 그대로 쓰고, Blackbird 로 리플렉션 접근을 람다 호출로 바꾼다
+        ObjectMapper mapper = objectMapper.copy()
+                .registerModule(new BlackbirdModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.messageReader = mapper.readerFor(ChatMessageDTO.class);
+        this.messageWriter = mapper.writerFor(ChatMessageDTO.class);
+    }
+
+    /**
+     * SEND 프레임 본문을 ChatMessageDTO 로 한 번만 디코딩
+     * 본문이 비어있으면 빈 DTO 를 반환한다.
+     *
+     * @param payload STOMP 프레임 본문
+     * @return 디코딩한 메세지
+     */
+    public ChatMessageDTO decode(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            return ChatMessageDTO.builder().build();
+        }
+        try {
+            return messageReader.readValue(payload);
+        } catch (IOException e) {
+            log.debug("STOMP 메세지 디코딩 실패 : {}", e.getMessage());
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+    }
+
+    /**
+     * 브로드캐스트할 메세지를 JSON 으로 직렬화한 MESSAGE 프레임 생성
+     * @SendTo 로 반환할 때도 브로커로 보내기 전에 MessageConverter 가 한 번만 직렬화하므로
+     * 구독자 수에 따른 직렬화 횟수는 같다. (세션마다 하는 일은 STOMP 프레임 인코딩뿐)
+     * 여기서는 디코더와 같은 ObjectWriter(Blackbird) 를 쓰고 converter 선택, 헤더 복사를 생략한다.
+     * (헤더는 변경 가능 상태로 남겨서 SimpMessagingTemplate 가 destination 만 채우고 복사하지 않도록 함)
+     *
+     * @param message 브로드캐스트할 메세지
+     * @return application/json 본문의 MESSAGE 프레임
+     */
+    public Message<byte[]> encode(ChatMessageDTO message) {
+        byte[] payload;
+        try {
+            payload = messageWriter.writeValueAsBytes(message);
+        } catch (IOException e) {
+            log.debug("STOMP 메세지 직렬화 실패 : {}", e.getMessage());
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
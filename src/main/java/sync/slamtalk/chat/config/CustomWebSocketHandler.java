@@ -15,17 +15,21 @@ import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 
 public class CustomWebSocketHandler extends WebSocketHandlerDecorator {
     private final WebSocketHandler delegate;
+    private final StompSessionRegistry stompSessionRegistry;
 
     @Autowired
-    public CustomWebSocketHandler(WebSocketHandler delegate) {
+    public CustomWebSocketHandler(WebSocketHandler delegate, StompSessionRegistry stompSessionRegistry) {
         super(delegate);
         this.delegate = delegate;
+        this.stompSessionRegistry = stompSessionRegistry;
     }
 
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         super.afterConnectionEstablished(session);
+        // 토큰 만료 검사 대상으로 등록
+        stompSessionRegistry.register(session);
 
     }
 
@@ -50,6 +54,7 @@ public class CustomWebSocketHandler extends WebSocketHandlerDecorator {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
         //super.afterConnectionClosed(session,closeStatus);
         log.debug("웹 소켓 연결 종료");
+        stompSessionRegistry.unregister(session, closeStatus);
 
 
 
@@ -0,0 +1,90 @@
+package sync.slamtalk.chat.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * STOMP clientInbound / clientOutbound 채널 실행기
+ * 메세지 핸들러(@MessageMapping 의 메세지 저장, readIndex 기록, 농구장 채팅방 참여 등)는 이 실행기에서 실행되므로
+ * 기본 풀(코어 수 * 2) 대신 크기를 설정할 수 있게 하고,
+ * chat.stomp.executor.virtual-threads=true 이면 가상 스레드(Java 21 이상)로 작업을 실행한다.
+ * (ChannelInterceptor.preSend 는 프레임을 받은 웹소켓 스레드에서 실행되므로 이 실행기와 상관없다)
+ *
+ * ThreadPoolExecutor 는 대기 큐가 가득 차야 코어 수 이상으로 스레드를 늘리므로
+ * 코어 수와 최대 수를 같게 (pool-size) 두고, 쉬는 스레드는 keep-alive 후 정리한다.
+ * 대기 큐 크기와 실행 중인 작업 수는 chat.stomp.executor.* 게이지로 노출된다.
+ */
+@Slf4j
+@Component
+public class StompChannelExecutors {
+
+    private final boolean virtualThreads;
+    private final ThreadPoolTaskExecutor inbound;
+    private final ThreadPoolTaskExecutor outbound;
+
+    public StompChannelExecutors(
+            MeterRegistry meterRegistry,
+            @Value("${chat.stomp.executor.virtual-threads:false}") boolean virtualThreads,
+            @Value("${chat.stomp.inbound.pool-size:64}") int inboundPoolSize,
+            @Value("${chat.stomp.inbound.queue-capacity:10000}") int inboundQueueCapacity,
+            @Value("${chat.stomp.outbound.pool-size:32}") int outboundPoolSize,
+            @Value("${chat.stomp.outbound.queue-capacity:10000}") int outboundQueueCapacity
+    ) {
+        this.virtualThreads = virtualThreads;
+        this.inbound = executor("clientInboundChannel-", inboundPoolSize, inboundQueueCapacity);
+        this.outbound = executor("clientOutboundChannel-", outboundPoolSize, outboundQueueCapacity);
+        registerGauges(meterRegistry, "inbound", inbound);
+        registerGauges(meterRegistry, "outbound", outbound);
+        log.debug("STOMP 채널 실행기 설정 virtualThreads:{}, inbound:{}, outbound:{}",
+                virtualThreads, inboundPoolSize, outboundPoolSize);
+    }
+
+    public ThreadPoolTaskExecutor inbound() {
+        return inbound;
+    }
+
+    public ThreadPoolTaskExecutor outbound() {
+        return outbound;
+    }
+
+    // 가상 스레드 모드에서도 풀 크기로 동시 실행 수를 제한 (커넥션 풀보다 많은 요청이 DB 로 몰리지 않도록)
+    private ThreadPoolTaskExecutor executor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        if (virtualThreads) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory());
+        }
+        return executor;
+    }
+
+    private void registerGauges(MeterRegistry meterRegistry, String channel, ThreadPoolTaskExecutor executor) {
+        Gauge.builder("chat.stomp.executor.queue.size", executor, StompChannelExecutors::queueSize)
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("chat.stomp.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("chat.stomp.executor.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    // 초기화 전(또는 종료 후)에는 0
+    private static double queueSize(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            return 0;
+        }
+    }
+}
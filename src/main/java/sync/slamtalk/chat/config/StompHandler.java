@@ -1,20 +1,17 @@
 package sync.slamtalk.chat.config;
 
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Service;
-import sync.slamtalk.chat.entity.ChatRoom;
-import sync.slamtalk.chat.entity.UserChatRoom;
-import sync.slamtalk.chat.repository.ChatRoomRepository;
-import sync.slamtalk.chat.repository.UserChatRoomRepository;
+import sync.slamtalk.chat.cache.ChatAuthorizationCache;
+import sync.slamtalk.chat.entity.RoomType;
 import sync.slamtalk.chat.service.ChatServiceImpl;
-import sync.slamtalk.security.jwt.JwtTokenProvider;
 
-import java.util.List;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @RequiredArgsConstructor
@@ -23,48 +20,42 @@ import java.util.Optional;
 public class StompHandler {
 
     private final ChatServiceImpl chatService;
-    private final JwtTokenProvider tokenProvider;
-    private final UserChatRoomRepository userChatRoomRepository;
-    private final ChatRoomRepository chatRoomRepository;
+    private final ChatAuthorizationCache chatAuthorizationCache;
 
+    // 재연결 catch-up : CONNECT/SUBSCRIBE 의 resume 헤더 ("채팅방아이디:마지막으로 받은 메세지 아이디,...")
+    public static final String RESUME_HEADER = "resume";
+    public static final String RESUME_SESSION_ATTRIBUTE = "slamtalk.resume";
+    public static final String RESUME_DESTINATION = "/pub/chat/resume";
+    private static final int RESUME_MAX_ROOMS = 100;
 
 
-    // 토큰에서 아이디 추출
-    public Long extractUserId(StompHeaderAccessor accessor){
-        List<String> authorization = accessor.getNativeHeader("authorization");
-        String Token = authorization.get(0).toString();
-        Long userid = tokenProvider.stompExtractUserIdFromToken(Token);
-
-        return userid;
-    }
 
+    // 세션에서 아이디 추출 (토큰은 CONNECT 시점에 한 번만 검증)
+    public Long extractUserId(StompHeaderAccessor accessor){
+        Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+        Object principal = sessionAttributes == null ? null : sessionAttributes.get(StompPrincipal.SESSION_ATTRIBUTE);
 
-    // 채팅 유저 아이디 추출
-    public String extractUserId(String json){
-        try{
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode rootNode = mapper.readTree(json);
-            if(rootNode.has("senderId")){
-                return rootNode.get("senderId").toString();
-            }
-        }catch (Exception e){
-            throw new RuntimeException(e.getMessage());
+        // CONNECT 를 거치지 않았거나 토큰이 만료된 세션
+        if(!(principal instanceof StompPrincipal stompPrincipal) || stompPrincipal.isExpired(Instant.now())){
+            log.debug("=== extractUserId === 인증 정보가 없거나 만료된 세션");
+            throw new RuntimeException("JWT");
         }
-        return null;
+        return stompPrincipal.userId();
     }
 
 
-
     // 채팅방 존재하는지 검증하는 실질적인 메서드
-    public void isExistChatRoom(StompHeaderAccessor accessor){
+    // 존재하는 채팅방이면 채팅방 타입 반환
+    public RoomType isExistChatRoom(StompHeaderAccessor accessor){
         String destination = accessor.getDestination();
         Long RoomId = extractRoomId(destination);
-        Optional<ChatRoom> existChatRoom = chatService.isExistChatRoom(RoomId);
+        Optional<RoomType> roomType = chatAuthorizationCache.roomType(RoomId);
         // ChatRoom 이 존재하지 않는다면
-        if(!existChatRoom.isPresent()){
+        if(roomType.isEmpty()){
             log.debug("=== isExistChatRoom === ChatRoom 존재하지않음");
             throw new RuntimeException("NFR");
         }
+        return roomType.get();
     }
 
 
@@ -78,9 +69,8 @@ public class StompHandler {
         String destination = accessor.getDestination();
         Long RoomId = extractRoomId(destination);
 
-        Optional<UserChatRoom> existUserChatRoom = chatService.isExistUserChatRoom(userId,RoomId);
         // UserChatRoom 이 존재하지 않는다면
-        if(!existUserChatRoom.isPresent()){
+        if(!chatAuthorizationCache.isMember(userId,RoomId)){
             throw new RuntimeException("Auth");
         }
     }
@@ -104,54 +94,31 @@ public class StompHandler {
 
 
 
-    // 채팅 콘텐츠 추출
-    public String extractRoomContent(String json){
-        try{
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode rootNode = mapper.readTree(json);
-            if(rootNode.has("content")){
-                return rootNode.get("content").toString();
-            }
-        }catch (Exception e){
-            throw new RuntimeException(e.getMessage());
+    // resume 헤더에서 채팅방별 마지막으로 받은 메세지 아이디 추출
+    // 형식이 잘못된 항목은 무시하고, 최대 RESUME_MAX_ROOMS 개 채팅방까지만 (같은 채팅방은 큰 아이디)
+    public Map<Long, Long> extractResumePoints(String header){
+        Map<Long, Long> resumePoints = new LinkedHashMap<>();
+        if(header == null || header.isBlank()){
+            return resumePoints;
         }
-        return null;
-    }
-
-
-
-    // 채팅 닉네임 추출
-    public String extractNickname(String json){
-        try{
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode rootNode = mapper.readTree(json);
-            if(rootNode.has("senderNickname")){
-                return rootNode.get("senderNickname").toString();
+        for(String point : header.split(",")){
+            if(resumePoints.size() >= RESUME_MAX_ROOMS){
+                break;
             }
-        }catch (Exception e){
-            throw new RuntimeException(e.getMessage());
-        }
-        return null;
-    }
-
-
-
-    // 방문 체크 추출
-    public String extractVisited(String json){
-        try{
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode rootNode = mapper.readTree(json);
-            if(rootNode.has("visited")){
-                return rootNode.get("visited").toString();
+            String[] parts = point.trim().split(":");
+            if(parts.length != 2){
+                continue;
+            }
+            try {
+                resumePoints.merge(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Math::max);
+            } catch (NumberFormatException e) {
+                log.debug("=== extractResumePoints === 잘못된 resume 항목 : {}", point);
             }
-        }catch (Exception e){
-            throw new RuntimeException(e.getMessage());
         }
-        return null;
+        return resumePoints;
     }
 
 
-
     // 사용자 채팅방에 추가
     public void addUserChatRoom(StompHeaderAccessor accessor){
         Long userId = extractUserId(accessor);
@@ -166,11 +133,7 @@ public class StompHandler {
     // 사용자 채팅방에 이미 참여하고 있는 농구장인지 확인
     public Optional<Boolean> isExistAlreadyUserChatRoom(Long userId, Long roomId){
 
-        Optional<ChatRoom> optionalChatRoom = chatRoomRepository.findByBasketBallId(roomId);
-
-        Optional<UserChatRoom> optionalUserChatRoom = userChatRoomRepository.findByUserChatroom(userId,roomId);
-
-        if(optionalUserChatRoom.isPresent()){
+        if(chatAuthorizationCache.isMember(userId,roomId)){
             log.debug("유저가 이미 가지고 있음");
             return Optional.of(Boolean.TRUE);
         }
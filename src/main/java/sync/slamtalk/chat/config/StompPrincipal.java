@@ -0,0 +1,26 @@
+package sync.slamtalk.chat.config;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * CONNECT 시점에 한 번 검증한 웹소켓 세션의 사용자 정보
+ * 세션 attribute 에 저장해두고 이후 프레임에서는 토큰을 다시 검증하지 않는다.
+ *
+ * @param userId    토큰의 subject (사용자 아이디)
+ * @param expiresAt 토큰 만료 시각
+ */
+public record StompPrincipal(Long userId, Instant expiresAt) implements Principal {
+
+    // 세션 attribute 키
+    public static final String SESSION_ATTRIBUTE = "slamtalk.principal";
+
+    @Override
+    public String getName() {
+        return String.valueOf(userId);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
@@ -0,0 +1,71 @@
+package sync.slamtalk.chat.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 연결된 웹소켓 세션 저장소
+ * CONNECT 때 검증한 토큰이 만료된 세션을 주기적으로 찾아서 연결을 끊는다.
+ */
+@Slf4j
+@Component
+public class StompSessionRegistry {
+
+    // 토큰 만료로 연결을 끊을 때 사용하는 CloseStatus
+    static final CloseStatus TOKEN_EXPIRED = CloseStatus.POLICY_VIOLATION.withReason("JWT");
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Counter sendOverflowCounter;
+
+    public StompSessionRegistry(MeterRegistry meterRegistry) {
+        this.sendOverflowCounter = meterRegistry.counter("chat.stomp.session.send-overflow");
+    }
+
+    public void register(WebSocketSession session) {
+        sessions.put(session.getId(), session);
+    }
+
+    public void unregister(WebSocketSession session, CloseStatus closeStatus) {
+        sessions.remove(session.getId());
+        // 전송 버퍼 초과, 전송 시간 초과로 종료된 세션
+        if (closeStatus != null && closeStatus.getCode() == CloseStatus.SESSION_NOT_RELIABLE.getCode()) {
+            sendOverflowCounter.increment();
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    // 토큰이 만료된 세션 연결 종료
+    @Scheduled(fixedDelayString = "${chat.session.expiry-check-millis:30000}")
+    public void closeExpiredSessions() {
+        Instant now = Instant.now();
+        for (WebSocketSession session : sessions.values()) {
+            Object principal = session.getAttributes().get(StompPrincipal.SESSION_ATTRIBUTE);
+            if (principal instanceof StompPrincipal stompPrincipal && stompPrincipal.isExpired(now)) {
+                log.debug("토큰 만료로 웹소켓 연결 종료 sessionId:{}, userId:{}", session.getId(), stompPrincipal.userId());
+                close(session);
+            }
+        }
+    }
+
+    private void close(WebSocketSession session) {
+        sessions.remove(session.getId());
+        try {
+            session.close(TOKEN_EXPIRED);
+        } catch (IOException e) {
+            log.warn("웹소켓 연결 종료 실패 sessionId:{}, cause:{}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -2,23 +2,50 @@ package sync.slamtalk.chat.config;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import sync.slamtalk.chat.fanout.LargeRoomFanout;
+import sync.slamtalk.chat.redis.RedisBrokerFanout;
 
 
 @Slf4j
 @EnableWebSocketMessageBroker
+@EnableScheduling // 만료된 토큰의 세션 정리
 @Configuration
 @RequiredArgsConstructor
 public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final ChatInboundInterceptor chatInboundInterceptor;
     private final StompErrorHandler stompErrorHandler;
+    private final StompSessionRegistry stompSessionRegistry;
+    private final ObjectProvider<RedisBrokerFanout> redisBrokerFanoutProvider;
+    private final StompChannelExecutors stompChannelExecutors;
+    private final LargeRoomFanout largeRoomFanout;
+
+    @Value("${chat.stomp.preserve-order:true}")
+    private boolean preserveOrder;
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+    @Value("${chat.broker.relay.host:localhost}")
+    private String relayHost;
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+    @Value("${chat.broker.relay.login:guest}")
+    private String relayLogin;
+    @Value("${chat.broker.relay.passcode:guest}")
+    private String relayPasscode;
+    @Value("${chat.stomp.send-time-limit-millis:10000}")
+    private int sendTimeLimitMillis;
+    @Value("${chat.stomp.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
 
     // webSocket 접속 경로 설정
     @Override
@@ -27,14 +54,42 @@ public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins("*");
                 //.withSockJS(); // 사용시 /websocket 붙여서 테스트
         registry.setErrorHandler(stompErrorHandler);
+        // 실행기가 여러 스레드여도 한 세션에서 받은 프레임은 순서대로 처리
+        registry.setPreserveReceiveOrder(preserveOrder);
     }
 
 
     // 메세지 브로커 기반 통신 설정 -> STOMP Messaging protocol
+    // chat.broker.mode
+    // - simple : JVM 내장 SimpleBroker (서버 한 대)
+    // - relay  : 외부 STOMP 브로커(ActiveMQ/Artemis 등)로 릴레이
+    // - redis  : SimpleBroker + Redis pub/sub 으로 다른 서버에 fan-out
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.setApplicationDestinationPrefixes("/pub"); // "/pub" 가 경로상에 있으면 <<컨트롤러>> 호출
+        // 한 세션으로 보내는 메세지는 발행 순서대로 전송
+        registry.setPreservePublishOrder(preserveOrder);
+
+        if("relay".equals(brokerMode)){
+            registry.enableStompBrokerRelay("/sub") // "/sub" 가 경로상에 있으면 <<외부 메세지브로커>> 로 전달
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+            return;
+        }
+
         registry.enableSimpleBroker("/sub"); // "/subscribe" 가 경로상에 있으면 <<메세지브로커>> 호출
+
+        // redis 모드에서는 브로커로 가는 메세지를 Redis 에도 발행 (다른 서버로 먼저 발행한 뒤 로컬 전달)
+        RedisBrokerFanout redisBrokerFanout = redisBrokerFanoutProvider.getIfAvailable();
+        if(redisBrokerFanout != null){
+            registry.configureBrokerChannel().interceptors(redisBrokerFanout);
+        }
+        // 농구장 채팅방 메세지는 SimpleBroker 대신 전용 fan-out 으로 전달
+        registry.configureBrokerChannel().interceptors(largeRoomFanout);
     }
 
 
@@ -42,12 +97,24 @@ public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(chatInboundInterceptor);
+        registration.taskExecutor(stompChannelExecutors.inbound());
+    }
+
+
+    // client 로 메세지 전송
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(largeRoomFanout.completionInterceptor());
+        registration.taskExecutor(stompChannelExecutors.outbound());
     }
 
 
     // WebSocket ErrorHandler -> WebSocket
     @Override
+    // 세션 전송 버퍼가 한도를 넘거나 전송이 시간 안에 끝나지 않으면 Spring 이 세션을 종료한다. (SESSION_NOT_RELIABLE)
     public void configureWebSocketTransport(WebSocketTransportRegistration registry) {
-        registry.addDecoratorFactory(webSocketHandler-> new CustomWebSocketHandler(webSocketHandler));
+        registry.setSendTimeLimit(sendTimeLimitMillis);
+        registry.setSendBufferSizeLimit(sendBufferSizeLimit);
+        registry.addDecoratorFactory(webSocketHandler-> new CustomWebSocketHandler(webSocketHandler, stompSessionRegistry));
     }
 }
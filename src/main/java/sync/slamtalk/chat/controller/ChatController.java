@@ -9,10 +9,14 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import sync.slamtalk.chat.cache.ChatAuthorizationCache;
 import sync.slamtalk.chat.dto.Request.ChatCreateDTO;
 import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.dto.Response.ChatPresenceDTO;
 import sync.slamtalk.chat.dto.Response.ChatRoomDTO;
+import sync.slamtalk.chat.dto.Response.ChatUserPresenceDTO;
 import sync.slamtalk.chat.entity.UserChatRoom;
+import sync.slamtalk.chat.presence.PresenceStore;
 import sync.slamtalk.chat.service.ChatServiceImpl;
 import sync.slamtalk.common.ApiResponse;
 import sync.slamtalk.common.BaseException;
@@ -31,6 +35,8 @@ public class ChatController {
     private final ChatServiceImpl chatService;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
+    private final PresenceStore presenceStore;
+    private final ChatAuthorizationCache chatAuthorizationCache;
 
     // 채팅방 생성
     @PostMapping("/api/chat/create")
@@ -63,7 +69,7 @@ public class ChatController {
     @PostMapping("/api/chat/participation")
     @Operation(
             summary = "새로운 채팅 내역 조회",
-            description = "이 기능은 채팅방에 재입장 시 과거 마지막으로 읽은 메세지 이후에 발생한 메세지를 보내주는 기능입니다.",
+            description = "이 기능은 채팅방에 재입장 시 과거 마지막으로 읽은 메세지 이후에 발생한 메세지를 보내주는 기능입니다. (최근 메세지 최대 50개, 그 이전은 과거 내역 조회)",
             tags = {"채팅"}
     )
     public ApiResponse participation(@Param("roomId")Long roomId,@AuthenticationPrincipal Long userId){
@@ -76,7 +82,7 @@ public class ChatController {
 
         UserChatRoom userChatRoom = existUserChatRoom.get();
         // 사용자가 마지막으로 읽은 메세지 아이디
-        Long readIndex = userChatRoom.getReadIndex();
+        Long readIndex = chatService.getReadIndex(userId, roomId, userChatRoom.getReadIndex());
 
 
         // 채팅방에서 주고받았던 메세지 가져오기
@@ -91,11 +97,13 @@ public class ChatController {
     @PostMapping("/api/chat/history")
     @Operation(
             summary = "과거 내역 조회",
-            description = "이 기능은 과거 마지막으로 읽은 메세지 전의 메세지를 보내주는 기능입니다.",
+            description = "이 기능은 beforeMessageId 이전의 메세지를 최신순으로 limit 개(기본 20, 최대 100) 보내주는 기능입니다. " +
+                    "beforeMessageId 가 없으면 마지막으로 읽은 메세지부터 보내주고, 다음 페이지는 응답의 마지막 messageId 를 beforeMessageId 로 요청합니다.",
             tags = {"채팅"}
     )
-    public ApiResponse history(@Param("roomId")Long roomId, @AuthenticationPrincipal Long userId,@Param("count") int count){
-        List<ChatMessageDTO> previousChatMessages = chatService.getPreviousChatMessages(userId, roomId,count);
+    public ApiResponse history(@Param("roomId")Long roomId, @AuthenticationPrincipal Long userId,
+                               @Param("beforeMessageId") Long beforeMessageId, @Param("limit") Integer limit){
+        List<ChatMessageDTO> previousChatMessages = chatService.getPreviousChatMessages(userId, roomId, beforeMessageId, limit);
         if (previousChatMessages == null) {
             log.debug("과거 메세지가 없습니다");
             previousChatMessages = new ArrayList<>(); // 빈 리스트로 초기화
@@ -106,6 +114,41 @@ public class ChatController {
 
 
 
+    // 채팅방 접속자 조회
+    @GetMapping("/api/chat/presence")
+    @Operation(
+            summary = "채팅방 접속자 조회",
+            description = "이 기능은 채팅방에 현재 접속(구독) 중인 유저 아이디 목록을 조회하는 기능입니다.",
+            tags = {"채팅"}
+    )
+    public ApiResponse presence(@Param("roomId")Long roomId, @AuthenticationPrincipal Long userId){
+        // 참여 중인 채팅방만 조회 가능 (나간 채팅방 제외, STOMP 구독과 같은 권한 캐시)
+        if(!chatAuthorizationCache.isMember(userId,roomId)){
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+        List<Long> onlineUserIds = new ArrayList<>(presenceStore.occupants(roomId));
+        return ApiResponse.ok(new ChatPresenceDTO(roomId, onlineUserIds));
+    }
+
+
+
+    // 유저 접속 상태 조회
+    @GetMapping("/api/chat/presence/user")
+    @Operation(
+            summary = "유저 접속 상태 조회",
+            description = "이 기능은 유저가 현재 접속(웹소켓 연결) 중인지 조회하는 기능입니다. (함께 참여 중인 채팅방이 있는 유저만 조회 가능)",
+            tags = {"채팅"}
+    )
+    public ApiResponse userPresence(@Param("userId")Long userId, @AuthenticationPrincipal Long loginUserId){
+        // 아무 유저나 접속 여부를 확인할 수 없도록 함께 참여 중인 채팅방이 있는 유저만
+        if(!chatService.isSharingChatRoom(loginUserId, userId)){
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+        return ApiResponse.ok(new ChatUserPresenceDTO(userId, presenceStore.isOnline(userId)));
+    }
+
+
+
     // 제보하기를 통한 농구장 채팅방 생성 요청
     @PostMapping("/api/chat/create/basketball")
     @Operation(
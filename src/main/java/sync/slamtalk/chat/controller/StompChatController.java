@@ -3,15 +3,28 @@ package sync.slamtalk.chat.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
+import sync.slamtalk.chat.config.ChatPayloadCodec;
+import sync.slamtalk.chat.config.StompHandler;
+import sync.slamtalk.chat.config.StompPrincipal;
 import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.dto.Response.ChatResumeDTO;
+import sync.slamtalk.chat.entity.Messages;
 import sync.slamtalk.chat.entity.UserChatRoom;
-import sync.slamtalk.chat.repository.UserChatRoomRepository;
+import sync.slamtalk.chat.presence.PresenceStore;
 import sync.slamtalk.chat.service.ChatServiceImpl;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Controller
@@ -20,7 +33,9 @@ import java.util.Optional;
 public class StompChatController {
 
     private final ChatServiceImpl chatService;
-    private final UserChatRoomRepository userChatRoomRepository;
+    private final ChatPayloadCodec chatPayloadCodec;
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final PresenceStore presenceStore;
 
 
     /*
@@ -33,7 +48,7 @@ public class StompChatController {
     @MessageMapping(value = "/chat/bot/{roomId}") // 발행
     @SendTo("/sub/chat/bot/{roomId}") // 수신
     @Transactional
-    public String enter(ChatMessageDTO message){
+    public String enter(@Header(ChatPayloadCodec.DECODED_MESSAGE_HEADER) ChatMessageDTO message){
 
 
         Long userId = message.getSenderId();
@@ -43,16 +58,13 @@ public class StompChatController {
         // 퇴장
         if(message.getContent()!=null){
             if(message.getContent().equals("EXIT")){
-                Optional<UserChatRoom> optionalUserChatRoom = userChatRoomRepository.findByUserChatroom(userId, roomId);
-
-                log.debug("현재 유저가 가지고 있는 방의 상태 : {}",optionalUserChatRoom.get().getChat().getIsDeleted());
+                // softDelete (채팅 권한 캐시도 함께 제거)
+                Optional<UserChatRoom> optionalUserChatRoom = chatService.exitRoom(userId, roomId);
                 if(optionalUserChatRoom.isEmpty()){
                     log.debug("해당 유저는 해당 채팅방에 참여하고 있지 않음");
                 }
                 if(optionalUserChatRoom.isPresent()){
-                    log.debug("{}번 유저가 {}번째 채팅방에서 나가기를 시도",userId,optionalUserChatRoom.get().getChat().getId());
-                    UserChatRoom userChatRoom = optionalUserChatRoom.get();
-                    userChatRoom.delete(); // softDelete
+                    log.debug("{}번 유저가 {}번째 채팅방에서 나가기를 시도",userId,roomId);
                 }
 
                 return message.getSenderNickname()+" 님이 퇴장하셨습니다.";
@@ -79,11 +91,63 @@ public class StompChatController {
     메세지 발행
     "/pub/chat/message" 로 날린 데이터에 대해서
     "/sub/chat/room/roomId" 로 구독자들(클라이언트)에게 해당 message 를 전달
+    ChatInboundInterceptor 에서 디코딩/검증한 메세지를 헤더에서 꺼내서 저장(messageId, timestamp 발급)한 뒤 발행
+    (clientInbound 실행기에서 실행되므로 저장 중에 웹소켓 스레드를 붙잡지 않음)
+    - @SendTo 대신 ChatPayloadCodec 의 ObjectWriter 로 직렬화한 byte[] 프레임을 직접 발행
+      (@SendTo 도 메세지당 한 번만 직렬화하므로 구독자 수에 따른 비용은 같고, converter/헤더 복사만 줄어든다)
      */
     @MessageMapping("/chat/message/{roomId}")
-    @SendTo("/sub/chat/room/{roomId}")
-    public ChatMessageDTO message(ChatMessageDTO message){
-        return message;
+    public void message(@DestinationVariable String roomId,
+                        @Header(ChatPayloadCodec.DECODED_MESSAGE_HEADER) ChatMessageDTO message){
+        if(message.getContent() != null){
+            message.setTimestamp(LocalDateTime.now().format(Messages.CREATION_TIME_FORMAT));
+            chatService.saveMessage(message);
+            log.debug("=== MESSAGE 저장 완료 ===");
+        }
+        simpMessagingTemplate.send("/sub/chat/room/" + roomId, chatPayloadCodec.encode(message));
+    }
+
+
+    /*
+    입력 중 표시 발행
+    "/pub/chat/typing/roomId" 로 날린 데이터에 대해서
+    "/sub/chat/typing/roomId" 로 구독자들(클라이언트)에게 전달 (저장하지 않음)
+    - 유저당 chat.presence.typing-throttle-millis 에 한 번만 전달 (여러 서버에서 받아도 한 번)
+    - 본문은 보내지 않고 보낸 사람 정보만 전달
+     */
+    @MessageMapping("/chat/typing/{roomId}")
+    public void typing(@DestinationVariable String roomId,
+                       @Header(ChatPayloadCodec.DECODED_MESSAGE_HEADER) ChatMessageDTO message){
+        if(!presenceStore.tryTyping(Long.valueOf(roomId), message.getSenderId())){
+            return;
+        }
+        ChatMessageDTO typing = ChatMessageDTO.builder()
+                .roomId(roomId)
+                .senderId(message.getSenderId())
+                .senderNickname(message.getSenderNickname())
+                .build();
+        simpMessagingTemplate.send("/sub/chat/typing/" + roomId, chatPayloadCodec.encode(typing));
+    }
+
+
+    /*
+    재연결 catch-up
+    CONNECT(또는 구독 프레임)의 resume 헤더로 받은 채팅방별 마지막 메세지 아이디 이후 메세지를
+    "/pub/chat/resume" 을 구독한 세션에게만 채팅방마다 한 배치씩 전달 (브로커를 거치지 않음)
+    - hasMore : 마지막 메세지 아이디로 resume 헤더를 바꿔서 다시 구독
+    - gapTooLarge : 메세지 없이 전달, 과거 내역(/api/chat/history)으로 조회
+     */
+    @SubscribeMapping("/chat/resume")
+    @SuppressWarnings("unchecked")
+    public List<ChatResumeDTO> resume(SimpMessageHeaderAccessor headerAccessor){
+        if(!(headerAccessor.getUser() instanceof StompPrincipal principal) || headerAccessor.getSessionAttributes() == null){
+            return List.of();
+        }
+        Object resumePoints = headerAccessor.getSessionAttributes().remove(StompHandler.RESUME_SESSION_ATTRIBUTE);
+        if(!(resumePoints instanceof Map<?, ?> lastSeenByRoom) || lastSeenByRoom.isEmpty()){
+            return List.of();
+        }
+        return chatService.resume(principal.userId(), (Map<Long, Long>) lastSeenByRoom);
     }
 
 
@@ -91,11 +155,18 @@ public class StompChatController {
     뒤로 가기 메세지 발행(🌟readIndex update🌟)
     "/pub/chat/back" 으로 날린 데이터에 대해서
     "/sub/chat/room/roomId" 로 구독자(클라이언트)들에게 해당 message 를 전달
-    ChatInboundInterceptor 에서 readIndex 가 업데이트 되도록 함
+    채팅방의 마지막 메세지 아이디(redis 채팅방 인덱스와 DB 중 큰 값)를 readIndex 로 저장
+    (redis 에 기록, ReadIndexFlusher 가 모아서 UserChatRoom 에 반영)
      */
     @MessageMapping("/chat/back/{roomId}")
     @SendTo("/sub/chat/back/{roomId}")
-    public ChatMessageDTO back(ChatMessageDTO message){
+    public ChatMessageDTO back(@Header(ChatPayloadCodec.DECODED_MESSAGE_HEADER) ChatMessageDTO message){
+        Long roomId = Long.valueOf(message.getRoomId());
+        Optional<Long> lastMessageId = chatService.getLastMessageIdFromChatRoom(roomId);
+        if(lastMessageId.isPresent()){
+            chatService.saveReadIndex(message.getSenderId(), roomId, lastMessageId.get());
+            log.debug("=== ReadIndex 저장 ===");
+        }
         return message;
     }
 
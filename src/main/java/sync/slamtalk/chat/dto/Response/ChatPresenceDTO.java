@@ -0,0 +1,14 @@
+package sync.slamtalk.chat.dto.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ChatPresenceDTO {
+    private Long roomId;
+    /* 채팅방에 접속(구독) 중인 유저 */
+    private List<Long> onlineUserIds;
+}
@@ -0,0 +1,19 @@
+package sync.slamtalk.chat.dto.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ChatResumeDTO {
+    private Long roomId;
+    /* 마지막으로 받은 메세지 이후 놓친 메세지 (오래된 순, 최대 한 배치) */
+    private List<ChatMessageDTO> messages;
+    /* 한 배치보다 많이 놓침 -> 마지막 메세지 아이디로 다시 resume */
+    private boolean hasMore;
+    /* 놓친 메세지가 너무 많음 -> messages 는 비어있고, 과거 내역(/api/chat/history)으로 조회 */
+    private boolean gapTooLarge;
+}
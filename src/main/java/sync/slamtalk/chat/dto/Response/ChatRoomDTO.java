@@ -26,6 +26,8 @@ public class ChatRoomDTO implements Serializable {
     private String lastMessage;
     // 농구장 아이디
     private Long courtId;
+    // 안 읽은 메세지 수
+    private Long unreadCount;
 
 
     // 채팅방 마지막 메세지 업데이트
@@ -48,4 +50,8 @@ public class ChatRoomDTO implements Serializable {
     public void updatePartnerId(String pid){
         this.partnerId = pid;
     }
+
+    public void updateUnreadCount(Long unreadCount){
+        this.unreadCount = unreadCount;
+    }
 }
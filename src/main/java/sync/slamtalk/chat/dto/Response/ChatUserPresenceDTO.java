@@ -0,0 +1,12 @@
+package sync.slamtalk.chat.dto.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ChatUserPresenceDTO {
+    private Long userId;
+    /* 하나 이상의 서버에 웹소켓 세션이 연결되어 있으면 true */
+    private boolean online;
+}
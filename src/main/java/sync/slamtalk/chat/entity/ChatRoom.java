@@ -5,6 +5,7 @@ import lombok.*;
 import sync.slamtalk.common.BaseEntity;
 import sync.slamtalk.map.entity.BasketballCourt;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -13,8 +14,18 @@ import java.util.Set;
 @Builder
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @NoArgsConstructor
-@Table(name = "chatroom")
+// 인덱스는 db/schema 마이그레이션(V2)과 같은 이름으로 유지
+@Table(name = "chatroom", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_chatroom_basketball_id", columnNames = "basketball_id"),
+        @UniqueConstraint(name = "uk_chatroom_together_id", columnNames = "together_id"),
+        @UniqueConstraint(name = "uk_chatroom_team_matching_id", columnNames = "teamMatching_id"),
+        @UniqueConstraint(name = "uk_chatroom_direct_key", columnNames = "direct_key")
+})
 public class ChatRoom extends BaseEntity {
+
+    // 마지막 메세지 미리보기 최대 길이
+    public static final int PREVIEW_LENGTH = 100;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name="chatroom_id") // 식별 아이디
@@ -49,6 +60,26 @@ public class ChatRoom extends BaseEntity {
     private Long teamMatchingId;
 
 
+    // 1:1 채팅방 참여자 키 (작은 유저 아이디:큰 유저 아이디), 같은 두 유저의 채팅방이 동시에 만들어지지 않도록 unique
+    @Column(name = "direct_key", length = 41)
+    private String directKey;
+
+
+    // 마지막 메세지 (메세지 저장 시 MessagesJdbcRepository 가 함께 갱신, 엔티티로는 변경하지 않음)
+    @Column(name = "last_message_id", insertable = false, updatable = false)
+    private Long lastMessageId;
+
+
+    // 마지막 메세지 미리보기 (앞 PREVIEW_LENGTH 글자)
+    @Column(name = "last_message_preview", length = PREVIEW_LENGTH, insertable = false, updatable = false)
+    private String lastMessagePreview;
+
+
+    // 마지막 메세지 시간 (채팅 리스트 정렬 기준)
+    @Column(name = "last_activity_at", insertable = false, updatable = false)
+    private LocalDateTime lastActivityAt;
+
+
 
     // 사용자는 여러개의 채팅방을 가질 수 있음
     @OneToMany(mappedBy = "chat",fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
@@ -68,4 +99,19 @@ public class ChatRoom extends BaseEntity {
         this.basketBallId = basketballCourt.getCourtId();
     }
 
+
+    // 1:1 채팅방 참여자 키
+    public static String directKeyOf(Long userA, Long userB) {
+        return Math.min(userA, userB) + ":" + Math.max(userA, userB);
+    }
+
+
+    // 마지막 메세지 미리보기 생성
+    public static String previewOf(String content) {
+        if (content == null || content.length() <= PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, PREVIEW_LENGTH);
+    }
+
 }
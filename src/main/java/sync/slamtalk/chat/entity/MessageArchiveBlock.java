@@ -0,0 +1,52 @@
+package sync.slamtalk.chat.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import sync.slamtalk.common.BaseEntity;
+
+/**
+ * 아카이브로 옮긴 메세지 블록
+ * 채팅방의 오래된 메세지를 아이디 순서대로 묶어서 압축한 뒤 ArchiveStore 에 저장하고,
+ * messages 테이블에서는 지운다. 같은 채팅방의 블록끼리는 아이디 범위가 겹치지 않는다.
+ */
+@Entity
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
+@NoArgsConstructor
+// 인덱스는 db/schema 마이그레이션(V5)과 같은 이름으로 유지
+@Table(name = "message_archive_block", uniqueConstraints = {
+        // 채팅방별 과거 내역 read-through (커서 이전 블록), 같은 블록 중복 등록 방지
+        @UniqueConstraint(name = "uk_message_archive_block_chatroom_id_first_message_id", columnNames = {"chatroom_id", "first_message_id"})
+})
+public class MessageArchiveBlock extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "block_id")
+    private Long id;
+
+    // 채팅방 아이디
+    @Column(name = "chatroom_id", nullable = false)
+    private Long chatRoomId;
+
+    // 블록의 첫 메세지 아이디
+    @Column(name = "first_message_id", nullable = false)
+    private Long firstMessageId;
+
+    // 블록의 마지막 메세지 아이디
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    // 블록의 메세지 수
+    @Column(name = "message_count", nullable = false)
+    private Integer messageCount;
+
+    // 저장소 키
+    @Column(name = "storage_key", nullable = false)
+    private String storageKey;
+
+    // 압축 후 크기
+    @Column(name = "compressed_bytes", nullable = false)
+    private Integer compressedBytes;
+}
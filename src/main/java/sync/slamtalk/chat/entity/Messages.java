@@ -4,16 +4,29 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 import lombok.*;
 import sync.slamtalk.common.BaseEntity;
+import sync.slamtalk.common.id.SnowflakeId;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 @Entity
 @Getter
 @Builder
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @NoArgsConstructor
-@Table(name = "messages")
+// 인덱스는 db/schema 마이그레이션(V2)과 같은 이름으로 유지
+@Table(name = "messages", indexes = {
+        // 채팅방별 keyset 페이징 (과거 내역, 새 메세지)
+        @Index(name = "idx_messages_chatroom_id_message_id", columnList = "chatroom_id, message_id DESC")
+})
 public class Messages extends BaseEntity {
+
+    // creation_time 문자열 형식 (자릿수가 고정되어 있어서 문자열 순서가 시간 순서와 같음)
+    public static final DateTimeFormatter CREATION_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     @Column(name="message_id",nullable = false)
     private Long id; // 식별 아이디
 
@@ -34,8 +47,25 @@ public class Messages extends BaseEntity {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private String creation_time;
 
+    // 메세지(작성시간) - 정렬/범위 조회용 타입 컬럼
+    // 정렬은 시간 순으로 발급되는 메세지 아이디((chatroom_id, message_id) 인덱스)로 한다.
+    @Column(name = "sent_at", columnDefinition = "datetime(6)")
+    private LocalDateTime sentAt;
+
     // 채팅방
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "chatroom_id", nullable = false)
     private ChatRoom chatRoom; // 채팅방 참조
+
+    // creation_time 문자열 -> 작성시간 (ISO 형식, 'T' 대신 공백도 허용, 형식이 맞지 않으면 null)
+    public static LocalDateTime sentAtOf(String creationTime) {
+        if (creationTime == null || creationTime.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(creationTime.trim().replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
 }
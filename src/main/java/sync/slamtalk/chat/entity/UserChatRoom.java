@@ -3,6 +3,7 @@ package sync.slamtalk.chat.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import sync.slamtalk.common.BaseEntity;
+import sync.slamtalk.common.id.SnowflakeId;
 import sync.slamtalk.user.entity.User;
 
 @Entity
@@ -10,10 +11,18 @@ import sync.slamtalk.user.entity.User;
 @Builder
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @NoArgsConstructor
-@Table(name = "user_chatroom")
+// 인덱스는 db/schema 마이그레이션(V2)과 같은 이름으로 유지
+@Table(name = "user_chatroom", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_chatroom_user_id_chatroom_id", columnNames = {"user_id", "chatroom_id"})
+}, indexes = {
+        @Index(name = "idx_user_chatroom_user_id_direct_id", columnList = "user_id, direct_id"),
+        @Index(name = "idx_user_chatroom_user_id_basketball_id", columnList = "user_id, basketball_id"),
+        @Index(name = "idx_user_chatroom_together_id", columnList = "together_id"),
+        @Index(name = "idx_user_chatroom_team_matching_id", columnList = "teamMatching_id")
+})
 public class UserChatRoom extends BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     @Column(name = "user_chatroom_id")
     private Long id; // 식별 아이디
 
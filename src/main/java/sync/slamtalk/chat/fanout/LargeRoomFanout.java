@@ -0,0 +1,199 @@
+package sync.slamtalk.chat.fanout;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import sync.slamtalk.chat.cache.ChatAuthorizationCache;
+import sync.slamtalk.chat.entity.RoomType;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 농구장 채팅방 전용 fan-out
+ * 농구장 채팅방은 구독하면 자동으로 참여되는 공개 채팅방이라 한 채팅방에 수천 개의 세션이 붙을 수 있다.
+ * brokerChannel 로 들어온 /sub/chat/room/{roomId} 메세지 중 농구장 채팅방 메세지는 SimpleBroker 대신 여기서 세션별로 전달한다.
+ *
+ * - 페이로드 공유 : 모든 세션의 MESSAGE 프레임이 브로커로 들어온 byte[] 페이로드를 그대로 공유한다.
+ * - 세션별 대기열 : 세션마다 한 번에 하나의 프레임만 clientOutboundChannel 로 보내고, 전송이 끝나면 다음 프레임을 보낸다. (순서 보장)
+ * - 느린 소비자 : 대기열이 chat.fanout.session-buffer-size 를 넘으면 가장 오래된 프레임을 버린다. (전송 스레드를 막지 않음)
+ *   버려진 메세지는 과거 내역 조회로 다시 받을 수 있다.
+ */
+@Slf4j
+@Component
+public class LargeRoomFanout implements ChannelInterceptor {
+
+    // fan-out 으로 보낸 프레임 표시 (전송 완료 시 다음 프레임 전송)
+    static final String FANOUT_HEADER = "slamtalk.fanout";
+    // fan-out 으로 전달한 메세지는 SimpleBroker prefix(/sub) 밖의 destination 으로 바꿔서 브로커가 다시 전달하지 않게 한다.
+    static final String HANDLED_DESTINATION = "/fanout/handled";
+
+    private final RoomSubscriberRegistry roomSubscriberRegistry;
+    private final ChatAuthorizationCache chatAuthorizationCache;
+    private final ObjectProvider<MessageChannel> clientOutboundChannel;
+    private final int sessionBufferSize;
+
+    private final Map<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final Counter fanoutCounter;
+    private final Counter sentCounter;
+    private final Counter droppedCounter;
+
+    public LargeRoomFanout(
+            RoomSubscriberRegistry roomSubscriberRegistry,
+            ChatAuthorizationCache chatAuthorizationCache,
+            @Qualifier("clientOutboundChannel") ObjectProvider<MessageChannel> clientOutboundChannel,
+            MeterRegistry meterRegistry,
+            @Value("${chat.fanout.session-buffer-size:256}") int sessionBufferSize
+    ) {
+        this.roomSubscriberRegistry = roomSubscriberRegistry;
+        this.chatAuthorizationCache = chatAuthorizationCache;
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.sessionBufferSize = sessionBufferSize;
+        this.fanoutCounter = meterRegistry.counter("chat.fanout.messages");
+        this.sentCounter = meterRegistry.counter("chat.fanout.frames.sent");
+        this.droppedCounter = meterRegistry.counter("chat.fanout.frames.dropped");
+        meterRegistry.gauge("chat.fanout.backlog", backlog);
+    }
+
+    // brokerChannel : 농구장 채팅방 메세지는 여기서 전달
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        Long roomId = largeRoomIdOf(message);
+        if (roomId == null) {
+            return message;
+        }
+        fanout(roomId, message);
+        return MessageBuilder.fromMessage(message)
+                .setHeader(SimpMessageHeaderAccessor.DESTINATION_HEADER, HANDLED_DESTINATION)
+                .build();
+    }
+
+    // clientOutboundChannel : 전송이 끝난 세션의 다음 프레임 전송
+    public ExecutorChannelInterceptor completionInterceptor() {
+        return new ExecutorChannelInterceptor() {
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+                if (message.getHeaders().containsKey(FANOUT_HEADER)) {
+                    sendNext(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+                }
+            }
+        };
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        SessionOutbox outbox = outboxes.remove(event.getSessionId());
+        if (outbox != null) {
+            synchronized (outbox) {
+                backlog.addAndGet(-outbox.queue.size());
+                outbox.queue.clear();
+            }
+        }
+    }
+
+    // 농구장 채팅방으로 가는 애플리케이션 메세지면 채팅방 아이디
+    private Long largeRoomIdOf(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        if (!SimpMessageType.MESSAGE.equals(SimpMessageHeaderAccessor.getMessageType(headers))
+                || !(message.getPayload() instanceof byte[])) {
+            return null;
+        }
+        Long roomId = RoomSubscriberRegistry.roomIdOf(SimpMessageHeaderAccessor.getDestination(headers));
+        if (roomId == null) {
+            return null;
+        }
+        Optional<RoomType> roomType = chatAuthorizationCache.roomType(roomId);
+        return roomType.filter(RoomType.BASKETBALL::equals).isPresent() ? roomId : null;
+    }
+
+    // 구독한 모든 세션에 같은 페이로드로 MESSAGE 프레임 전달
+    private void fanout(Long roomId, Message<?> message) {
+        fanoutCounter.increment();
+        Object payload = message.getPayload();
+        for (RoomSubscriberRegistry.Subscription subscription : roomSubscriberRegistry.subscriptions(roomId)) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setSessionId(subscription.sessionId());
+            accessor.setSubscriptionId(subscription.subscriptionId());
+            accessor.copyHeadersIfAbsent(message.getHeaders());
+            accessor.setHeader(FANOUT_HEADER, Boolean.TRUE);
+            accessor.setLeaveMutable(true);
+            enqueue(subscription.sessionId(), MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        }
+    }
+
+    private void enqueue(String sessionId, Message<?> frame) {
+        SessionOutbox outbox = outboxes.computeIfAbsent(sessionId, id -> new SessionOutbox());
+        synchronized (outbox) {
+            // 느린 소비자 : 가장 오래된 프레임 버림
+            if (outbox.queue.size() >= sessionBufferSize) {
+                outbox.queue.pollFirst();
+                backlog.decrementAndGet();
+                droppedCounter.increment();
+                log.debug("[fan-out] 대기열이 가득 차서 프레임을 버립니다. sessionId:{}", sessionId);
+            }
+            outbox.queue.addLast(frame);
+            backlog.incrementAndGet();
+            if (outbox.sending) {
+                return;
+            }
+            outbox.sending = true;
+        }
+        sendNext(sessionId);
+    }
+
+    // 세션의 다음 프레임 전송 (대기열이 비면 전송 중 상태 해제)
+    private void sendNext(String sessionId) {
+        SessionOutbox outbox = outboxes.get(sessionId);
+        if (outbox == null) {
+            return;
+        }
+        Message<?> next;
+        synchronized (outbox) {
+            next = outbox.queue.pollFirst();
+            if (next == null) {
+                outbox.sending = false;
+                return;
+            }
+            backlog.decrementAndGet();
+        }
+
+        try {
+            clientOutboundChannel.getObject().send(next);
+            sentCounter.increment();
+        } catch (Exception e) {
+            // 전송 실행기가 가득 찬 경우 등 : 이 세션의 대기열을 비우고 다음 메세지부터 다시 전송
+            synchronized (outbox) {
+                droppedCounter.increment(outbox.queue.size() + 1);
+                backlog.addAndGet(-outbox.queue.size());
+                outbox.queue.clear();
+                outbox.sending = false;
+            }
+            log.warn("[fan-out] 프레임 전송 실패 sessionId:{}, cause:{}", sessionId, e.getMessage());
+        }
+    }
+
+    // 세션별 전송 대기열
+    private static final class SessionOutbox {
+        private final ArrayDeque<Message<?>> queue = new ArrayDeque<>();
+        private boolean sending;
+    }
+}
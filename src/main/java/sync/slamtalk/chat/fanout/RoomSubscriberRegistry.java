@@ -0,0 +1,149 @@
+package sync.slamtalk.chat.fanout;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 채팅방(/sub/chat/room/{roomId}) 구독 현황
+ * SUBSCRIBE / UNSUBSCRIBE / DISCONNECT 이벤트로 채팅방별 구독(세션, 구독 아이디)을 관리한다.
+ * (이벤트는 ChatInboundInterceptor 검증을 통과한 프레임에 대해서만 발행된다.)
+ *
+ * - chat.room.subscriptions : 전체 채팅방 구독 수
+ * - chat.room.subscribers{roomId} : 구독자가 chat.fanout.metrics-min-subscribers 이상인 채팅방의 구독자 수
+ */
+@Slf4j
+@Component
+public class RoomSubscriberRegistry {
+
+    static final String ROOM_DESTINATION_PREFIX = "/sub/chat/room/";
+
+    // 채팅방 아이디 -> 구독 목록
+    private final Map<Long, Set<Subscription>> rooms = new ConcurrentHashMap<>();
+    // 세션 아이디 -> (구독 아이디 -> 채팅방 아이디)
+    private final Map<String, Map<String, Long>> sessions = new ConcurrentHashMap<>();
+
+    private final MultiGauge roomSubscribersGauge;
+    private final int metricsMinSubscribers;
+
+    public RoomSubscriberRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${chat.fanout.metrics-min-subscribers:100}") int metricsMinSubscribers
+    ) {
+        this.metricsMinSubscribers = metricsMinSubscribers;
+        this.roomSubscribersGauge = MultiGauge.builder("chat.room.subscribers").register(meterRegistry);
+        Gauge.builder("chat.room.subscriptions", this, RoomSubscriberRegistry::totalSubscriptions)
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long roomId = roomIdOf(accessor.getDestination());
+        if (roomId == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        add(roomId, new Subscription(accessor.getSessionId(), accessor.getSubscriptionId()));
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        Map<String, Long> subscriptions = sessions.get(accessor.getSessionId());
+        Long roomId = subscriptions == null ? null : subscriptions.remove(accessor.getSubscriptionId());
+        if (roomId != null) {
+            removeFromRoom(roomId, new Subscription(accessor.getSessionId(), accessor.getSubscriptionId()));
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        removeSession(event.getSessionId());
+    }
+
+    // 채팅방 구독 목록
+    public Set<Subscription> subscriptions(Long roomId) {
+        return rooms.getOrDefault(roomId, Set.of());
+    }
+
+    // 채팅방 구독자 수
+    public int subscriberCount(Long roomId) {
+        return subscriptions(roomId).size();
+    }
+
+    // 구독자가 많은 채팅방 구독자 수 메트릭 갱신
+    @Scheduled(fixedDelayString = "${chat.fanout.metrics-refresh-millis:10000}")
+    public void refreshMetrics() {
+        roomSubscribersGauge.register(rooms.entrySet().stream()
+                .filter(entry -> entry.getValue().size() >= metricsMinSubscribers)
+                .map(entry -> MultiGauge.Row.of(Tags.of("roomId", entry.getKey().toString()), entry.getValue().size()))
+                .toList(), true);
+    }
+
+    void add(Long roomId, Subscription subscription) {
+        sessions.computeIfAbsent(subscription.sessionId(), id -> new ConcurrentHashMap<>())
+                .put(subscription.subscriptionId(), roomId);
+        rooms.compute(roomId, (id, subscriptions) -> {
+            Set<Subscription> result = subscriptions == null ? ConcurrentHashMap.newKeySet() : subscriptions;
+            result.add(subscription);
+            return result;
+        });
+    }
+
+    void removeSession(String sessionId) {
+        Map<String, Long> subscriptions = sessions.remove(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        subscriptions.forEach((subscriptionId, roomId) -> removeFromRoom(roomId, new Subscription(sessionId, subscriptionId)));
+    }
+
+    private void removeFromRoom(Long roomId, Subscription subscription) {
+        rooms.computeIfPresent(roomId, (id, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    private int totalSubscriptions() {
+        return rooms.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // /sub/chat/room/{roomId} 에서 채팅방 아이디
+    public static Long roomIdOf(String destination) {
+        if (destination == null || !destination.startsWith(ROOM_DESTINATION_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(destination.substring(ROOM_DESTINATION_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 채팅방 구독
+     *
+     * @param sessionId      웹소켓 세션 아이디
+     * @param subscriptionId STOMP 구독 아이디
+     */
+    public record Subscription(String sessionId, String subscriptionId) {
+    }
+}
@@ -0,0 +1,186 @@
+package sync.slamtalk.chat.presence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 접속 상태 / 채팅방 접속자 / 입력 중 표시 (Redis)
+ * 여러 서버가 같은 Redis 를 보므로 어느 서버에 연결되어 있어도 같은 결과를 조회한다.
+ *
+ * - 유저 접속     : chat_presence:user:{userId} hash, field = 웹소켓 세션 아이디 (키가 있으면 online, EXISTS O(1))
+ * - 채팅방 접속자 : chat_presence:room:{roomId} zset, member = "userId:서버 아이디", score = 만료 시각(epoch millis)
+ * - 입력 중       : chat_typing:{roomId}:{userId} (SET NX PX, 유저당 throttle 동안 한 번만 브로드캐스트)
+ *
+ * 채팅방 접속자는 서버마다 따로 기록한다. 한 서버에서 퇴장해도 다른 서버에 연결된 세션이 같은 채팅방을 구독 중이면
+ * 그 서버의 member 가 남아 있으므로 계속 접속자로 조회된다. (조회할 때 유저 아이디로 합친다)
+ *
+ * 모든 키는 TTL 을 가지고 PresenceTracker 가 주기적으로(heartbeat) 연장한다.
+ * 서버가 비정상 종료되어 연결 종료를 처리하지 못해도 TTL 이 지나면 offline 이 된다.
+ */
+@Component
+public class PresenceStore {
+
+    private static final String USER_PREFIX = "chat_presence:user:";
+    private static final String ROOM_PREFIX = "chat_presence:room:";
+    private static final String TYPING_PREFIX = "chat_typing:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration ttl;
+    private final Duration typingThrottle;
+    // 이 서버 (프로세스) 아이디, 채팅방 접속자 member 에 붙인다
+    private final String serverId = UUID.randomUUID().toString();
+
+    public PresenceStore(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${chat.presence.ttl-seconds:60}") long ttlSeconds,
+            @Value("${chat.presence.typing-throttle-millis:1000}") long typingThrottleMillis
+    ) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.typingThrottle = Duration.ofMillis(typingThrottleMillis);
+    }
+
+    /**
+     * 웹소켓 세션 연결
+     *
+     * @param userId    유저 아이디
+     * @param sessionId 웹소켓 세션 아이디
+     */
+    public void connect(Long userId, String sessionId) {
+        heartbeat(Map.of(userId, Set.of(sessionId)), Map.of());
+    }
+
+    /**
+     * 웹소켓 세션 종료
+     * 유저의 마지막 세션이면 hash 가 비어서 키가 삭제된다. (offline)
+     *
+     * @param userId    유저 아이디
+     * @param sessionId 웹소켓 세션 아이디
+     */
+    public void disconnect(Long userId, String sessionId) {
+        stringRedisTemplate.opsForHash().delete(userKey(userId), sessionId);
+    }
+
+    /**
+     * 채팅방 입장 (채팅방 구독)
+     *
+     * @param roomId 채팅방 아이디
+     * @param userId 유저 아이디
+     */
+    public void enter(Long roomId, Long userId) {
+        heartbeat(Map.of(), Map.of(roomId, Set.of(userId)));
+    }
+
+    /**
+     * 채팅방 퇴장 (구독 취소, 연결 종료)
+     * 이 서버의 기록만 지우므로 다른 서버에서 같은 채팅방을 구독 중인 유저는 접속자로 남는다.
+     *
+     * @param roomId 채팅방 아이디
+     * @param userId 유저 아이디
+     */
+    public void leave(Long roomId, Long userId) {
+        stringRedisTemplate.opsForZSet().remove(roomKey(roomId), roomMember(userId));
+    }
+
+    /**
+     * 이 서버에 연결된 세션과 채팅방 접속자의 TTL 을 한 번에 연장
+     * 채팅방 zset 에서 만료된 접속자(다른 서버가 종료된 경우)도 함께 정리한다.
+     *
+     * @param sessionsByUser 유저 아이디 -> 웹소켓 세션 아이디 목록
+     * @param usersByRoom    채팅방 아이디 -> 유저 아이디 목록
+     */
+    public void heartbeat(Map<Long, ? extends Collection<String>> sessionsByUser,
+                          Map<Long, ? extends Collection<Long>> usersByRoom) {
+        if (sessionsByUser.isEmpty() && usersByRoom.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        double expiresAt = now + ttl.toMillis();
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                sessionsByUser.forEach((userId, sessionIds) -> {
+                    String key = userKey(userId);
+                    for (String sessionId : sessionIds) {
+                        ops.opsForHash().put(key, sessionId, "1");
+                    }
+                    ops.expire(key, ttl);
+                });
+                usersByRoom.forEach((roomId, userIds) -> {
+                    String key = roomKey(roomId);
+                    for (Long userId : userIds) {
+                        ops.opsForZSet().add(key, roomMember(userId), expiresAt);
+                    }
+                    ops.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, now);
+                    ops.expire(key, ttl);
+                });
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 유저 접속 여부
+     *
+     * @param userId 유저 아이디
+     * @return 하나 이상의 서버에 연결된 세션이 있으면 true
+     */
+    public boolean isOnline(Long userId) {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(userKey(userId)));
+    }
+
+    /**
+     * 채팅방 접속자 (만료되지 않은 접속자만)
+     *
+     * @param roomId 채팅방 아이디
+     * @return 접속 중인 유저 아이디 목록
+     */
+    public Set<Long> occupants(Long roomId) {
+        Set<String> members = stringRedisTemplate.opsForZSet()
+                .rangeByScore(roomKey(roomId), System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        if (members == null) {
+            return Set.of();
+        }
+        // 여러 서버에서 구독 중인 유저는 한 번만
+        return members.stream()
+                .map(member -> Long.valueOf(member.substring(0, member.indexOf(':'))))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * 입력 중 표시를 브로드캐스트해도 되는지 확인
+     * 유저당 throttle 시간 안에 한 번만 true 를 반환한다. (여러 서버에서 동시에 호출해도 한 번)
+     *
+     * @param roomId 채팅방 아이디
+     * @param userId 유저 아이디
+     * @return 브로드캐스트해야 하면 true
+     */
+    public boolean tryTyping(Long roomId, Long userId) {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                .setIfAbsent(TYPING_PREFIX + roomId + ":" + userId, "1", typingThrottle));
+    }
+
+    private static String userKey(Long userId) {
+        return USER_PREFIX + userId;
+    }
+
+    private String roomMember(Long userId) {
+        return userId + ":" + serverId;
+    }
+
+    private static String roomKey(Long roomId) {
+        return ROOM_PREFIX + roomId;
+    }
+}
@@ -0,0 +1,156 @@
+package sync.slamtalk.chat.presence;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+import sync.slamtalk.chat.config.StompPrincipal;
+import sync.slamtalk.chat.fanout.RoomSubscriberRegistry;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 이 서버에 연결된 세션의 접속 상태를 PresenceStore 에 반영
+ * STOMP 연결(CONNECTED) / 채팅방 구독 / 구독 취소 / 연결 종료 이벤트로 로컬 상태를 관리하고,
+ * chat.presence.heartbeat-millis 마다 Redis 키의 TTL 을 연장한다.
+ *
+ * 같은 유저가 같은 채팅방을 여러 세션으로 구독할 수 있으므로
+ * 이 서버에서 유저의 마지막 구독이 사라질 때만 채팅방에서 퇴장시킨다.
+ * (Redis 호출이 실패해도 채팅 처리는 계속되고, 다음 heartbeat 에서 복구된다)
+ */
+@Slf4j
+@Component
+public class PresenceTracker {
+
+    private final PresenceStore presenceStore;
+
+    // 세션 아이디 -> 세션 접속 상태
+    private final Map<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+    // (채팅방, 유저) -> 이 서버에서 구독 중인 수
+    private final Map<RoomMember, Integer> roomMembers = new ConcurrentHashMap<>();
+
+    public PresenceTracker(PresenceStore presenceStore, MeterRegistry meterRegistry) {
+        this.presenceStore = presenceStore;
+        Gauge.builder("chat.presence.sessions", sessions, Map::size).register(meterRegistry);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = userIdOf(event.getUser());
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (userId == null || sessionId == null) {
+            return;
+        }
+        sessions.put(sessionId, new SessionPresence(userId));
+        try {
+            presenceStore.connect(userId, sessionId);
+        } catch (Exception e) {
+            log.warn("[presence] 접속 상태 저장 실패 userId:{}, cause:{}", userId, e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long roomId = RoomSubscriberRegistry.roomIdOf(accessor.getDestination());
+        SessionPresence session = accessor.getSessionId() == null ? null : sessions.get(accessor.getSessionId());
+        if (roomId == null || session == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        session.subscriptions.put(accessor.getSubscriptionId(), roomId);
+        roomMembers.merge(new RoomMember(roomId, session.userId), 1, Integer::sum);
+        try {
+            presenceStore.enter(roomId, session.userId);
+        } catch (Exception e) {
+            log.warn("[presence] 채팅방 입장 저장 실패 roomId:{}, cause:{}", roomId, e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        SessionPresence session = accessor.getSessionId() == null ? null : sessions.get(accessor.getSessionId());
+        if (session == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        Long roomId = session.subscriptions.remove(accessor.getSubscriptionId());
+        if (roomId == null) {
+            return;
+        }
+        try {
+            leaveIfLast(roomId, session.userId);
+        } catch (Exception e) {
+            log.warn("[presence] 채팅방 퇴장 저장 실패 roomId:{}, cause:{}", roomId, e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        SessionPresence session = sessions.remove(event.getSessionId());
+        if (session == null) {
+            return;
+        }
+        try {
+            presenceStore.disconnect(session.userId, event.getSessionId());
+            for (Long roomId : session.subscriptions.values()) {
+                leaveIfLast(roomId, session.userId);
+            }
+        } catch (Exception e) {
+            log.warn("[presence] 접속 종료 저장 실패 userId:{}, cause:{}", session.userId, e.getMessage());
+        }
+    }
+
+    // 이 서버에 연결된 세션과 채팅방 접속자의 TTL 연장
+    @Scheduled(fixedDelayString = "${chat.presence.heartbeat-millis:20000}")
+    public void heartbeat() {
+        Map<Long, Set<String>> sessionsByUser = new HashMap<>();
+        Map<Long, Set<Long>> usersByRoom = new HashMap<>();
+        sessions.forEach((sessionId, session) ->
+                sessionsByUser.computeIfAbsent(session.userId, id -> new HashSet<>()).add(sessionId));
+        roomMembers.keySet().forEach(member ->
+                usersByRoom.computeIfAbsent(member.roomId(), id -> new HashSet<>()).add(member.userId()));
+        try {
+            presenceStore.heartbeat(sessionsByUser, usersByRoom);
+        } catch (Exception e) {
+            log.warn("[presence] heartbeat 실패 : {}", e.getMessage());
+        }
+    }
+
+    // 이 서버에서 유저가 채팅방을 구독하는 세션이 더 없으면 퇴장
+    private void leaveIfLast(Long roomId, Long userId) {
+        RoomMember member = new RoomMember(roomId, userId);
+        Integer remaining = roomMembers.computeIfPresent(member, (key, count) -> count == 1 ? null : count - 1);
+        if (remaining == null) {
+            presenceStore.leave(roomId, userId);
+        }
+    }
+
+    private static Long userIdOf(Principal user) {
+        return user instanceof StompPrincipal stompPrincipal ? stompPrincipal.userId() : null;
+    }
+
+    private record RoomMember(Long roomId, Long userId) {
+    }
+
+    // 세션의 유저와 구독 중인 채팅방 (구독 아이디 -> 채팅방 아이디)
+    private static class SessionPresence {
+        private final Long userId;
+        private final Map<String, Long> subscriptions = new ConcurrentHashMap<>();
+
+        private SessionPresence(Long userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package sync.slamtalk.chat.redis;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 마지막으로 읽은 메세지 아이디 (readIndex, Redis)
+ * 뒤로 가기마다 user_chatroom 을 UPDATE 하지 않고 Redis 에 먼저 기록하고, ReadIndexFlusher 가 모아서 DB 에 반영한다.
+ *
+ * - readIndex : chat_read_index:{userId} hash, field = roomId, value = 메세지 아이디 (큰 값만 기록)
+ * - 반영 대상 : chat_read_index:pending zset, member = "userId:roomId", score = 처음 표시한 시각 (같은 채팅방을 여러 번 읽어도 한 번만 반영)
+ * - 반영 중   : chat_read_index:processing zset, member = "userId:roomId", score = 꺼낸 시각
+ *
+ * 꺼낸 readIndex 는 DB 반영(커밋)이 끝난 뒤 ack 해야 반영 중 목록에서 지워진다.
+ * 반영 도중 서버가 종료되어 ack 하지 못한 항목은 requeueStale 이 반영 대상으로 되돌린다. (어느 서버에서든)
+ * 반영 중에 더 큰 readIndex 가 기록되면 반영 대상에 다시 표시되어 다음 주기에 반영된다.
+ *
+ * DB 의 read_index 는 반영 주기만큼 늦을 수 있으므로 조회할 때는 DB 값과 Redis 값 중 큰 값을 사용한다.
+ */
+@Component
+public class ReadIndexStore {
+
+    private static final String READ_INDEX_PREFIX = "chat_read_index:";
+    private static final String PENDING_KEY = "chat_read_index:pending";
+    private static final String PROCESSING_KEY = "chat_read_index:processing";
+
+    // 현재 값보다 클 때만 변경하고 반영 대상으로 표시 (이미 표시되어 있으면 처음 표시한 시각 유지)
+    private static final RedisScript<Long> ADVANCE_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '-1') " +
+            "if tonumber(ARGV[2]) > current then " +
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) " +
+            "if not redis.call('ZSCORE', KEYS[2], ARGV[3]) then redis.call('ZADD', KEYS[2], ARGV[5], ARGV[3]) end " +
+            "end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[4]) " +
+            "return 1", Long.class);
+
+    // 오래된 것부터 count 개를 반영 대상 -> 반영 중으로 옮김
+    // KEYS[1] = 반영 대상, KEYS[2] = 반영 중, ARGV = count, 현재 시각
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local members = redis.call('ZRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1) " +
+            "for _, member in ipairs(members) do " +
+            "redis.call('ZREM', KEYS[1], member) " +
+            "redis.call('ZADD', KEYS[2], ARGV[2], member) " +
+            "end " +
+            "return members", List.class);
+
+    // 반영 중 -> 반영 대상 (반영 실패, ack 하지 못하고 오래된 항목)
+    // KEYS[1] = 반영 중, KEYS[2] = 반영 대상, ARGV = 현재 시각, member...
+    private static final RedisScript<Long> REQUEUE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #ARGV do " +
+            "if redis.call('ZREM', KEYS[1], ARGV[i]) == 1 and not redis.call('ZSCORE', KEYS[2], ARGV[i]) then " +
+            "redis.call('ZADD', KEYS[2], ARGV[1], ARGV[i]) " +
+            "end " +
+            "end " +
+            "return #ARGV - 1", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long ttlSeconds;
+
+    public ReadIndexStore(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${chat.read-index.ttl-seconds:604800}") long ttlSeconds
+    ) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * readIndex 기록 (현재 값보다 작으면 무시)
+     *
+     * @param userId    유저 아이디
+     * @param roomId    채팅방 아이디
+     * @param messageId 마지막으로 읽은 메세지 아이디
+     */
+    public void advance(Long userId, Long roomId, long messageId) {
+        stringRedisTemplate.execute(ADVANCE_SCRIPT,
+                List.of(readIndexKey(userId), PENDING_KEY),
+                roomId.toString(), String.valueOf(messageId), dirtyMember(userId, roomId), String.valueOf(ttlSeconds),
+                String.valueOf(System.currentTimeMillis()));
+    }
+
+    /**
+     * Redis 에 기록된 readIndex
+     *
+     * @param userId 유저 아이디
+     * @param roomId 채팅방 아이디
+     * @return 기록이 없으면 empty (DB 값 사용)
+     */
+    public Optional<Long> readIndex(Long userId, Long roomId) {
+        Object value = stringRedisTemplate.opsForHash().get(readIndexKey(userId), roomId.toString());
+        return value == null ? Optional.empty() : Optional.of(Long.parseLong(value.toString()));
+    }
+
+    /**
+     * 여러 유저의 Redis readIndex (한 번의 왕복)
+     *
+     * @param roomId  채팅방 아이디
+     * @param userIds 유저 아이디 목록
+     * @return 유저 아이디 -> readIndex (기록이 없는 유저는 제외)
+     */
+    public Map<Long, Long> readIndexes(Long roomId, List<Long> userIds) {
+        Map<Long, Long> readIndexes = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return readIndexes;
+        }
+        List<Object> values = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (Long userId : userIds) {
+                    ops.opsForHash().get(readIndexKey(userId), roomId.toString());
+                }
+                return null;
+            }
+        });
+        for (int i = 0; i < userIds.size(); i++) {
+            Object value = values.get(i);
+            if (value != null) {
+                readIndexes.put(userIds.get(i), Long.parseLong(value.toString()));
+            }
+        }
+        return readIndexes;
+    }
+
+    /**
+     * DB 에 반영할 readIndex 꺼내기 (반영 중으로 옮김)
+     * DB 반영이 끝나면 ack, 실패하면 markDirty 를 호출해야 한다.
+     *
+     * @param count 최대 갯수
+     * @return (유저, 채팅방, readIndex) 목록
+     */
+    @SuppressWarnings("unchecked")
+    public List<ReadIndex> claimDirty(int count) {
+        List<String> claimed = (List<String>) stringRedisTemplate.execute(CLAIM_SCRIPT,
+                List.of(PENDING_KEY, PROCESSING_KEY), String.valueOf(count), String.valueOf(System.currentTimeMillis()));
+        if (claimed == null || claimed.isEmpty()) {
+            return List.of();
+        }
+
+        List<ReadIndex> pending = new ArrayList<>();
+        for (String member : claimed) {
+            String[] parts = member.split(":");
+            pending.add(new ReadIndex(Long.parseLong(parts[0]), Long.parseLong(parts[1]), 0L));
+        }
+
+        // HGET 을 한 번의 왕복으로
+        List<Object> values = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (ReadIndex readIndex : pending) {
+                    ops.opsForHash().get(readIndexKey(readIndex.userId()), readIndex.roomId().toString());
+                }
+                return null;
+            }
+        });
+
+        List<ReadIndex> result = new ArrayList<>();
+        List<ReadIndex> expired = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            Object value = values.get(i);
+            ReadIndex readIndex = pending.get(i);
+            if (value == null) {
+                expired.add(readIndex);
+            } else {
+                result.add(new ReadIndex(readIndex.userId(), readIndex.roomId(), Long.parseLong(value.toString())));
+            }
+        }
+        // readIndex 가 만료되어 반영할 값이 없음
+        ack(expired);
+        return result;
+    }
+
+    /**
+     * DB 반영이 끝난 readIndex 를 반영 중 목록에서 제거
+     *
+     * @param readIndexes 반영한 readIndex 목록
+     */
+    public void ack(Collection<ReadIndex> readIndexes) {
+        if (readIndexes.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.opsForZSet().remove(PROCESSING_KEY, readIndexes.stream()
+                .map(readIndex -> dirtyMember(readIndex.userId(), readIndex.roomId()))
+                .toArray());
+    }
+
+    /**
+     * DB 반영에 실패한 readIndex 를 다시 반영 대상으로 표시
+     *
+     * @param readIndexes 반영하지 못한 readIndex 목록
+     */
+    public void markDirty(Collection<ReadIndex> readIndexes) {
+        if (readIndexes.isEmpty()) {
+            return;
+        }
+        requeue(readIndexes.stream()
+                .map(readIndex -> dirtyMember(readIndex.userId(), readIndex.roomId()))
+                .toList());
+    }
+
+    /**
+     * 꺼낸 뒤 timeoutMillis 가 지나도록 ack 되지 않은 readIndex 를 반영 대상으로 되돌림
+     * (반영 도중 서버가 종료된 경우)
+     *
+     * @param timeoutMillis 반영 중 최대 시간
+     * @return 되돌린 갯수
+     */
+    public int requeueStale(long timeoutMillis) {
+        Set<String> stale = stringRedisTemplate.opsForZSet()
+                .rangeByScore(PROCESSING_KEY, Double.NEGATIVE_INFINITY, System.currentTimeMillis() - timeoutMillis);
+        if (stale == null || stale.isEmpty()) {
+            return 0;
+        }
+        requeue(new ArrayList<>(stale));
+        return stale.size();
+    }
+
+    private void requeue(List<String> members) {
+        List<String> args = new ArrayList<>(members.size() + 1);
+        args.add(String.valueOf(System.currentTimeMillis()));
+        args.addAll(members);
+        stringRedisTemplate.execute(REQUEUE_SCRIPT, List.of(PROCESSING_KEY, PENDING_KEY), args.toArray());
+    }
+
+    private String readIndexKey(Long userId) {
+        return READ_INDEX_PREFIX + userId;
+    }
+
+    private String dirtyMember(Long userId, Long roomId) {
+        return userId + ":" + roomId;
+    }
+
+    public record ReadIndex(Long userId, Long roomId, long messageId) {
+    }
+}
@@ -0,0 +1,27 @@
+package sync.slamtalk.chat.redis;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * chat.broker.mode=redis 일 때 다른 서버에서 발행한 STOMP 메세지를 수신하는 리스너 설정
+ */
+@Configuration
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "redis")
+public class RedisBrokerConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisBrokerListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            RedisBrokerFanout redisBrokerFanout
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(redisBrokerFanout, new ChannelTopic(RedisBrokerFanout.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,153 @@
+package sync.slamtalk.chat.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Redis pub/sub 기반 STOMP 메세지 fan-out (chat.broker.mode=redis)
+ * SimpleBroker 는 구독 정보를 JVM 안에만 가지고 있으므로, 한 서버에서 발행한 /sub/** 메세지를
+ * Redis 채널로 함께 발행하고 다른 서버들은 받은 메세지를 자신의 SimpleBroker 에 다시 넣어서 전달한다.
+ *
+ * - brokerChannel 인터셉터 : 로컬 전달은 그대로 두고 Redis 에 발행
+ * - Redis 리스너 : 다른 서버에서 발행한 메세지만 brokerChannel 로 재발행 (재발행 메세지는 다시 Redis 로 보내지 않음)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "redis")
+public class RedisBrokerFanout implements ChannelInterceptor, MessageListener {
+
+    public static final String CHANNEL = "chat:broker";
+    private static final String DESTINATION_PREFIX = "/sub/";
+    // 다른 서버에서 받아서 재발행한 메세지 표시
+    private static final String RELAYED_HEADER = "slamtalk.relayed";
+
+    // 서버(애플리케이션 컨텍스트) 식별자, 자신이 발행한 메세지는 무시
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private final Counter failedCounter;
+
+    public RedisBrokerFanout(
+            StringRedisTemplate stringRedisTemplate,
+            ObjectMapper objectMapper,
+            ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.messagingTemplate = messagingTemplate;
+        this.publishedCounter = meterRegistry.counter("chat.broker.fanout.published");
+        this.receivedCounter = meterRegistry.counter("chat.broker.fanout.received");
+        this.failedCounter = meterRegistry.counter("chat.broker.fanout.failed");
+    }
+
+    // brokerChannel 로 들어온 메세지를 Redis 에도 발행
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (shouldPublish(message)) {
+            publish(message);
+        }
+        return message;
+    }
+
+    // 다른 서버에서 발행한 메세지 수신
+    @Override
+    public void onMessage(org.springframework.data.redis.connection.Message redisMessage, byte[] pattern) {
+        BrokerEnvelope envelope;
+        try {
+            envelope = objectMapper.readValue(redisMessage.getBody(), BrokerEnvelope.class);
+        } catch (IOException e) {
+            failedCounter.increment();
+            log.warn("[broker fan-out] 메세지 역직렬화 실패 : {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(envelope.nodeId())) {
+            return;
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (envelope.contentType() != null) {
+            accessor.setContentType(MimeType.valueOf(envelope.contentType()));
+        }
+        accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+        accessor.setLeaveMutable(true);
+
+        receivedCounter.increment();
+        messagingTemplate.getObject().send(envelope.destination(),
+                MessageBuilder.createMessage(envelope.payload(), accessor.getMessageHeaders()));
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // 다른 서버로 보낼 메세지인지 확인
+    // - 애플리케이션에서 발행한 /sub/** MESSAGE 만 대상
+    // - 다른 서버에서 받은 메세지, 특정 세션(/user/**)으로 가는 메세지는 제외
+    private boolean shouldPublish(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        if (!SimpMessageType.MESSAGE.equals(SimpMessageHeaderAccessor.getMessageType(headers))) {
+            return false;
+        }
+        if (headers.containsKey(RELAYED_HEADER)
+                || headers.containsKey(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION)) {
+            return false;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        return destination != null
+                && destination.startsWith(DESTINATION_PREFIX)
+                && message.getPayload() instanceof byte[];
+    }
+
+    private void publish(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        MimeType contentType = SimpMessageHeaderAccessor.getContentType(headers);
+        BrokerEnvelope envelope = new BrokerEnvelope(
+                nodeId,
+                SimpMessageHeaderAccessor.getDestination(headers),
+                contentType == null ? null : contentType.toString(),
+                (byte[]) message.getPayload()
+        );
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(envelope));
+            publishedCounter.increment();
+        } catch (Exception e) {
+            // 로컬 구독자에게는 전달되어야 하므로 예외를 던지지 않음
+            failedCounter.increment();
+            log.warn("[broker fan-out] Redis 발행 실패 destination:{}, cause:{}", envelope.destination(), e.getMessage());
+        }
+    }
+
+    /**
+     * Redis 채널로 주고받는 메세지
+     *
+     * @param nodeId      발행한 서버
+     * @param destination STOMP destination (/sub/**)
+     * @param contentType content-type 헤더
+     * @param payload     STOMP 본문 (JSON 에서는 base64)
+     */
+    public record BrokerEnvelope(String nodeId, String destination, String contentType, byte[] payload) {
+    }
+}
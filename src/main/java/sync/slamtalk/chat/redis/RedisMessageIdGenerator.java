@@ -0,0 +1,74 @@
+package sync.slamtalk.chat.redis;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import sync.slamtalk.chat.service.MessageIdGenerator;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis INCR 기반 메세지 아이디 발급기
+ * 여러 서버가 같은 Redis 를 사용하므로 서버가 늘어나도 아이디가 겹치지 않고, 모든 채팅방에서 발급 순서대로 증가한다.
+ * chat.message.id-generator=redis 일 때 사용한다.
+ *
+ * 시퀀스 키는 Redis 재시작, failover, eviction 으로 언제든 사라질 수 있으므로
+ * 한 번만 초기화하지 않고 발급할 때마다 키가 있는지 확인한다.
+ * - 키가 없으면 DB 의 가장 큰 아이디와 이 서버가 마지막으로 발급한 아이디 중 큰 값으로 다시 시작한다.
+ *   (write-behind 큐에 남아서 아직 DB 에 없는 아이디를 다시 발급하지 않도록)
+ * - 키가 있어도 이 서버가 발급한 아이디보다 작으면 (다른 서버가 오래된 값으로 초기화한 경우) 끌어올린다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "chat.message.id-generator", havingValue = "redis")
+public class RedisMessageIdGenerator implements MessageIdGenerator {
+
+    private static final String SEQUENCE_KEY = "chat_message:sequence";
+
+    // 키가 없으면 -1, 있으면 floor 이상으로 끌어올린 뒤 INCR
+    private static final RedisScript<Long> NEXT_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) " +
+            "if not current then return -1 end " +
+            "if tonumber(current) < tonumber(ARGV[1]) then redis.call('SET', KEYS[1], ARGV[1]) end " +
+            "return redis.call('INCR', KEYS[1])", Long.class);
+
+    // floor 보다 작거나 없으면 floor 로 설정한 뒤 INCR (여러 서버가 동시에 초기화해도 가장 큰 floor 가 남는다)
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '-1') " +
+            "if current < tonumber(ARGV[1]) then redis.call('SET', KEYS[1], ARGV[1]) end " +
+            "return redis.call('INCR', KEYS[1])", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    // 이 서버가 마지막으로 발급한 아이디
+    private final AtomicLong lastIssued = new AtomicLong();
+
+    @Override
+    public long nextId(Long roomId) {
+        Long id = stringRedisTemplate.execute(NEXT_SCRIPT, List.of(SEQUENCE_KEY), String.valueOf(lastIssued.get()));
+        if (id != null && id < 0) {
+            id = seed();
+        }
+        if (id == null) {
+            throw new IllegalStateException("메세지 아이디를 발급하지 못했습니다.");
+        }
+        lastIssued.accumulateAndGet(id, Math::max);
+        return id;
+    }
+
+    // 시퀀스 키가 없을 때 DB 의 마지막 메세지 아이디로 다시 초기화
+    private Long seed() {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(message_id), 0) from messages", Long.class);
+        long floor = Math.max(maxId == null ? 0 : maxId, lastIssued.get());
+        log.warn("메세지 아이디 시퀀스가 없어서 다시 초기화합니다 : {}", floor);
+        return stringRedisTemplate.execute(SEED_SCRIPT, List.of(SEQUENCE_KEY), String.valueOf(floor));
+    }
+}
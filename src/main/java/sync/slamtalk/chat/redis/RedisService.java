@@ -1,133 +1,374 @@
 package sync.slamtalk.chat.redis;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
-import sync.slamtalk.user.UserRepository;
-import sync.slamtalk.user.entity.User;
+import sync.slamtalk.common.BaseException;
+import sync.slamtalk.common.ErrorResponseCode;
+import sync.slamtalk.user.cache.SenderProfile;
+import sync.slamtalk.user.cache.SenderProfileCache;
 
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
+/**
+ * 채팅 메세지 캐시 (Redis)
+ *
+ * - 채팅방 인덱스 : chat:{roomId}:messages zset, member = 19자리로 0 을 채운 메세지 아이디, score = 0
+ *   Snowflake 아이디(약 2^58)는 double 점수로 정확히 표현되지 않으므로 점수는 모두 같게 두고,
+ *   같은 점수끼리는 멤버 사전순으로 정렬되는 것을 이용해 ZRANGEBYLEX 로 아이디 순서대로 조회한다. (사전순 = 아이디 순)
+ * - 메세지 본문   : chat:{roomId}:bodies hash, field = 메세지 아이디, value = [보낸 사람, 닉네임, 내용, 보낸 시간] JSON 배열
+ * - 채팅방 목록   : chat_cache:rooms zset, member = roomId, score = 마지막으로 저장한 시각 (LRU)
+ *
+ * 채팅방 키는 {roomId} 해시 태그로 같은 슬롯에 두고, 스크립트는 KEYS 로 넘긴 키만 사용한다. (Redis Cluster 호환)
+ * 다른 슬롯인 채팅방 목록은 스크립트 밖에서 같은 파이프라인으로 갱신한다.
+ *
+ * 보관 정책
+ * - 채팅방마다 최근 chat.cache.max-messages-per-room 개만 남기고 오래된 메세지는 저장할 때 바로 지운다. (ZREMRANGEBYRANK + HDEL)
+ * - 캐시하는 채팅방은 chat.cache.max-rooms 개까지이고, 넘으면 가장 오래전에 저장된 채팅방부터 통째로 지운다.
+ *   (MessageCacheBudget 이 주기적으로 정리하므로, 정리 사이에는 잠시 넘을 수 있다)
+ * - 채팅방 키는 마지막 저장 후 chat.cache.ttl-seconds 뒤에 만료된다.
+ * 본문 hash 는 채팅방당 max-messages-per-room 개 이하이므로 hash-max-listpack-entries 를 그 이상으로 두면 compact 인코딩을 유지한다.
+ * (내용이 hash-max-listpack-value 보다 긴 메세지가 있으면 hashtable 인코딩이 된다)
+ * 캐시에서 빠진 메세지는 DB 에서 조회한다.
+ */
 @Service
-@AllArgsConstructor
 @Slf4j
 public class RedisService {
-    @Autowired
     private final RedisTemplate<String,String> redisTemplate;
     private final StringRedisTemplate stringRedisTemplate;
-    private final UserRepository userRepository;
+    private final SenderProfileCache senderProfileCache;
+
+    // 채팅방 키 prefix
+    private static final String ROOM_KEY_PREFIX = "chat:";
+    // 캐시 중인 채팅방 목록 (LRU)
+    private static final String ROOMS_KEY = "chat_cache:rooms";
+
+    // 채팅방 인덱스 멤버 (Long.MAX_VALUE 가 19자리)
+    private static final String MEMBER_FORMAT = "%019d";
+
+    // 메세지 본문 직렬화 ([보낸 사람, 닉네임, 내용, 보낸 시간])
+    private static final ObjectMapper BODY_MAPPER = new ObjectMapper();
+
+    // 채팅방 하나의 메세지 저장 + 보관 개수 초과분 삭제
+    // KEYS[1] = 채팅방 인덱스, KEYS[2] = 메세지 본문 (같은 슬롯)
+    // ARGV = ttl, 보관 개수, (인덱스 멤버, 본문) * n
+    // 본문 field 는 앞의 0 을 뗀 메세지 아이디 (숫자로 바꾸면 2^53 이상에서 정밀도가 떨어지므로 문자열로 처리)
+    // 반환 = 삭제한 메세지 수
+    private static final RedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            "local ttl = tonumber(ARGV[1]) " +
+            "for i = 3, #ARGV, 2 do " +
+            "  redis.call('HSET', KEYS[2], (string.gsub(ARGV[i], '^0+', '')), ARGV[i + 1]) " +
+            "  redis.call('ZADD', KEYS[1], 0, ARGV[i]) " +
+            "end " +
+            "redis.call('EXPIRE', KEYS[1], ttl) " +
+            "redis.call('EXPIRE', KEYS[2], ttl) " +
+            "local excess = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[2]) " +
+            "if excess <= 0 then return 0 end " +
+            "local trimmed = redis.call('ZRANGE', KEYS[1], 0, excess - 1) " +
+            "for _, member in ipairs(trimmed) do redis.call('HDEL', KEYS[2], (string.gsub(member, '^0+', ''))) end " +
+            "redis.call('ZREMRANGEBYRANK', KEYS[1], 0, excess - 1) " +
+            "return #trimmed", Long.class);
+
+    private final long ttlSeconds;
+    private final int maxMessagesPerRoom;
+    private final int maxRooms;
+    private final Counter trimmedCounter;
+    private final Counter evictedRoomsCounter;
+    private final Counter evictedMessagesCounter;
+
+    public RedisService(
+            RedisTemplate<String,String> redisTemplate,
+            StringRedisTemplate stringRedisTemplate,
+            SenderProfileCache senderProfileCache,
+            MeterRegistry meterRegistry,
+            @Value("${chat.cache.ttl-seconds:43200}") long ttlSeconds,
+            @Value("${chat.cache.max-messages-per-room:200}") int maxMessagesPerRoom,
+            @Value("${chat.cache.max-rooms:5000}") int maxRooms
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.senderProfileCache = senderProfileCache;
+        this.ttlSeconds = ttlSeconds;
+        this.maxMessagesPerRoom = maxMessagesPerRoom;
+        this.maxRooms = maxRooms;
+        this.trimmedCounter = meterRegistry.counter("chat.cache.trimmed");
+        this.evictedRoomsCounter = meterRegistry.counter("chat.cache.evicted.rooms");
+        this.evictedMessagesCounter = meterRegistry.counter("chat.cache.evicted.messages");
+    }
+
 
     // 메세지 저장
-    public void saveMessage(ChatMessageDTO messageDTO, long timeoutInSeconds){
-        String messageKey = "chat_room:" + messageDTO.getRoomId() + ":message:" + messageDTO.getMessageId();//System.nanoTime(); //고유한 메세지 아이디 생성
-        Map<String,String> messageInfo = new HashMap<>();
+    public void saveMessage(ChatMessageDTO messageDTO){
+        saveMessages(List.of(messageDTO));
+    }
 
-        messageInfo.put("messageId",messageDTO.getMessageId());
-        messageInfo.put("senderId",messageDTO.getSenderId().toString());
-        messageInfo.put("roomId",messageDTO.getRoomId());
-        messageInfo.put("senderNickName",messageDTO.getSenderNickname());
-        messageInfo.put("messageContent",messageDTO.getContent());
-        messageInfo.put("sendTime",messageDTO.getTimestamp());
 
-        // 메시지 메타데이터 저장
-        redisTemplate.opsForHash().putAll(messageKey,messageInfo);
+    // 메세지 여러개 저장
+    // 채팅방마다 저장/만료 설정/보관 개수 정리를 스크립트 하나로 처리하고, 채팅방들을 하나의 파이프라인으로 묶어 한번의 왕복으로 저장한다.
+    public void saveMessages(List<ChatMessageDTO> messages){
+        if(messages.isEmpty()){
+            return;
+        }
 
-        // 메시지 메타데이터에 대한 만료 시간 설정
-        redisTemplate.expire(messageKey, timeoutInSeconds, TimeUnit.SECONDS);
+        Map<Long, List<ChatMessageDTO>> messagesByRoom = new LinkedHashMap<>();
+        for(ChatMessageDTO messageDTO : messages){
+            messagesByRoom.computeIfAbsent(Long.parseLong(messageDTO.getRoomId()), id -> new ArrayList<>()).add(messageDTO);
+        }
+        double now = System.currentTimeMillis();
+
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                messagesByRoom.forEach((roomId, roomMessages) -> {
+                    List<String> args = new ArrayList<>(2 + roomMessages.size() * 2);
+                    args.add(String.valueOf(ttlSeconds));
+                    args.add(String.valueOf(maxMessagesPerRoom));
+                    for(ChatMessageDTO messageDTO : roomMessages){
+                        args.add(member(Long.parseLong(messageDTO.getMessageId())));
+                        args.add(encodeBody(messageDTO));
+                    }
+                    ops.execute(SAVE_SCRIPT, List.of(roomIndexKey(roomId), roomBodiesKey(roomId)), args.toArray());
+                });
+                // 채팅방 목록은 다른 슬롯이므로 스크립트 밖에서 갱신
+                messagesByRoom.keySet().forEach(roomId -> ops.opsForZSet().add(ROOMS_KEY, roomId.toString(), now));
+                return null;
+            }
+        });
 
-        // 메시지 ID 를 정렬된 세트에 추가(메세지 ID 를 점수로 사용)
-        String roomId = messageDTO.getRoomId();
-        long longRoomId = Long.parseLong(roomId);
+        // 스크립트 결과만 (채팅방 목록 ZADD 결과 제외)
+        long trimmed = results.subList(0, messagesByRoom.size()).stream()
+                .mapToLong(result -> result instanceof Number n ? n.longValue() : 0).sum();
+        if(trimmed > 0){
+            trimmedCounter.increment(trimmed);
+        }
+        log.debug("====redis 저장 완료 : {}개, 보관 개수 초과로 삭제 : {}개====", messages.size(), trimmed);
+    }
 
-        String chatRoomMessageKey = String.format("chat_room%d:messages",longRoomId);
-        redisTemplate.opsForZSet().add(chatRoomMessageKey,messageKey,longRoomId);
 
-        // 정렬된 세트에 대한 만료 시간 설정도 고려해야 할 수 있음
-        redisTemplate.expire(chatRoomMessageKey, timeoutInSeconds, TimeUnit.SECONDS);
+    // 캐시하는 채팅방 수가 chat.cache.max-rooms 를 넘으면 가장 오래전에 저장된 채팅방부터 삭제
+    // 반환 = 삭제한 채팅방 수
+    public int evictOverBudget(){
+        Long rooms = stringRedisTemplate.opsForZSet().zCard(ROOMS_KEY);
+        long excess = rooms == null ? 0 : rooms - maxRooms;
+        if(excess <= 0){
+            return 0;
+        }
 
-        log.debug("===redis 저장 된 아이디 :{}",messageDTO.getMessageId());
-        log.debug("====redis 저장 완료====");
+        Set<String> victims = stringRedisTemplate.opsForZSet().range(ROOMS_KEY, 0, excess - 1);
+        if(victims == null || victims.isEmpty()){
+            return 0;
+        }
+        // 채팅방마다 메세지 수 확인 + 인덱스/본문 삭제 (같은 슬롯), 채팅방 목록에서 제거를 한 번의 왕복으로
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for(String roomId : victims){
+                    ops.opsForZSet().zCard(roomIndexKey(Long.parseLong(roomId)));
+                    ops.delete(List.of(roomIndexKey(Long.parseLong(roomId)), roomBodiesKey(Long.parseLong(roomId))));
+                }
+                ops.opsForZSet().remove(ROOMS_KEY, victims.toArray());
+                return null;
+            }
+        });
+        long evictedMessages = 0;
+        for(int i = 0; i < victims.size(); i++){
+            evictedMessages += results.get(i * 2) instanceof Number n ? n.longValue() : 0;
+        }
+        evictedRoomsCounter.increment(victims.size());
+        evictedMessagesCounter.increment(evictedMessages);
+        log.debug("====redis 캐시 예산 초과로 채팅방 {}개(메세지 {}개) 삭제====", victims.size(), evictedMessages);
+        return victims.size();
     }
 
 
-    // 메세지 가져오기
-    public List<ChatMessageDTO> getMessages(Long roomId,Long readIndex) {
+    // 캐시 중인 채팅방 수
+    public long cachedRoomCount(){
+        Long rooms = stringRedisTemplate.opsForZSet().zCard(ROOMS_KEY);
+        return rooms == null ? 0 : rooms;
+    }
 
 
-        List<ChatMessageDTO> chatList = new ArrayList<>();
+    // redis 사용 메모리 (INFO memory 의 used_memory, 조회 실패 시 -1)
+    public long usedMemoryBytes(){
+        Properties info = stringRedisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("memory"));
+        String usedMemory = info == null ? null : info.getProperty("used_memory");
+        return usedMemory == null ? -1 : Long.parseLong(usedMemory.trim());
+    }
 
-        // 검색 key 생성
-        // 특정 채팅방 메세지 모두 가져오기
-        String messageKey = "chat_room:" + roomId + "*";
-        // 디버그용
-        //log.debug("=========> messageKey : {}",messageKey);
-        Set<String> keys = stringRedisTemplate.keys(messageKey);
 
+    // 메세지 가져오기 (keyset 페이징)
+    // beforeMessageId 보다 작은 아이디의 메세지를 최신순으로 limit 만큼 가져온다.
+    // 채팅방 인덱스(ZSET) 을 ZREVRANGEBYLEX ... LIMIT 으로 조회하므로 스크롤 깊이와 상관없이 O(log N + limit)
+    // 메세지 hash 가 이미 만료된 지점부터는 반환하지 않는다. (이후는 DB 에서 이어서 조회)
+    public List<ChatMessageDTO> getMessagesBefore(Long roomId, long beforeMessageId, int limit) {
 
-        Set<String> sortedKeys = keys.stream()
-                .sorted(Comparator.reverseOrder())
-                .collect(Collectors.toCollection(LinkedHashSet::new)); // 순서를 유지하는 Set으로 수집
+        Set<String> members = stringRedisTemplate.opsForZSet()
+                .reverseRangeByLex(roomIndexKey(roomId), Range.leftUnbounded(Range.Bound.exclusive(member(beforeMessageId))),
+                        Limit.limit().count(limit));
 
-        for(String k : sortedKeys){
-            log.debug("== all key:{}",k);
+        if(members == null || members.isEmpty()){
+            log.debug("==redisService 채팅방 인덱스에 해당하는 메세지 없음");
+            return new ArrayList<>();
         }
+        return loadMessages(roomId, new ArrayList<>(members));
+    }
 
 
+    // 메세지 가져오기 (재연결 catch-up)
+    // afterMessageId 보다 큰 아이디의 메세지를 오래된 순으로 limit 만큼 가져온다.
+    public List<ChatMessageDTO> getMessagesAfter(Long roomId, long afterMessageId, int limit) {
 
-        log.debug("== readIndex : {}", readIndex);
+        Set<String> members = stringRedisTemplate.opsForZSet()
+                .rangeByLex(roomIndexKey(roomId), Range.rightUnbounded(Range.Bound.exclusive(member(afterMessageId))),
+                        Limit.limit().count(limit));
 
-        List<String> keyCollect = sortedKeys.stream()
-                .map(key -> key.split(":"))
-                // 분할된 배열에서 메시지 ID가 숫자 형태인지, 그리고 readIndex보다 작은지 확인
-                .filter(parts -> parts.length == 4 && parts[3].matches("\\d+") && Long.parseLong(parts[3]) <= readIndex)
-                // 원래 키 형태로 복원
-                .map(parts -> String.join(":", parts))
-                // 메시지 ID에 따라 내림차순 정렬
-                //.sorted((key1, key2) -> Integer.compare(Integer.parseInt(key2.split(":")[3]), Integer.parseInt(key1.split(":")[3])))
-                // 상위 20개만 선택
-                .limit(20)
-                .collect(Collectors.toList());
+        if(members == null || members.isEmpty()){
+            return new ArrayList<>();
+        }
+        return loadMessages(roomId, new ArrayList<>(members));
+    }
 
-        for(String key : keyCollect){
-            log.debug("== key : {}",key);
-            Map<Object, Object> entry = stringRedisTemplate.opsForHash().entries(key);
 
-            if(entry.isEmpty()){
-                log.debug("==redisService key값들 아무것도 가져오지 못함");
+    // 채팅방 인덱스에 afterMessageId 이후 메세지가 몇 개 있는지 (ZLEXCOUNT)
+    // 인덱스에 afterMessageId 이하 메세지가 없으면 캐시가 커서까지 이어지지 않으므로 -1
+    public long countMessagesAfter(Long roomId, long afterMessageId){
+        String key = roomIndexKey(roomId);
+        List<Object> counts = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForZSet().lexCount(key, Range.leftUnbounded(Range.Bound.inclusive(member(afterMessageId))));
+                ops.opsForZSet().lexCount(key, Range.rightUnbounded(Range.Bound.exclusive(member(afterMessageId))));
+                return null;
             }
+        });
+        long before = counts.get(0) instanceof Number n ? n.longValue() : 0;
+        long after = counts.get(1) instanceof Number n ? n.longValue() : 0;
+        return before == 0 ? -1 : after;
+    }
+
 
-            Object senderId = entry.get("senderId");
-            long userId = Long.parseLong(senderId.toString());
-            Optional<User> optionalUser = userRepository.findById(userId);
-            String userImg = null;
-            if(optionalUser.isPresent()){
-                userImg = optionalUser.get().getImageUrl();
+    // 메세지 본문을 한 번의 HMGET 으로 가져와서 dto 로 변환 (members 순서 유지)
+    private List<ChatMessageDTO> loadMessages(Long roomId, List<String> members){
+        List<ChatMessageDTO> chatList = new ArrayList<>();
+        if(members.isEmpty()){
+            return chatList;
+        }
+        List<String> messageIds = members.stream()
+                .map(member -> String.valueOf(Long.parseLong(member)))
+                .toList();
+        HashOperations<String, String, String> hashOperations = stringRedisTemplate.opsForHash();
+        List<String> values = hashOperations.multiGet(roomBodiesKey(roomId), messageIds);
+
+        // 보관 개수 초과로 방금 지워진 메세지가 나오면 거기서 멈춤 (중간이 비지 않도록)
+        List<String[]> bodies = new ArrayList<>();
+        for(String value : values){
+            if(value == null){
+                log.debug("==redisService 인덱스에는 남아있지만 메세지가 삭제됨");
+                break;
             }
+            bodies.add(decodeBody(value));
+        }
+
+        // 페이지에 있는 발신자들의 프로필 한번에 조회
+        Map<Long, SenderProfile> profiles = senderProfileCache.getAll(bodies.stream()
+                .map(body -> Long.parseLong(body[0]))
+                .toList());
+
+        for(int i = 0; i < bodies.size(); i++){
+            String[] body = bodies.get(i);
+            long userId = Long.parseLong(body[0]);
+            SenderProfile profile = profiles.get(userId);
 
+            // 메세지 아이디, 채팅방 아이디는 키에 있으므로 본문에 저장하지 않음
             ChatMessageDTO chatMessageDTO = ChatMessageDTO.builder()
-                    .messageId(entry.get("messageId").toString())
-                    .roomId(entry.get("roomId").toString())
+                    .messageId(messageIds.get(i))
+                    .roomId(roomId.toString())
                     .senderId(userId)
-                    .senderNickname(entry.get("senderNickName").toString())
-                    .imgUrl(userImg)
-                    .content(entry.get("messageContent").toString())
-                    .timestamp(entry.get("sendTime").toString())
+                    .senderNickname(body[1])
+                    .imgUrl(profile == null ? null : profile.imageUrl())
+                    .content(body[2])
+                    .timestamp(body[3])
                     .build();
-            log.debug("====완성:{}",chatMessageDTO.getContent());
             chatList.add(chatMessageDTO);
         }
         return chatList;
     }
 
 
+    // 채팅방 인덱스(ZSET)의 마지막 메세지 아이디 (점수가 모두 같으므로 마지막 순위 = 사전순 마지막 멤버)
+    public Optional<Long> getLastMessageId(Long roomId){
+        Set<String> last = stringRedisTemplate.opsForZSet().reverseRange(roomIndexKey(roomId), 0, 0);
+        if(last == null || last.isEmpty()){
+            return Optional.empty();
+        }
+        return Optional.of(Long.parseLong(last.iterator().next()));
+    }
+
+
+    // 메세지 본문 ([보낸 사람, 닉네임, 내용, 보낸 시간])
+    private String encodeBody(ChatMessageDTO messageDTO){
+        try {
+            return BODY_MAPPER.writeValueAsString(new String[]{
+                    messageDTO.getSenderId().toString(),
+                    messageDTO.getSenderNickname(),
+                    messageDTO.getContent(),
+                    messageDTO.getTimestamp()});
+        } catch (JsonProcessingException e) {
+            log.error("메세지 캐시 직렬화 실패 : {}", e.getMessage());
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+    }
+
+    private String[] decodeBody(String value){
+        try {
+            return BODY_MAPPER.readValue(value, String[].class);
+        } catch (JsonProcessingException e) {
+            log.error("메세지 캐시 역직렬화 실패 : {}", e.getMessage());
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+    }
+
+
+    // 채팅방 인덱스 멤버 (0 을 채워서 사전순 = 아이디 순)
+    static String member(long messageId){
+        return String.format(MEMBER_FORMAT, messageId);
+    }
+
+    // 채팅방 메세지 인덱스(ZSET) 키
+    private String roomIndexKey(Long roomId){
+        return ROOM_KEY_PREFIX + "{" + roomId + "}:messages";
+    }
+
+    // 채팅방 메세지 본문(HASH) 키
+    private String roomBodiesKey(Long roomId){
+        return ROOM_KEY_PREFIX + "{" + roomId + "}:bodies";
+    }
+
+
 
 
     /* 이메일 인증관련 메서드*/
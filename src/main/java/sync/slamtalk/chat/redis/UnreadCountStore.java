@@ -0,0 +1,238 @@
+package sync.slamtalk.chat.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 채팅방별 안 읽은 메세지 수 (Redis)
+ *
+ * - 채팅방 시퀀스 : chat_unread:room:{roomId} (메세지를 보낼 때마다 INCR)
+ * - 읽은 위치     : chat_unread:read:{userId} hash, field = roomId, value = 마지막으로 읽었을 때의 채팅방 시퀀스
+ * - 안 읽은 수    : 채팅방 시퀀스 - 읽은 위치
+ *
+ * 메세지를 보낼 때 채팅방 참여자 수와 상관없이 O(1) 이고, 채팅 리스트는 MGET + HMGET 한 번으로 계산한다.
+ * 값이 없거나 DB 와 어긋날 수 있는 채팅방은 chat_unread:dirty 에 모아두고 UnreadCountReconciler 가 DB 기준으로 보정한다.
+ *
+ * - 보정 주기 : 보정한 채팅방은 chat_unread:reconciled:{roomId} 가 남아 있는 동안(reconcileInterval) 다시 보정 대상이 되지 않는다.
+ * - 보정 방식 : chat_unread:active:{roomId} 는 메세지를 보낼 때마다 settle 시간 동안 유지된다.
+ *   최근 settle 시간 안에 메세지가 없으면 (write-behind 큐에 남은 메세지가 없으므로) DB 값을 그대로 반영해서 줄일 수도 있고,
+ *   메세지가 오가는 중이면 아직 DB 에 없는 메세지를 되돌리지 않도록 값을 올리기만 한다.
+ *   settle 시간은 write-behind 저장 지연보다 충분히 길어야 한다.
+ */
+@Slf4j
+@Component
+public class UnreadCountStore {
+
+    private static final String ROOM_SEQ_PREFIX = "chat_unread:room:";
+    private static final String READ_SEQ_PREFIX = "chat_unread:read:";
+    private static final String RECONCILED_PREFIX = "chat_unread:reconciled:";
+    private static final String ACTIVE_PREFIX = "chat_unread:active:";
+    private static final String DIRTY_KEY = "chat_unread:dirty";
+
+    // 채팅방 시퀀스 증가, 보정 대상 표시 (보정 주기 안이면 생략), 보낸 사람은 읽은 것으로 처리, 최근 메세지 표시
+    private static final RedisScript<Long> ON_MESSAGE_SCRIPT = new DefaultRedisScript<>(
+            "local seq = redis.call('INCR', KEYS[1]) " +
+            "if redis.call('EXISTS', KEYS[4]) == 0 then redis.call('SADD', KEYS[2], ARGV[1]) end " +
+            "if ARGV[2] == '1' then redis.call('HSET', KEYS[3], ARGV[1], seq) end " +
+            "redis.call('SET', KEYS[5], '1', 'PX', ARGV[3]) " +
+            "return seq", Long.class);
+
+    // 읽은 위치를 현재 채팅방 시퀀스로 변경
+    private static final RedisScript<Long> MARK_READ_SCRIPT = new DefaultRedisScript<>(
+            "local seq = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "redis.call('HSET', KEYS[2], ARGV[1], seq) " +
+            "return seq", Long.class);
+
+    // 보정 : KEYS[1] 채팅방 시퀀스, KEYS[2] 최근 메세지 표시, KEYS[3] 보정 주기 표시, KEYS[4..] 참여자 읽은 위치
+    // ARGV[1] 채팅방 아이디, ARGV[2] 채팅방 시퀀스, ARGV[3] 참여자 전체 포함 여부, ARGV[4] 보정 주기(초), ARGV[5..] 참여자 읽은 위치
+    // 메세지가 오가는 중이거나 참여자 일부만 있으면 현재 값보다 클 때만 변경, 아니면 그대로 변경 (줄어들 수 있음)
+    private static final RedisScript<Long> RECONCILE_SCRIPT = new DefaultRedisScript<>(
+            "local exact = ARGV[3] == '1' and redis.call('EXISTS', KEYS[2]) == 0 " +
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '-1') " +
+            "if exact or tonumber(ARGV[2]) > current then redis.call('SET', KEYS[1], ARGV[2]) end " +
+            "for i = 4, #KEYS do " +
+            "local read = tonumber(redis.call('HGET', KEYS[i], ARGV[1]) or '-1') " +
+            "if exact or tonumber(ARGV[i + 1]) > read then redis.call('HSET', KEYS[i], ARGV[1], ARGV[i + 1]) end " +
+            "end " +
+            "redis.call('SET', KEYS[3], '1', 'EX', ARGV[4]) " +
+            "if exact then return 1 end " +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long settleMillis;
+    private final long reconcileIntervalSeconds;
+
+    public UnreadCountStore(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${chat.unread.settle-millis:120000}") long settleMillis,
+            @Value("${chat.unread.reconcile-interval-seconds:600}") long reconcileIntervalSeconds
+    ) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.settleMillis = settleMillis;
+        this.reconcileIntervalSeconds = reconcileIntervalSeconds;
+    }
+
+    /**
+     * 메세지 전송 시 호출
+     *
+     * @param roomId   채팅방 아이디
+     * @param senderId 보낸 사람 (null 이면 읽음 처리하지 않음)
+     */
+    public void onMessage(Long roomId, Long senderId) {
+        String sender = senderId == null ? "" : readSeqKey(senderId);
+        stringRedisTemplate.execute(ON_MESSAGE_SCRIPT,
+                List.of(roomSeqKey(roomId), DIRTY_KEY, sender, RECONCILED_PREFIX + roomId, ACTIVE_PREFIX + roomId),
+                roomId.toString(), senderId == null ? "0" : "1", String.valueOf(settleMillis));
+    }
+
+    /**
+     * 채팅방을 읽음 처리 (뒤로 가기, 채팅방 참여)
+     *
+     * @param userId 유저 아이디
+     * @param roomId 채팅방 아이디
+     */
+    public void markRead(Long userId, Long roomId) {
+        stringRedisTemplate.execute(MARK_READ_SCRIPT,
+                List.of(roomSeqKey(roomId), readSeqKey(userId)),
+                roomId.toString());
+    }
+
+    /**
+     * 여러 유저를 한 번에 읽음 처리 (채팅방 생성)
+     *
+     * @param userIds 유저 아이디 목록
+     * @param roomId  채팅방 아이디
+     */
+    public void markReadAll(Collection<Long> userIds, Long roomId) {
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (Long userId : userIds) {
+                    ops.execute(MARK_READ_SCRIPT, List.of(roomSeqKey(roomId), readSeqKey(userId)), roomId.toString());
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 유저의 채팅방별 안 읽은 메세지 수
+     * 값이 없는 채팅방은 0 으로 반환하고 보정 대상으로 표시한다.
+     *
+     * @param userId  유저 아이디
+     * @param roomIds 채팅방 아이디 목록
+     * @return 채팅방 아이디 -> 안 읽은 메세지 수
+     */
+    public Map<Long, Long> unreadCounts(Long userId, List<Long> roomIds) {
+        Map<Long, Long> unreadCounts = new HashMap<>();
+        if (roomIds.isEmpty()) {
+            return unreadCounts;
+        }
+
+        List<String> roomSeqKeys = roomIds.stream().map(this::roomSeqKey).toList();
+        List<Object> fields = new ArrayList<>(roomIds.stream().map(String::valueOf).toList());
+        String readSeqKey = readSeqKey(userId);
+
+        // MGET, HMGET 을 한 번의 왕복으로
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForValue().multiGet(roomSeqKeys);
+                ops.opsForHash().multiGet(readSeqKey, fields);
+                return null;
+            }
+        });
+        List<?> roomSeqs = (List<?>) results.get(0);
+        List<?> readSeqs = (List<?>) results.get(1);
+
+        Set<String> missing = new HashSet<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            Long roomId = roomIds.get(i);
+            Object roomSeq = roomSeqs.get(i);
+            Object readSeq = readSeqs.get(i);
+            if (roomSeq == null || readSeq == null) {
+                missing.add(roomId.toString());
+                unreadCounts.put(roomId, 0L);
+                continue;
+            }
+            long unread = Long.parseLong(roomSeq.toString()) - Long.parseLong(readSeq.toString());
+            unreadCounts.put(roomId, Math.max(0L, unread));
+        }
+
+        if (!missing.isEmpty()) {
+            stringRedisTemplate.opsForSet().add(DIRTY_KEY, missing.toArray(String[]::new));
+        }
+        return unreadCounts;
+    }
+
+    /**
+     * 보정이 필요한 채팅방 꺼내기
+     *
+     * @param count 최대 갯수
+     * @return 채팅방 아이디 목록
+     */
+    public List<Long> popDirtyRooms(int count) {
+        List<String> popped = stringRedisTemplate.opsForSet().pop(DIRTY_KEY, count);
+        if (popped == null) {
+            return List.of();
+        }
+        return popped.stream().map(Long::parseLong).toList();
+    }
+
+    /**
+     * DB 기준 값으로 보정
+     * 최근 settle 시간 안에 메세지가 없고 참여자 전체의 값이 있으면 그대로 반영하고, 아니면 현재 값보다 클 때만 변경한다.
+     *
+     * @param roomId        채팅방 아이디
+     * @param roomSeq       DB 에 저장된 채팅방 메세지 수
+     * @param readSeqByUser 유저 아이디 -> DB readIndex 까지의 메세지 수
+     * @param allMembers    readSeqByUser 에 채팅방 참여자가 모두 들어 있는지
+     * @return DB 값을 그대로 반영했으면 true
+     */
+    public boolean reconcile(Long roomId, long roomSeq, Map<Long, Long> readSeqByUser, boolean allMembers) {
+        List<String> keys = new ArrayList<>();
+        keys.add(roomSeqKey(roomId));
+        keys.add(ACTIVE_PREFIX + roomId);
+        keys.add(RECONCILED_PREFIX + roomId);
+        List<String> args = new ArrayList<>();
+        args.add(roomId.toString());
+        args.add(String.valueOf(roomSeq));
+        args.add(allMembers ? "1" : "0");
+        args.add(String.valueOf(reconcileIntervalSeconds));
+        readSeqByUser.forEach((userId, readSeq) -> {
+            keys.add(readSeqKey(userId));
+            args.add(String.valueOf(readSeq));
+        });
+
+        Long exact = stringRedisTemplate.execute(RECONCILE_SCRIPT, keys, args.toArray());
+        log.debug("[안 읽은 메세지 보정] roomId:{}, 메세지 수:{}, 참여자:{}명, 그대로 반영:{}",
+                roomId, roomSeq, readSeqByUser.size(), exact);
+        return exact != null && exact == 1;
+    }
+
+    private String roomSeqKey(Long roomId) {
+        return ROOM_SEQ_PREFIX + roomId;
+    }
+
+    private String readSeqKey(Long userId) {
+        return READ_SEQ_PREFIX + userId;
+    }
+}
@@ -0,0 +1,38 @@
+package sync.slamtalk.chat.repository;
+
+import sync.slamtalk.chat.entity.RoomType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 채팅 리스트 한 줄 (UserChatRoomRepository.findChatRoomList 프로젝션)
+ * 채팅방, 1:1 상대방 프로필, 마지막 메세지(ChatRoom 에 비정규화된 값)를 한 번의 쿼리로 가져온다.
+ *
+ * @param roomId             채팅방 아이디
+ * @param roomType           채팅방 타입
+ * @param name               채팅방 이름
+ * @param basketBallId       농구장 아이디
+ * @param togetherId         같이하기 게시글 아이디
+ * @param teamMatchingId     팀매칭 게시글 아이디
+ * @param partnerId          1:1 상대방 아이디 (1:1 이 아니거나 탈퇴한 경우 null)
+ * @param partnerNickname    1:1 상대방 닉네임
+ * @param partnerImageUrl    1:1 상대방 프로필 이미지
+ * @param lastMessageId      마지막 메세지 아이디 (메세지가 없으면 null)
+ * @param lastMessageContent 마지막 메세지 미리보기
+ * @param lastActivityAt     마지막 메세지 시간
+ */
+public record ChatRoomListRow(
+        Long roomId,
+        RoomType roomType,
+        String name,
+        Long basketBallId,
+        Long togetherId,
+        Long teamMatchingId,
+        Long partnerId,
+        String partnerNickname,
+        String partnerImageUrl,
+        Long lastMessageId,
+        String lastMessageContent,
+        LocalDateTime lastActivityAt
+) {
+}
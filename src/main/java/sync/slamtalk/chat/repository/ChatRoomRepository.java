@@ -1,6 +1,9 @@
 package sync.slamtalk.chat.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sync.slamtalk.chat.entity.ChatRoom;
 
 import java.util.Optional;
@@ -16,4 +19,20 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     // TeamMatchingId로 ChatRoom 검색
     Optional<ChatRoom> findByTeamMatchingId(Long teamMatchingId);
 
+    // 채팅방의 마지막 메세지 아이디
+    @Query("select c.lastMessageId from ChatRoom c where c.id = :chatRoomId")
+    Optional<Long> findLastMessageIdById(@Param("chatRoomId") Long chatRoomId);
+
+    // 1:1 채팅방 (두 참여자 모두 나가지 않은 채팅방)
+    @Query("select c from ChatRoom c where c.directKey = :directKey " +
+            "and not exists (select u from UserChatRoom u where u.chat = c and u.isDeleted = true)")
+    Optional<ChatRoom> findActiveDirectRoom(@Param("directKey") String directKey);
+
+    // 참여자가 나간 1:1 채팅방의 directKey 해제 (같은 두 유저의 새 채팅방을 만들 수 있도록)
+    // 두 참여자가 모두 남아있는 채팅방은 해제하지 않으므로 동시에 만들어진 채팅방은 unique 제약으로 막힌다.
+    @Modifying
+    @Query("update ChatRoom c set c.directKey = null where c.directKey = :directKey " +
+            "and exists (select u from UserChatRoom u where u.chat = c and u.isDeleted = true)")
+    int releaseDirectKey(@Param("directKey") String directKey);
+
 }
@@ -0,0 +1,12 @@
+package sync.slamtalk.chat.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import sync.slamtalk.chat.entity.MessageArchiveBlock;
+
+import java.util.Optional;
+
+public interface MessageArchiveBlockRepository extends JpaRepository<MessageArchiveBlock, Long> {
+
+    // 커서 이전 메세지가 들어있는 가장 최근 블록 ((chatroom_id, first_message_id) 인덱스)
+    Optional<MessageArchiveBlock> findFirstByChatRoomIdAndFirstMessageIdLessThanOrderByFirstMessageIdDesc(Long chatRoomId, Long messageId);
+}
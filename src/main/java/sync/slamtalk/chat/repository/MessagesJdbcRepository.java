@@ -0,0 +1,160 @@
+package sync.slamtalk.chat.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import sync.slamtalk.chat.archive.ArchivedMessage;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.entity.ChatRoom;
+import sync.slamtalk.chat.entity.Messages;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 아이디가 미리 발급된 메세지를 JDBC batch insert 로 저장하는 레포지토리
+ * (MySQL 은 rewriteBatchedStatements=true 일 때 한번의 multi-row insert 로 전송된다.)
+ */
+@Repository
+@RequiredArgsConstructor
+public class MessagesJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "insert into messages (message_id, chatroom_id, sender_id, sender_nickname, content, creation_time, sent_at, created_at, updated_at, is_deleted) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // 채팅방의 마지막 메세지 갱신 (이미 더 최근 메세지가 기록되어 있으면 갱신하지 않음)
+    private static final String UPDATE_LAST_MESSAGE_SQL =
+            "update chatroom set last_message_id = ?, last_message_preview = ?, last_activity_at = ? " +
+            "where chatroom_id = ? and (last_message_id is null or last_message_id < ?)";
+
+    // 채팅방 메세지 수
+    private static final String COUNT_MESSAGES_SQL =
+            "select count(*) from messages where chatroom_id = ? and is_deleted = false";
+
+    // 채팅방 참여자별 readIndex (최대 limit 명)
+    private static final String MEMBER_READ_INDEX_SQL =
+            "select user_id, coalesce(read_index, 0) from user_chatroom " +
+            "where chatroom_id = ? and is_deleted = false limit ?";
+
+    // 채팅방의 최근 메세지 아이디 (chatroom_id, message_id) 인덱스 역순 범위 스캔, 최대 limit 개
+    private static final String RECENT_MESSAGE_IDS_SQL =
+            "select message_id from messages where chatroom_id = ? and is_deleted = false " +
+            "order by message_id desc limit ?";
+
+    // 커서 이후 메세지 수 (최대 limit 개까지만 센다)
+    private static final String COUNT_MESSAGES_AFTER_SQL =
+            "select count(*) from (select 1 from messages where chatroom_id = ? and message_id > ? limit ?) t";
+
+    // 아카이브할 메세지가 있는 채팅방 (기본키 범위 스캔)
+    private static final String ARCHIVABLE_ROOMS_SQL =
+            "select distinct chatroom_id from messages where message_id >= ? and message_id < ? limit ?";
+
+    // 채팅방의 가장 오래된 메세지부터 (chatroom_id, message_id) 인덱스
+    private static final String OLDEST_MESSAGES_SQL =
+            "select message_id, sender_id, sender_nickname, content, creation_time from messages " +
+            "where chatroom_id = ? and message_id >= ? and message_id < ? order by message_id limit ?";
+
+    // 아카이브한 메세지 삭제
+    private static final String DELETE_RANGE_SQL =
+            "delete from messages where chatroom_id = ? and message_id between ? and ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 메세지 목록을 하나의 트랜잭션, 하나의 batch 로 저장
+    // 같은 트랜잭션에서 채팅방별 마지막 메세지도 함께 갱신
+    @Transactional
+    public void batchInsert(List<ChatMessageDTO> messages) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+            ps.setLong(1, Long.parseLong(message.getMessageId()));
+            ps.setLong(2, Long.parseLong(message.getRoomId()));
+            if (message.getSenderId() == null) {
+                ps.setNull(3, Types.BIGINT);
+            } else {
+                ps.setLong(3, message.getSenderId());
+            }
+            ps.setString(4, message.getSenderNickname());
+            ps.setString(5, message.getContent());
+            ps.setString(6, message.getTimestamp());
+            LocalDateTime sentAt = Messages.sentAtOf(message.getTimestamp());
+            ps.setTimestamp(7, sentAt == null ? now : Timestamp.valueOf(sentAt));
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+            ps.setBoolean(10, false);
+        });
+
+        List<ChatMessageDTO> lastMessages = lastMessagePerRoom(messages);
+        jdbcTemplate.batchUpdate(UPDATE_LAST_MESSAGE_SQL, lastMessages, lastMessages.size(), (ps, message) -> {
+            long messageId = Long.parseLong(message.getMessageId());
+            ps.setLong(1, messageId);
+            ps.setString(2, ChatRoom.previewOf(message.getContent()));
+            ps.setTimestamp(3, now);
+            ps.setLong(4, Long.parseLong(message.getRoomId()));
+            ps.setLong(5, messageId);
+        });
+    }
+
+    // 채팅방별로 아이디가 가장 큰 메세지
+    private List<ChatMessageDTO> lastMessagePerRoom(List<ChatMessageDTO> messages) {
+        Map<String, ChatMessageDTO> lastMessages = new HashMap<>();
+        for (ChatMessageDTO message : messages) {
+            lastMessages.merge(message.getRoomId(), message, (current, candidate) ->
+                    Long.parseLong(candidate.getMessageId()) > Long.parseLong(current.getMessageId()) ? candidate : current);
+        }
+        return new ArrayList<>(lastMessages.values());
+    }
+
+    // 채팅방 메세지 수
+    public long countMessages(Long chatRoomId) {
+        Long count = jdbcTemplate.queryForObject(COUNT_MESSAGES_SQL, Long.class, chatRoomId);
+        return count == null ? 0L : count;
+    }
+
+    // 채팅방에서 afterMessageId 이후 메세지 수 (limit 개를 넘으면 limit)
+    public long countMessagesAfter(Long chatRoomId, long afterMessageId, int limit) {
+        Long count = jdbcTemplate.queryForObject(COUNT_MESSAGES_AFTER_SQL, Long.class, chatRoomId, afterMessageId, limit);
+        return count == null ? 0L : count;
+    }
+
+    // 참여자별 readIndex (유저 아이디 -> readIndex), 최대 limit 명
+    public Map<Long, Long> findMemberReadIndexes(Long chatRoomId, int limit) {
+        Map<Long, Long> readIndexes = new HashMap<>();
+        jdbcTemplate.query(MEMBER_READ_INDEX_SQL,
+                rs -> { readIndexes.put(rs.getLong(1), rs.getLong(2)); },
+                chatRoomId, limit);
+        return readIndexes;
+    }
+
+    // 채팅방의 최근 메세지 아이디 (최신순), 최대 limit 개
+    public List<Long> findRecentMessageIds(Long chatRoomId, int limit) {
+        return jdbcTemplate.queryForList(RECENT_MESSAGE_IDS_SQL, Long.class, chatRoomId, limit);
+    }
+
+    // fromMessageId 이상, beforeMessageId 미만인 메세지가 있는 채팅방
+    public List<Long> findArchivableRoomIds(long fromMessageId, long beforeMessageId, int limit) {
+        return jdbcTemplate.queryForList(ARCHIVABLE_ROOMS_SQL, Long.class, fromMessageId, beforeMessageId, limit);
+    }
+
+    // 채팅방에서 fromMessageId 이상, beforeMessageId 미만인 메세지를 아이디 오름차순으로 limit 개
+    public List<ArchivedMessage> findOldestMessages(Long chatRoomId, long fromMessageId, long beforeMessageId, int limit) {
+        return jdbcTemplate.query(OLDEST_MESSAGES_SQL, (rs, rowNum) -> new ArchivedMessage(
+                rs.getLong("message_id"),
+                rs.getObject("sender_id", Long.class),
+                rs.getString("sender_nickname"),
+                rs.getString("content"),
+                rs.getString("creation_time")
+        ), chatRoomId, fromMessageId, beforeMessageId, limit);
+    }
+
+    // 채팅방의 firstMessageId ~ lastMessageId 메세지 삭제
+    public int deleteRange(Long chatRoomId, long firstMessageId, long lastMessageId) {
+        return jdbcTemplate.update(DELETE_RANGE_SQL, chatRoomId, firstMessageId, lastMessageId);
+    }
+}
@@ -18,21 +18,25 @@ public interface MessagesRepository extends JpaRepository<Messages,Long> {
 
 
     // 2. 특정 채팅방의 가장 최근 메시지를 가져오기
-    @Query("select m from Messages m where m.chatRoom.id =:chatroom_id order by m.creation_time desc ")
+    // 메세지 아이디는 시간 순으로 발급되므로 (chatroom_id, message_id) 인덱스를 역순으로 읽는다.
+    @Query("select m from Messages m where m.chatRoom.id =:chatroom_id order by m.id desc ")
     Page<Messages> findLatestByChatRoomId(@Param("chatroom_id")Long chatRoomId, Pageable pageable);
 
 
     // 3. TODO 특정 roomId 에 해당하는 모든 Message 가져오기(최근~과거)
-    @Query("select m from Messages m where m.chatRoom.id=:chatRoomId order by m.creation_time desc")
+    @Query("select m from Messages m where m.chatRoom.id=:chatRoomId order by m.id desc")
     List<Messages> findAllByChatRoom(@Param("chatRoomId")Long chatRoomId);
 
 
-    // 메세지 아이디가 특정넘버 이상인 메세지들 가져오기
-    List<Messages> findByChatRoomIdAndIdGreaterThan(Long chatRoomId, Long messageId);
+    // 특정 roomId에서 특정 MessageId 보다 작은 MessageId 를 가진 메세지들 가져오기 (keyset 페이징, 커서 메세지는 포함하지 않음)
+    // (chatroom_id, message_id) 인덱스를 역순으로 읽는다.
+    @Query("SELECT m FROM Messages m WHERE m.chatRoom.id = :chatRoomId AND m.id < :messageId ORDER BY m.id DESC")
+    List<Messages> findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(Long chatRoomId, Long messageId, Pageable pageable);
 
 
-    // 특정 roomId에서 특정 MessageId 보다 작은 MessageId 를 가진 메세지들 가져오기
-    @Query("SELECT m FROM Messages m WHERE m.chatRoom.id = :chatRoomId AND m.id <= :messageId ORDER BY m.id DESC")
-    List<Messages> findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(Long chatRoomId, Long messageId, Pageable pageable);
+    // 특정 roomId에서 특정 MessageId 보다 큰 MessageId 를 가진 메세지들 가져오기 (재연결 catch-up, 오래된 순)
+    @Query("SELECT m FROM Messages m WHERE m.chatRoom.id = :chatRoomId AND m.id > :messageId ORDER BY m.id ASC")
+    List<Messages> findByChatRoomIdAndMessageIdGreaterThanOrderedByMessageIdAsc(Long chatRoomId, Long messageId, Pageable pageable);
+
 
 }
@@ -0,0 +1,34 @@
+package sync.slamtalk.chat.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import sync.slamtalk.chat.redis.ReadIndexStore.ReadIndex;
+
+import java.util.List;
+
+/**
+ * user_chatroom 의 readIndex 를 JDBC batch update 로 반영하는 레포지토리
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserChatRoomJdbcRepository {
+
+    // readIndex 갱신 (이미 더 최근 메세지까지 읽었으면 갱신하지 않음)
+    private static final String UPDATE_READ_INDEX_SQL =
+            "update user_chatroom set read_index = ? " +
+            "where user_id = ? and chatroom_id = ? and (read_index is null or read_index < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void batchUpdateReadIndex(List<ReadIndex> readIndexes) {
+        jdbcTemplate.batchUpdate(UPDATE_READ_INDEX_SQL, readIndexes, readIndexes.size(), (ps, readIndex) -> {
+            ps.setLong(1, readIndex.messageId());
+            ps.setLong(2, readIndex.userId());
+            ps.setLong(3, readIndex.roomId());
+            ps.setLong(4, readIndex.messageId());
+        });
+    }
+}
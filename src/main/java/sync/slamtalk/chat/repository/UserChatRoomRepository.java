@@ -24,6 +24,19 @@ public interface UserChatRoomRepository extends JpaRepository<UserChatRoom, Long
     Optional<UserChatRoom>findByUserChatroom(Long userId, Long roomId);
 
 
+    // 특정 userId 와 특정 roomId 의 userChatRoom 존재 여부 (엔티티를 로딩하지 않음, 나간 채팅방은 제외)
+    @Query("select count(m) > 0 from UserChatRoom m where m.user.id=:userId and m.chat.id=:roomId and m.isDeleted = false")
+    boolean existsByUserChatroom(Long userId, Long roomId);
+
+
+    // 두 유저가 함께 참여 중인 채팅방이 있는지 (나간 채팅방은 제외)
+    // userId 의 채팅방마다 (user_id, chatroom_id) unique 인덱스로 otherUserId 를 찾는다.
+    @Query("select count(m) > 0 from UserChatRoom m, UserChatRoom o " +
+            "where m.user.id=:userId and m.isDeleted = false " +
+            "and o.user.id=:otherUserId and o.chat.id = m.chat.id and o.isDeleted = false")
+    boolean existsSharedChatroom(Long userId, Long otherUserId);
+
+
     // 특정 chatRoomName , 특정 chatRoomType 으로 검색
     @Query("select m from UserChatRoom m where m.user.id=:userId and m.chat.name=:roomName and m.chat.roomType=:roomType")
     List<UserChatRoom>findByUserChatroomExist(Long userId, String roomName, RoomType roomType);
@@ -45,4 +58,17 @@ public interface UserChatRoomRepository extends JpaRepository<UserChatRoom, Long
 
     // TogetherId로 UserChatRoom 검색
     Optional<UserChatRoom> findByTogetherId(Long togetherId);
+
+
+    // 유저의 채팅 리스트 (채팅방 + 1:1 상대방 + 마지막 메세지) 를 한 번에 조회
+    // 마지막 메세지 시간이 최근인 순서, 메세지가 없는 방은 마지막
+    @Query("select new sync.slamtalk.chat.repository.ChatRoomListRow(" +
+            "c.id, ucr.roomType, c.name, c.basketBallId, ucr.togetherId, ucr.teamMatchingId, " +
+            "p.id, p.nickname, p.imageUrl, c.lastMessageId, c.lastMessagePreview, c.lastActivityAt) " +
+            "from UserChatRoom ucr " +
+            "join ucr.chat c " +
+            "left join User p on ucr.roomType = sync.slamtalk.chat.entity.RoomType.DIRECT and p.id = ucr.directId " +
+            "where ucr.user.id = :userId and ucr.isDeleted = false " +
+            "order by c.lastActivityAt desc nulls last, c.id desc")
+    List<ChatRoomListRow> findChatRoomList(@Param("userId") Long userId);
 }
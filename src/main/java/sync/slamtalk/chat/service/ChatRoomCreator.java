@@ -0,0 +1,99 @@
+package sync.slamtalk.chat.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import sync.slamtalk.chat.dto.ChatErrorResponseCode;
+import sync.slamtalk.chat.dto.Request.ChatCreateDTO;
+import sync.slamtalk.chat.entity.ChatRoom;
+import sync.slamtalk.chat.entity.RoomType;
+import sync.slamtalk.chat.entity.UserChatRoom;
+import sync.slamtalk.chat.repository.ChatRoomRepository;
+import sync.slamtalk.chat.repository.UserChatRoomRepository;
+import sync.slamtalk.common.BaseException;
+import sync.slamtalk.user.UserRepository;
+import sync.slamtalk.user.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 채팅방과 참여자(UserChatRoom)를 하나의 트랜잭션으로 생성
+ *
+ * - 참여자는 findAllById 한 번으로 조회하고, UserChatRoom 은 saveAll 로 JDBC batch insert 한다. (Snowflake 아이디)
+ * - 1:1 채팅방은 directKey unique 제약으로 같은 두 유저의 채팅방이 동시에 만들어지는 것을 막는다.
+ *   제약에 걸리면 DataIntegrityViolationException 이 발생하고 트랜잭션은 롤백된다. (호출하는 쪽에서 기존 채팅방 조회)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatRoomCreator {
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final UserChatRoomRepository userChatRoomRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * 채팅방 생성
+     *
+     * @param chatCreateDTO 채팅방 생성 요청
+     * @param roomType      채팅방 타입
+     * @return 생성된 채팅방
+     */
+    @Transactional
+    public ChatRoom create(ChatCreateDTO chatCreateDTO, RoomType roomType) {
+        List<Long> participantIds = chatCreateDTO.getParticipants().stream().distinct().toList();
+
+        // 참여자 한번에 조회
+        Map<Long, User> users = userRepository.findAllById(participantIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        if (users.size() != participantIds.size()) {
+            throw new BaseException(ChatErrorResponseCode.CHAT_TARGET_NOT_FOUND);
+        }
+
+        // 1:1 채팅방은 참여자가 나간 이전 채팅방의 directKey 해제 후 생성
+        String directKey = null;
+        if (roomType.equals(RoomType.DIRECT)) {
+            directKey = ChatRoom.directKeyOf(participantIds.get(0), participantIds.get(1));
+            chatRoomRepository.releaseDirectKey(directKey);
+        }
+
+        ChatRoom saved = chatRoomRepository.save(ChatRoom.builder()
+                .roomType(roomType)
+                .togetherId(chatCreateDTO.getTogether_id())
+                .teamMatchingId(chatCreateDTO.getTeamMatching_id())
+                .name(chatCreateDTO.getName())
+                .directKey(directKey)
+                .build());
+
+        // 1:1, 팀매칭은 서로를 상대방으로 저장
+        boolean hasPartner = participantIds.size() == 2
+                && (roomType.equals(RoomType.DIRECT) || roomType.equals(RoomType.MATCHING));
+
+        List<UserChatRoom> userChatRooms = new ArrayList<>(participantIds.size());
+        for (int i = 0; i < participantIds.size(); i++) {
+            UserChatRoom userChatRoom = UserChatRoom.builder()
+                    .user(users.get(participantIds.get(i)))
+                    .isFirst(true)
+                    .roomType(roomType)
+                    .readIndex(0L)
+                    .chat(saved)
+                    .name(chatCreateDTO.getName())
+                    .togetherId(chatCreateDTO.getTogether_id())
+                    .teamMatchingId(chatCreateDTO.getTeamMatching_id())
+                    .build();
+            if (hasPartner) {
+                userChatRoom.setDirectId(participantIds.get(1 - i));
+            }
+            userChatRooms.add(userChatRoom);
+        }
+        userChatRoomRepository.saveAll(userChatRooms);
+        log.debug("채팅방 생성 완료 : {}, 참여자 {}명", saved.getId(), userChatRooms.size());
+
+        return saved;
+    }
+}
@@ -2,12 +2,13 @@ package sync.slamtalk.chat.service;
 
 import sync.slamtalk.chat.dto.Request.ChatCreateDTO;
 import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.dto.Response.ChatResumeDTO;
 import sync.slamtalk.chat.dto.Response.ChatRoomDTO;
 import sync.slamtalk.chat.entity.ChatRoom;
-import sync.slamtalk.chat.entity.Messages;
 import sync.slamtalk.chat.entity.UserChatRoom;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ChatService {
@@ -37,23 +38,36 @@ public interface ChatService {
     void saveReadIndex(Long userId,Long chatRoomId,Long readIndex);
 
 
-    // 특정 방에서 주고 받은 모든 메세지 가져오기
-    // 페이징 방식에 의존
-    //      1. 사용자가 입장한 시점의 채팅방 메세지부터 모두 내려주기
-    //      2. 사용자가 마지막으로 읽은 메세지 이후부터 내려주기
-    List<ChatMessageDTO> getChatMessages(Long chatRoomId, Long messageId);
+    // 사용자가 마지막으로 읽은 메세지 아이디 (DB 에 아직 반영되지 않은 값 포함)
+    Long getReadIndex(Long userId, Long chatRoomId, Long savedReadIndex);
 
 
-    // 과거 내역 요청
-    List<ChatMessageDTO> getPreviousChatMessages(Long userId, Long chatRoomId,int count);
+    // 두 유저가 함께 참여 중인 채팅방이 있는지 (자기 자신은 항상 true)
+    boolean isSharingChatRoom(Long userId, Long otherUserId);
+
+
+    // 특정 방에서 사용자가 마지막으로 읽은 메세지 이후 메세지 가져오기 (최근 메세지 최대 RESUME_BATCH_SIZE 개)
+    List<ChatMessageDTO> getChatMessages(Long chatRoomId, Long readIndex);
+
+
+    // 특정 방에서 lastSeenMessageId 이후 메세지 한 배치 (놓친 메세지가 너무 많으면 gapTooLarge)
+    ChatResumeDTO resumeRoom(Long chatRoomId, long lastSeenMessageId);
+
+
+    // 재연결 catch-up (채팅방별 마지막으로 받은 메세지 아이디 이후 메세지를 한 배치씩)
+    List<ChatResumeDTO> resume(Long userId, Map<Long, Long> lastSeenByRoom);
+
+
+    // 과거 내역 요청 (beforeMessageId 보다 작은 아이디의 메세지를 최신순으로 limit 개)
+    List<ChatMessageDTO> getPreviousChatMessages(Long userId, Long chatRoomId, Long beforeMessageId, Integer limit);
 
 
     // 사용자 채팅리스트 가져오기
     List<ChatRoomDTO> getChatLIst(Long userId);
 
 
-    // 특정방의 가장 마지막 메세지 가져오기
-    Messages getLastMessageFromChatRoom(Long chatRoomId);
+    // 특정방의 가장 마지막 메세지 아이디 가져오기
+    Optional<Long> getLastMessageIdFromChatRoom(Long chatRoomId);
 
 
     // 특정방을 나갈 때 userChatRoom softDelete
@@ -64,7 +78,4 @@ public interface ChatService {
     Optional<Boolean> isVisitedFirst(Long userId, Long roomId);
 
 
-    // Redis 조회 후 DB 조회
-    Optional<List<ChatMessageDTO>> redisFirstDataBaseLater(Long userId,Long chatRoomId,int count);
-
 }
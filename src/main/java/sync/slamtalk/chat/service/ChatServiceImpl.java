@@ -2,22 +2,28 @@ package sync.slamtalk.chat.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
+import sync.slamtalk.chat.archive.ArchivedMessage;
+import sync.slamtalk.chat.archive.MessageArchive;
+import sync.slamtalk.chat.cache.ChatAuthorizationCache;
 import sync.slamtalk.chat.dto.ChatErrorResponseCode;
 import sync.slamtalk.chat.dto.Request.ChatCreateDTO;
 import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.dto.Response.ChatResumeDTO;
 import sync.slamtalk.chat.dto.Response.ChatRoomDTO;
 import sync.slamtalk.chat.entity.ChatRoom;
 import sync.slamtalk.chat.entity.Messages;
 import sync.slamtalk.chat.entity.RoomType;
 import sync.slamtalk.chat.entity.UserChatRoom;
+import sync.slamtalk.chat.redis.ReadIndexStore;
 import sync.slamtalk.chat.redis.RedisService;
+import sync.slamtalk.chat.redis.UnreadCountStore;
+import sync.slamtalk.chat.repository.ChatRoomListRow;
 import sync.slamtalk.chat.repository.ChatRoomRepository;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
 import sync.slamtalk.chat.repository.MessagesRepository;
 import sync.slamtalk.chat.repository.UserChatRoomRepository;
 import sync.slamtalk.common.BaseException;
@@ -25,12 +31,16 @@ import sync.slamtalk.common.ErrorResponseCode;
 import sync.slamtalk.map.entity.BasketballCourt;
 import sync.slamtalk.map.repository.BasketballCourtRepository;
 import sync.slamtalk.user.UserRepository;
+import sync.slamtalk.user.cache.SenderProfile;
+import sync.slamtalk.user.cache.SenderProfileCache;
 import sync.slamtalk.user.entity.User;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Service
@@ -43,12 +53,32 @@ public class ChatServiceImpl implements ChatService{
     private final UserRepository userRepository;
     private final BasketballCourtRepository basketballCourtRepository;
     private final RedisService redisService;
+    private final SenderProfileCache senderProfileCache;
+    private final MessageIdGenerator messageIdGenerator;
+    private final MessageWriteBehindQueue messageWriteBehindQueue;
+    private final ChatAuthorizationCache chatAuthorizationCache;
+    private final UnreadCountStore unreadCountStore;
+    private final ChatRoomCreator chatRoomCreator;
+    private final MessageArchive messageArchive;
+    private final MessagesJdbcRepository messagesJdbcRepository;
+    private final ReadIndexStore readIndexStore;
+
+    // 과거 내역 한 페이지 기본/최대 메세지 갯수
+    private static final int HISTORY_PAGE_SIZE = 20;
+    private static final int HISTORY_MAX_PAGE_SIZE = 100;
+
+    // 재연결 catch-up 한 배치 메세지 갯수 / 최대로 이어받을 메세지 갯수 / 한 번에 처리할 채팅방 수
+    private static final int RESUME_BATCH_SIZE = 50;
+    private static final int RESUME_MAX_MESSAGES = 300;
+    private static final int RESUME_MAX_ROOMS = 50;
 
     // 채팅방 생성
     // * 생성시점에 userChatRoom 에 추가됨 *
+    // 1. 이미 있는 채팅방이면 기존 채팅방 반환 (1:1 은 directKey, 같이하기/팀매칭은 게시글 아이디)
+    // 2. 채팅방과 참여자를 하나의 트랜잭션으로 생성 (ChatRoomCreator)
+    // 3. 동시에 같은 채팅방이 만들어져 unique 제약에 걸리면 먼저 만들어진 채팅방 반환
     @Override
     public long createChatRoom(ChatCreateDTO chatCreateDTO) {
-        long roomNum = 0L;
         RoomType roomType = RoomType.DIRECT;
 
         switch (chatCreateDTO.getRoomType()){
@@ -59,98 +89,55 @@ public class ChatServiceImpl implements ChatService{
             break;
         }
 
-        // DM
-        if(roomType.equals(RoomType.DIRECT)){
-            List<Long> participants = chatCreateDTO.getParticipants();
-            Long userA = participants.get(0);
-            Long userB = participants.get(1);
-
-            Optional<UserChatRoom> optionalChatRoom_1 = userChatRoomRepository.findByDirectId(userA, userB);
-            Optional<UserChatRoom> optionalChatRoom_2 = userChatRoomRepository.findByDirectId(userB, userA);
-
-            if(optionalChatRoom_1.isPresent() && optionalChatRoom_2.isPresent()){
-                // A유저의 채팅방 중 roomType = DIRECT && directId 가 B유저
-                // B유저의 채팅방 중 roomType = DIRECT && directId 가 A유저
-
-                // A 유저, B 유저 모두 삭제 하지 않은 경우
-                if(!optionalChatRoom_1.get().getIsDeleted() && !optionalChatRoom_2.get().getIsDeleted()){
-                    // A유저 B유저 모두 동일한 채팅방 아이디를 가지고 있을 것이기 때문
-                    return optionalChatRoom_1.get().getChat().getId();
-                }
-                // A 유저, B 유저 둘 중 하나라도 삭제한 경우 새로 생성
-
-            }
-
-        }
-
-        // TM,MM 은 id 로 검사
-        if(roomType.equals(RoomType.TOGETHER)){
-            Long togetherId = chatCreateDTO.getTogether_id();
-            Optional<ChatRoom> optionalChatRoom = chatRoomRepository.findByTogetherId(chatCreateDTO.getTogether_id());
-
-            // 채팅방에 해당하는 팀매칭 아이디 채팅방이 존재한다면 기존에 채팅방 정보 반환
-            // 새로 생성 x
-            if(optionalChatRoom.isPresent()) {
-                return optionalChatRoom.get().getId();
-            }
+        // 1:1 채팅방은 서로 다른 두 유저만 가능
+        if(roomType.equals(RoomType.DIRECT)
+                && chatCreateDTO.getParticipants().stream().distinct().count() != 2){
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
         }
 
-        if(roomType.equals(RoomType.MATCHING)){
-            Long teamMatchingId = chatCreateDTO.getTeamMatching_id();
-            Optional<ChatRoom> optionalChatRoom = chatRoomRepository.findByTeamMatchingId(chatCreateDTO.getTeamMatching_id());
-
-            // 채팅방에 존재한다면 새로 생성 x
-            if(optionalChatRoom.isPresent()){
-                return optionalChatRoom.get().getId();
-            }
+        Optional<ChatRoom> existChatRoom = findExistChatRoom(chatCreateDTO, roomType);
+        if(existChatRoom.isPresent()){
+            return existChatRoom.get().getId();
         }
 
-
         // 위에서 종료되지 않았으면 새로 생성
-        // 채팅방 생성
-        ChatRoom chatRoom = ChatRoom.builder()
-                .roomType(roomType)
-                .togetherId(chatCreateDTO.getTogether_id())
-                .teamMatchingId(chatCreateDTO.getTeamMatching_id())
-                .name(chatCreateDTO.getName())
-                .build();
-
-        ChatRoom saved = chatRoomRepository.save(chatRoom);
-        roomNum = saved.getId();
+        ChatRoom saved;
+        try {
+            saved = chatRoomCreator.create(chatCreateDTO, roomType);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("동시에 생성된 채팅방 반환 : {}", e.getMessage());
+            return findExistChatRoom(chatCreateDTO, roomType)
+                    .map(ChatRoom::getId)
+                    .orElseThrow(() -> e);
+        }
 
-        // direct 상대방 아이디
-        List<Long> participants = chatCreateDTO.getParticipants();
-        Long userA = participants.get(0);
-        Long userB = participants.get(1);
-        List<Long> directs = new ArrayList<>();
-        directs.add(userA);
-        directs.add(userB);
+        long roomNum = saved.getId();
+        List<Long> participants = chatCreateDTO.getParticipants().stream().distinct().toList();
+        chatAuthorizationCache.evictRoom(roomNum);
+        for(Long user : participants){
+            chatAuthorizationCache.evictMembership(user, roomNum);
+        }
+        unreadCountStore.markReadAll(participants, roomNum);
 
-        int dIndex = 1;
-        for(Long user : chatCreateDTO.getParticipants()){
+        return roomNum;
+    }
 
-            Optional<User> optionalUser = userRepository.findById(user);
 
-            // UserChatRoom 생성
-            UserChatRoom userChatRoom = UserChatRoom.builder()
-                    .user(optionalUser.get())
-                    .isFirst(true)
-                    .roomType(roomType)
-                    .readIndex(0L)
-                    .chat(saved)
-                    .name(chatCreateDTO.getName())
-                    .togetherId(chatCreateDTO.getTogether_id())
-                    .teamMatchingId(chatCreateDTO.getTeamMatching_id())
-                    .build();
-
-            if(roomType.equals(RoomType.DIRECT) || roomType.equals(RoomType.MATCHING)){
-                userChatRoom.setDirectId(directs.get(dIndex--));
-            }
-            UserChatRoom savedUserChatRoom = userChatRoomRepository.save(userChatRoom);
-            log.debug("userChatRoom 저장 완료 : {}", savedUserChatRoom.getChat().getId());
+    // 이미 있는 채팅방
+    // DM : 두 유저 모두 나가지 않은 채팅방 (한명이라도 나갔으면 새로 생성)
+    // TM, MM : 게시글 아이디로 검사
+    private Optional<ChatRoom> findExistChatRoom(ChatCreateDTO chatCreateDTO, RoomType roomType){
+        if(roomType.equals(RoomType.DIRECT)){
+            List<Long> participants = chatCreateDTO.getParticipants().stream().distinct().toList();
+            return chatRoomRepository.findActiveDirectRoom(ChatRoom.directKeyOf(participants.get(0), participants.get(1)));
         }
-
-        return roomNum;
+        if(roomType.equals(RoomType.TOGETHER)){
+            return chatRoomRepository.findByTogetherId(chatCreateDTO.getTogether_id());
+        }
+        if(roomType.equals(RoomType.MATCHING)){
+            return chatRoomRepository.findByTeamMatchingId(chatCreateDTO.getTeamMatching_id());
+        }
+        return Optional.empty();
     }
 
 
@@ -163,6 +150,7 @@ public class ChatServiceImpl implements ChatService{
                 .basketBallId(chatCreateDTO.getBasket_ball_id())
                 .build();
         ChatRoom saved = chatRoomRepository.save(chatRoom);
+        chatAuthorizationCache.evictRoom(saved.getId());
 
         // 농구장에 채팅방 연결
         Optional<BasketballCourt> optionalBasketballCourt = basketballCourtRepository.findById(chatCreateDTO.getBasket_ball_id());
@@ -175,33 +163,23 @@ public class ChatServiceImpl implements ChatService{
 
 
     // 채팅방에 메세지 저장(STOMP: SEND)
+    // 채팅방 존재 여부는 ChatInboundInterceptor 에서 이미 검증됨
+    // 1. 메세지 아이디 선발급
+    // 2. DB 저장은 write-behind 큐에 맡기고 바로 반환 (MySQL 커밋을 기다리지 않음)
+    // 3. redis 저장
+    // 4. 안 읽은 메세지 수 증가 (보낸 사람은 읽음 처리)
     @Override
     public void saveMessage(ChatMessageDTO chatMessageDTO) {
-        long chatRoomId = Long.parseLong(chatMessageDTO.getRoomId());
-        Optional<ChatRoom> chatRoom = chatRoomRepository.findById(chatRoomId);
-        if(chatRoom.isPresent()){ // chatRoom 이 존재하면
-
-            ChatRoom Room = chatRoom.get();
-
-            // messages 저장
-            // Message create
-            Messages messages = Messages.builder()
-                    .chatRoom(Room)
-                    .senderId(chatMessageDTO.getSenderId())
-                    .senderNickname(chatMessageDTO.getSenderNickname())
-                    .content(chatMessageDTO.getContent())
-                    .creation_time(chatMessageDTO.getTimestamp().toString())
-                    .build();
-            messagesRepository.save(messages);
+        chatMessageDTO.setMessageId(String.valueOf(messageIdGenerator.nextId(Long.parseLong(chatMessageDTO.getRoomId()))));
 
-            chatMessageDTO.setMessageId(messages.getId().toString());
+        // messages 저장 (batch insert)
+        messageWriteBehindQueue.enqueue(chatMessageDTO);
 
-            // redis 먼저 저장
-            redisService.saveMessage(chatMessageDTO,43200);
+        // redis 저장
+        redisService.saveMessage(chatMessageDTO);
 
-        }else{
-            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
-        }
+        // 안 읽은 메세지 수
+        unreadCountStore.onMessage(Long.parseLong(chatMessageDTO.getRoomId()), chatMessageDTO.getSenderId());
     }
 
 
@@ -228,274 +206,326 @@ public class ChatServiceImpl implements ChatService{
     }
 
 
+    // 두 유저가 함께 참여 중인 채팅방이 있는지 확인 (접속 상태 조회 권한)
+    @Override
+    public boolean isSharingChatRoom(Long userId, Long otherUserId) {
+        if (userId.equals(otherUserId)) {
+            return true;
+        }
+        return userChatRoomRepository.existsSharedChatroom(userId, otherUserId);
+    }
+
+
     // 채팅리스트 가져오기
+    // 채팅방, 1:1 상대방 프로필, 마지막 메세지를 한 번의 쿼리로 가져옴 (최근 메세지 순)
+    // 안 읽은 메세지 수는 redis 에서 한 번에 가져옴
     @Override
     public List<ChatRoomDTO> getChatLIst(Long userId) {
-        List<ChatRoomDTO> chatRooms = new ArrayList<>();
 
-        // 유저가 가지고 있는 채팅방 모두 가져오기
+        // 유저가 가지고 있는 삭제되지 않은 채팅방 모두 가져오기
         log.debug("userId:{}",userId);
-        List<UserChatRoom> chatRoom = userChatRoomRepository.findByUser_Id(userId);
-        if(chatRoom.isEmpty()){
+        List<ChatRoomListRow> rows = userChatRoomRepository.findChatRoomList(userId);
+        if(rows.isEmpty()){
             log.debug("유저가 가지고 있는 채팅방이 없습니다.");
             return null;
         }
 
+        // 채팅방별 안 읽은 메세지 수
+        Map<Long, Long> unreadCounts = unreadCountStore.unreadCounts(userId,
+                rows.stream().map(ChatRoomListRow::roomId).toList());
 
-        // 유저가 가지고 있는 채팅방 리스트를 돌면서 가져오기
-        for(UserChatRoom ucr : chatRoom){
-
-            boolean isDelete = ucr.getIsDeleted().booleanValue();
-
-            // 삭제 되지 않은 채팅방만 가져옴
-            if(isDelete==false){
-
-                String profile = null;
-                ChatRoomDTO dto = ChatRoomDTO.builder()
-                        .roomId(ucr.getId().toString())
-                        .roomType(ucr.getRoomType().toString())
-                        .imgUrl(profile)
-                        .name(ucr.getChat().getName())
-                        .roomId(ucr.getChat().getId().toString())
-                        .build();
-
-                // 1:1 인 경우 상대방 프로필
-                // 1:1 만 상대방 프로필 나머지(같이하기, 농구장은 디폴트 프로필)
-                if(ucr.getRoomType().equals(RoomType.DIRECT)){
-                    List<UserChatRoom> optionalList = userChatRoomRepository.findByChat_Id(ucr.getChat().getId());
+        List<ChatRoomDTO> chatRooms = new ArrayList<>();
+        for(ChatRoomListRow row : rows){
+            ChatRoomDTO dto = ChatRoomDTO.builder()
+                    .roomId(row.roomId().toString())
+                    .roomType(row.roomType().toString())
+                    .name(row.name())
+                    .build();
 
-                    if(optionalList.isEmpty()){
-                        log.debug("1:1인데 가져온 채팅방 아이디 조회했을 때 가져온게 없음 : {}",ucr.getChat().getId());
-                    }
+            // 1:1 인 경우 상대방 프로필
+            // 1:1 만 상대방 프로필 나머지(같이하기, 농구장은 디폴트 프로필)
+            if(row.roomType().equals(RoomType.DIRECT) && row.partnerId() != null){
+                dto.updateImgUrl(row.partnerImageUrl());
+                dto.updateName(row.partnerNickname());
+                dto.updatePartnerId(row.partnerId().toString());
+            }
 
-                    for(UserChatRoom x : optionalList){
-                        if(x.getUser().getId().equals(userId) && x.getIsDeleted().equals(Boolean.FALSE)){ //&& !x.getUser().getId().equals(userId)
-                            // 유저 가지고 있는 것중 삭제되지 않은 채팅방
+            // 팀매칭 게시판 아이디
+            if(row.roomType().equals(RoomType.MATCHING) && row.teamMatchingId() != null){
+                dto.updatePartnerId(row.teamMatchingId().toString());
+            }
 
-                            // directId 는 상대방의 아이디
-                            Long directId = x.getDirectId();
-                            Optional<User> optionalUser = userRepository.findById(directId);
+            // 같이하기 게시판 아이디
+            if(row.roomType().equals(RoomType.TOGETHER) && row.togetherId() != null){
+                dto.updatePartnerId(row.togetherId().toString());
+            }
 
-                            log.debug("현재 유저 : {}, 가져오려는 방 : {}",userId,directId);
+            // 농구장 아이디
+            if(row.roomType().equals(RoomType.BASKETBALL)){
+                dto.updatecourtId(row.basketBallId());
+            }
 
+            // 마지막 메세지
+            if(row.lastMessageId() != null){
+                dto.setLast_message(row.lastMessageContent());
+            }
+            if(row.lastMessageId() == null){
+                dto.setLast_message("주고 받은 메세지가 없습니다.");
+            }
 
-                            // 상대방의 이미지, 상대방 이름, 상대방 아이디 저장
-                            if(optionalUser.isPresent()){
-                                profile = optionalUser.get().getImageUrl();
-                                dto.updateImgUrl(profile);
-                                dto.updateName(optionalUser.get().getNickname());
-                                dto.updatePartnerId(optionalUser.get().getId().toString());
-                            }
-                        }
-                    }
-                }
+            // 안 읽은 메세지 수
+            dto.updateUnreadCount(unreadCounts.getOrDefault(row.roomId(), 0L));
+            chatRooms.add(dto);
+        }
+        return chatRooms;
+    }
 
-                // 팀매칭 게시판 아이디
-                if(ucr.getRoomType().equals(RoomType.MATCHING)){
-                    dto.updatePartnerId(ucr.getTeamMatchingId().toString());
-                }
 
-                // 같이하기 게시판 아이디
-                if(ucr.getRoomType().equals(RoomType.TOGETHER)){
-                    dto.updatePartnerId(ucr.getTogetherId().toString());
-                }
+    // 특정 방에서 마지막으로 읽은 메세지 이후 메세지 가져오기 (채팅방 재입장 /api/chat/participation)
+    // 안 읽은 메세지가 많아도 최근 RESUME_BATCH_SIZE 개까지만 오래된 순으로 (그 이전은 과거 내역으로 조회)
+    // 1. redis 채팅방 인덱스에서 최근 메세지부터 조회 (write-behind 로 아직 DB 에 없는 메세지 포함)
+    // 2. 마지막으로 읽은 메세지까지 닿지 않았으면 모자란 만큼 redis 에서 가져온 가장 오래된 메세지 이전부터 DB 조회
+    @Override
+    public List<ChatMessageDTO> getChatMessages(Long chatRoomId, Long readIndex) {
+        long after = readIndex == null ? 0L : readIndex;
 
-                // 농구장 아이디
-                if(ucr.getRoomType().equals(RoomType.BASKETBALL)){
-                    dto.updatecourtId(ucr.getChat().getBasketBallId());
-                }
+        // redis 먼저 조회
+        List<ChatMessageDTO> newMessages = new ArrayList<>();
+        boolean reachedReadIndex = false;
+        for (ChatMessageDTO m : redisService.getMessagesBefore(chatRoomId, Long.MAX_VALUE, RESUME_BATCH_SIZE)) {
+            if (Long.parseLong(m.getMessageId()) <= after) {
+                reachedReadIndex = true;
+                break;
+            }
+            newMessages.add(m);
+        }
 
+        // 모자란 만큼 DB 조회
+        if (!reachedReadIndex && newMessages.size() < RESUME_BATCH_SIZE) {
+            long cursor = newMessages.isEmpty()
+                    ? Long.MAX_VALUE
+                    : Long.parseLong(newMessages.get(newMessages.size() - 1).getMessageId());
+            Pageable pageable = PageRequest.of(0, RESUME_BATCH_SIZE - newMessages.size());
+            List<Messages> messagesList = messagesRepository
+                    .findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(chatRoomId, cursor, pageable)
+                    .stream()
+                    .filter(m -> m.getId() > after)
+                    .toList();
+
+            // 작성자 프로필 한번에 가져오기
+            Map<Long, SenderProfile> profiles = senderProfileCache.getAll(senderIdsOf(messagesList));
+            for (Messages m : messagesList) {
+                newMessages.add(toChatMessageDTO(m, profiles));
+            }
+        }
 
-                // 마지막 메세지
-                PageRequest pageRequest = PageRequest.of(0, 1);
-                Page<Messages> latestByChatRoomId = messagesRepository.findLatestByChatRoomId(ucr.getChat().getId(), pageRequest);
-                if(latestByChatRoomId.hasContent()){
-                    Stream<Messages> messagesStream = latestByChatRoomId.get();
-                    Messages messages = messagesStream.collect(Collectors.toList()).get(0);
+        Collections.reverse(newMessages);
+        for (ChatMessageDTO messageDTO : newMessages) {
+            // 작성자 이미지가 없으면 "null"
+            if (messageDTO.getImgUrl() == null) {
+                messageDTO.setImgUrl("null");
+            }
+        }
+        return newMessages;
+    }
 
-                    dto.setLast_message(messages.getContent());
-                    chatRooms.add(dto);
-                }
-                if(latestByChatRoomId.isEmpty()){
-                    dto.setLast_message("주고 받은 메세지가 없습니다.");
-                    chatRooms.add(dto);
-                }
 
+    // 재연결 catch-up
+    // 클라이언트가 보낸 채팅방별 마지막으로 받은 메세지 아이디 이후 메세지를 채팅방마다 한 배치(RESUME_BATCH_SIZE)씩 내려준다.
+    // 1. 참여하고 있지 않은 채팅방은 건너뜀
+    // 2. 놓친 메세지가 RESUME_MAX_MESSAGES 개를 넘으면 메세지 없이 gapTooLarge (과거 내역으로 조회)
+    // 3. 남은 메세지가 있으면 hasMore (마지막 메세지 아이디로 다시 resume)
+    // 채팅방마다 레포지토리 조회가 각자 짧게 읽도록 전체를 트랜잭션으로 묶지 않는다.
+    @Override
+    public List<ChatResumeDTO> resume(Long userId, Map<Long, Long> lastSeenByRoom) {
+        List<ChatResumeDTO> result = new ArrayList<>();
+        for(Map.Entry<Long, Long> lastSeen : lastSeenByRoom.entrySet()){
+            if(result.size() >= RESUME_MAX_ROOMS){
+                break;
             }
+            if(!chatAuthorizationCache.isMember(userId, lastSeen.getKey())){
+                log.debug("참여하고 있지 않은 채팅방 resume roomId:{}", lastSeen.getKey());
+                continue;
+            }
+            result.add(resumeRoom(lastSeen.getKey(), lastSeen.getValue()));
         }
-        return chatRooms;
+        return result;
     }
 
 
-    // 특정 방에서 주고 받은 모든 메세지 가져오기
+    // 채팅방 하나 catch-up (재연결 resume /pub/chat/resume)
+    // 1. redis 채팅방 인덱스가 커서까지 이어져 있으면 redis 에서 바로 조회 (ZCOUNT + ZRANGEBYSCORE ... LIMIT)
+    // 2. 아니면 DB 에서 커서 이후 메세지 수를 RESUME_MAX_MESSAGES 개까지만 세고 keyset 으로 한 배치 조회
+    // 3. 아직 DB 에 반영되지 않은 메세지(write-behind)는 redis 에서 이어서 채움
     @Override
-    @Transactional
-    public List<ChatMessageDTO> getChatMessages(Long chatRoomId, Long messageId) {
-        List<ChatMessageDTO> ansList = new ArrayList<>();
-
-        // 특정 방 메세지 중 현재 messageId 보다 큰 Id값을 가진 메세지들 가져오기
-        List<Messages> newMessages = messagesRepository.findByChatRoomIdAndIdGreaterThan(chatRoomId, messageId);
-
-
-        // messageRepository 에서 가져온 메세지로 dto 생성하기
-        for(Messages m : newMessages){
-
-            // 작성자 이미지 가져오기
-            Long senderId = m.getSenderId();
-            Optional<User> optionalUser = userRepository.findById(senderId);
-            String imageUrl = "";
-            if(optionalUser.isPresent()){
-                User user = optionalUser.get();
-                imageUrl = user.getImageUrl();
-            }else{
-                imageUrl = "null";
+    public ChatResumeDTO resumeRoom(Long chatRoomId, long lastSeenMessageId) {
+
+        // redis 먼저 조회 (메세지 hash 는 오래된 것부터 만료되므로 첫 메세지가 있으면 이후도 모두 있음)
+        long cached = redisService.countMessagesAfter(chatRoomId, lastSeenMessageId);
+        if (cached > RESUME_MAX_MESSAGES) {
+            return new ChatResumeDTO(chatRoomId, List.of(), false, true);
+        }
+        if (cached >= 0) {
+            List<ChatMessageDTO> messages = redisService.getMessagesAfter(chatRoomId, lastSeenMessageId, RESUME_BATCH_SIZE + 1);
+            if (!messages.isEmpty()) {
+                return resumeBatch(chatRoomId, messages);
             }
-            ChatMessageDTO messageDTO = ChatMessageDTO.builder()
-                    .messageId(m.getId().toString())
-                    .roomId(m.getChatRoom().getId().toString())
-                    .senderId(m.getSenderId())
-                    .senderNickname(m.getSenderNickname())
-                    .imgUrl(imageUrl)
-                    .content(m.getContent())
-                    .timestamp(m.getCreation_time())
-                    .build();
-            ansList.add(messageDTO);
+        }
 
-            // Redis 캐싱
-            redisService.saveMessage(messageDTO,43200); // 12시간
-            log.debug("redis 캐싱 다음줄");
+        // DB 조회 (세는 것도 RESUME_MAX_MESSAGES 개까지만)
+        if (messagesJdbcRepository.countMessagesAfter(chatRoomId, lastSeenMessageId, RESUME_MAX_MESSAGES + 1) > RESUME_MAX_MESSAGES) {
+            return new ChatResumeDTO(chatRoomId, List.of(), false, true);
+        }
+        Pageable pageable = PageRequest.of(0, RESUME_BATCH_SIZE + 1);
+        List<Messages> messagesList = messagesRepository
+                .findByChatRoomIdAndMessageIdGreaterThanOrderedByMessageIdAsc(chatRoomId, lastSeenMessageId, pageable);
+
+        Map<Long, SenderProfile> profiles = senderProfileCache.getAll(senderIdsOf(messagesList));
+        List<ChatMessageDTO> messages = new ArrayList<>();
+        for (Messages m : messagesList) {
+            messages.add(toChatMessageDTO(m, profiles));
         }
-        return ansList;
+
+        // 모자란 만큼 redis 에서 이어서 조회 (write-behind 로 아직 DB 에 없는 메세지)
+        if (messages.size() <= RESUME_BATCH_SIZE) {
+            long cursor = messages.isEmpty()
+                    ? lastSeenMessageId
+                    : Long.parseLong(messages.get(messages.size() - 1).getMessageId());
+            messages.addAll(redisService.getMessagesAfter(chatRoomId, cursor, RESUME_BATCH_SIZE + 1 - messages.size()));
+        }
+        return resumeBatch(chatRoomId, messages);
     }
 
 
-    // 과거 메세지 추가 요청
-    @Override
-    @Transactional(isolation = Isolation.READ_UNCOMMITTED)
-    public List<ChatMessageDTO>getPreviousChatMessages(Long userId, Long chatRoomId,int count) {
-
-        List<ChatMessageDTO> chatMessageDTOList = new ArrayList<>();
+    // 한 배치보다 하나 더 조회해서 남은 메세지가 있는지 확인
+    private ChatResumeDTO resumeBatch(Long chatRoomId, List<ChatMessageDTO> messages) {
+        boolean hasMore = messages.size() > RESUME_BATCH_SIZE;
+        List<ChatMessageDTO> batch = hasMore ? messages.subList(0, RESUME_BATCH_SIZE) : messages;
+        return new ChatResumeDTO(chatRoomId, new ArrayList<>(batch), hasMore, false);
+    }
 
-        // 추가로 가져올 메세지 갯수
-        int needCnt = 20 * count;
 
-        // redis 먼저 조회
-        Optional<List<ChatMessageDTO>> optionalList = redisFirstDataBaseLater(userId, chatRoomId, needCnt);
+    // 과거 메세지 추가 요청 (keyset 페이징)
+    // beforeMessageId 보다 작은 아이디의 메세지를 최신순으로 limit 개 가져온다. (커서가 없으면 readIndex 이하부터)
+    // 1. redis 채팅방 인덱스에서 먼저 조회
+    // 2. 모자란 만큼 redis 에서 가져온 가장 오래된 메세지 이전부터 DB 조회 (chatroom_id, message_id) 인덱스
+    // 3. 그래도 모자라면 아카이브 블록에서 이어서 조회 (DB 에서 옮겨진 오래된 메세지)
+    // 스크롤 깊이와 상관없이 한 페이지 비용이 같다.
+    // 아카이브(S3) 조회 동안 DB 커넥션을 잡지 않도록 메서드 전체를 트랜잭션으로 묶지 않는다. (DB 조회는 레포지토리 트랜잭션)
+    @Override
+    public List<ChatMessageDTO> getPreviousChatMessages(Long userId, Long chatRoomId, Long beforeMessageId, Integer limit) {
 
-        // redis 로 불러온 내역이 없는 경우
-        if(optionalList.isEmpty()) {
-            log.debug("===redis 로 불러온 내역이 없음====");
+        Optional<UserChatRoom> existUserChatRoom = isExistUserChatRoom(userId, chatRoomId);
+        if (existUserChatRoom.isEmpty()) {
+            log.debug("userChatRoom 존재하지않음");
+            throw new BaseException(ChatErrorResponseCode.CHAT_ROOM_NOT_FOUND);
+        }
 
-            // redis에 없는 경우 DB조회
-            Optional<ChatRoom> chatRoomOptional = chatRoomRepository.findById(chatRoomId);
-            Optional<UserChatRoom> existUserChatRoom = isExistUserChatRoom(userId, chatRoomId);
+        int pageSize = limit == null ? HISTORY_PAGE_SIZE : Math.max(1, Math.min(limit, HISTORY_MAX_PAGE_SIZE));
 
-            if (existUserChatRoom.isEmpty()) {
-                log.debug("userChatRoom 존재하지않음");
-                throw new BaseException(ChatErrorResponseCode.CHAT_ROOM_NOT_FOUND);
+        // 커서가 없으면 마지막으로 읽은 메세지까지 포함
+        long cursor;
+        if (beforeMessageId != null) {
+            cursor = beforeMessageId;
+        } else {
+            Long readIndex = getReadIndex(userId, chatRoomId, existUserChatRoom.get().getReadIndex());
+            if (readIndex == null || readIndex.equals(0L)) {
+                return new ArrayList<>();
             }
+            cursor = readIndex + 1;
+        }
 
-            if (existUserChatRoom.isPresent()) {
-                log.debug("userChatroom 존재함");
-                UserChatRoom userChatRoom = existUserChatRoom.get();
-                Long readIndex = userChatRoom.getReadIndex();
-                log.debug("=== readIndex : {}",readIndex);
-
-                // readIndex 가 초기값이면 바로 null return
-                if(readIndex.equals(0L)){
-                    return null;
-                }
-
-                // 20개씩 내역 페이징
-                Pageable pageable = PageRequest.of(0, 20); // 첫 페이지, 최대 20개
-                List<Messages> byChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc = messagesRepository.findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(chatRoomId, readIndex, pageable);
-
-                // 메세지가 아예 없는 경우
-                if (byChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc.isEmpty()) {
-                    log.debug("채팅방에 아직 메세지 없음");
-                    throw new BaseException(ChatErrorResponseCode.CHAT_ROOM_NO_HISTORY_YET);
-                }
-
-                // 메세지가 있는 경우
-                for (Messages msg : byChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc) {
-
-                    log.debug("db에서 메세지 불러오기 성공");
-                    Optional<User> optionalUser = userRepository.findById(msg.getSenderId());
-                    String senderImgUrl = null;
-                    if(optionalUser.isPresent()){
-                        senderImgUrl = optionalUser.get().getImageUrl();
-                    }
-
-                    ChatMessageDTO chatMessageDTO = ChatMessageDTO.builder()
-                            .messageId(msg.getId().toString())
-                            .senderId(msg.getSenderId())
-                            .roomId(msg.getChatRoom().getId().toString())
-                            .content(msg.getContent())
-                            .senderNickname(msg.getSenderNickname())
-                            .timestamp(msg.getCreation_time())
-                            .imgUrl(senderImgUrl)
-                            .build();
-                    chatMessageDTOList.add(chatMessageDTO);
-
-                    // db에서 페이징하는 동시에 레디스에 내역 저장
-                    redisService.saveMessage(chatMessageDTO,43200);
-                    log.debug("db페이징 후 레디스에 내역 저장");
-                }
-            }
+        // redis 먼저 조회
+        List<ChatMessageDTO> chatMessageDTOList = new ArrayList<>(redisService.getMessagesBefore(chatRoomId, cursor, pageSize));
+        if (chatMessageDTOList.size() >= pageSize) {
+            return chatMessageDTOList;
         }
-        // redis 에서 가져온 내역이 있는 경우
-
-        // 갯수 20개 못가져온경우 추가적으로 db 페이징
-        List<ChatMessageDTO> chatMessageDTOS = optionalList.get();
-        String messageId = chatMessageDTOS.get(chatMessageDTOS.size() - 1).getMessageId();
-        if(chatMessageDTOS.size()<needCnt){
-            int more = needCnt - chatMessageDTOS.size();
-            // 20 개 - redis 로 가져온 내역 갯수 = 추가 내역 페이징
-            Pageable pageable = PageRequest.of(0, more); // 첫 페이지, 최대 20개
-            List<Messages> messagesList = messagesRepository.findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(chatRoomId, Long.parseLong(messageId), pageable);
-            for(Messages m : messagesList){
-                Optional<User> optionalUser = userRepository.findById(m.getSenderId());
-                String imgUrl = null;
-                if(optionalUser.isPresent()){
-                    imgUrl = optionalUser.get().getImageUrl();
-                }
-
-                ChatMessageDTO chatMessageDTO = ChatMessageDTO.builder()
-                        .messageId(m.getId().toString())
-                        .senderId(m.getSenderId())
-                        .roomId(m.getChatRoom().getId().toString())
-                        .content(m.getContent())
-                        .senderNickname(m.getSenderNickname())
-                        .timestamp(m.getCreation_time())
-                        .imgUrl(imgUrl)
-                        .build();
-                optionalList.get().add(chatMessageDTO);
-            }
+
+        // 모자란 만큼 DB 조회
+        if (!chatMessageDTOList.isEmpty()) {
+            cursor = Long.parseLong(chatMessageDTOList.get(chatMessageDTOList.size() - 1).getMessageId());
         }
+        Pageable pageable = PageRequest.of(0, pageSize - chatMessageDTOList.size());
+        List<Messages> messagesList = messagesRepository.findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(chatRoomId, cursor, pageable);
 
-        return optionalList.get();
+        Map<Long, SenderProfile> profiles = senderProfileCache.getAll(senderIdsOf(messagesList));
+        for (Messages m : messagesList) {
+            ChatMessageDTO chatMessageDTO = ChatMessageDTO.builder()
+                    .messageId(m.getId().toString())
+                    .senderId(m.getSenderId())
+                    .roomId(chatRoomId.toString())
+                    .content(m.getContent())
+                    .senderNickname(m.getSenderNickname())
+                    .timestamp(m.getCreation_time())
+                    .imgUrl(senderImageUrl(profiles, m.getSenderId()))
+                    .build();
+            chatMessageDTOList.add(chatMessageDTO);
+        }
+        if (chatMessageDTOList.size() >= pageSize) {
+            return chatMessageDTOList;
+        }
+
+        // 모자란 만큼 아카이브 조회
+        if (!chatMessageDTOList.isEmpty()) {
+            cursor = Long.parseLong(chatMessageDTOList.get(chatMessageDTOList.size() - 1).getMessageId());
+        }
+        List<ArchivedMessage> archivedMessages = messageArchive.findBefore(chatRoomId, cursor, pageSize - chatMessageDTOList.size());
+        Map<Long, SenderProfile> archivedProfiles = senderProfileCache.getAll(archivedMessages.stream()
+                .map(ArchivedMessage::senderId)
+                .filter(Objects::nonNull)
+                .toList());
+        for (ArchivedMessage m : archivedMessages) {
+            ChatMessageDTO chatMessageDTO = ChatMessageDTO.builder()
+                    .messageId(String.valueOf(m.id()))
+                    .senderId(m.senderId())
+                    .roomId(chatRoomId.toString())
+                    .content(m.content())
+                    .senderNickname(m.senderNickname())
+                    .timestamp(m.creationTime())
+                    .imgUrl(senderImageUrl(archivedProfiles, m.senderId()))
+                    .build();
+            chatMessageDTOList.add(chatMessageDTO);
+        }
+        return chatMessageDTOList;
     }
 
-    // 특정 방에 저장된 메세지 중 가장 마지막 메세지 가져옴
+    // 특정 방에 저장된 메세지 중 가장 마지막 메세지 아이디 가져옴
+    // redis 채팅방 인덱스의 마지막 메세지와 ChatRoom 의 마지막 메세지(DB 저장 시 갱신) 중 큰 값
+    // (redis 인덱스가 비었다가 다시 채워지는 중이거나 저장이 실패한 경우 redis 값이 DB 보다 작을 수 있음)
     @Override
-    public Messages getLastMessageFromChatRoom(Long chatRoomId) {
-
-        List<Messages> allByChatRoom = messagesRepository.findAllByChatRoom(chatRoomId);
-        return allByChatRoom.get(0);
+    public Optional<Long> getLastMessageIdFromChatRoom(Long chatRoomId) {
+        Optional<Long> fromRedis = redisService.getLastMessageId(chatRoomId);
+        Optional<Long> fromDb = chatRoomRepository.findLastMessageIdById(chatRoomId);
+        if (fromRedis.isEmpty()) {
+            return fromDb;
+        }
+        if (fromDb.isEmpty()) {
+            return fromRedis;
+        }
+        return Optional.of(Math.max(fromRedis.get(), fromDb.get()));
     }
 
-    // userChatRoom 에 readIndex 저장하기
+    // readIndex 저장하기
+    // user_chatroom 을 바로 UPDATE 하지 않고 redis 에 기록 -> ReadIndexFlusher 가 모아서 DB 에 반영
     @Override
-    @Transactional
     public void saveReadIndex(Long userId,Long chatRoomId,Long readIndex) {
 
-        Optional<UserChatRoom> matchingChatRoom = userChatRoomRepository.findByUserChatroom(userId, chatRoomId);
+        // 더 최근에 읽은 위치가 있으면 무시
+        readIndexStore.advance(userId, chatRoomId, readIndex);
 
-        // 해당하는 userchatRoom 의 readIndex 에 readIndex 를 업데이트
-        if(matchingChatRoom.isPresent()){
-            UserChatRoom userChatRoom = matchingChatRoom.get();
-            userChatRoom.updateReadIndex(readIndex);
-        }
+        // 안 읽은 메세지 수 초기화
+        unreadCountStore.markRead(userId, chatRoomId);
+    }
+
+    // 사용자가 마지막으로 읽은 메세지 아이디
+    // DB 값(savedReadIndex)과 아직 DB 에 반영되지 않은 redis 값 중 큰 값
+    @Override
+    public Long getReadIndex(Long userId, Long chatRoomId, Long savedReadIndex) {
+        Optional<Long> fromRedis = readIndexStore.readIndex(userId, chatRoomId);
+        return Stream.of(Optional.ofNullable(savedReadIndex), fromRedis)
+                .flatMap(Optional::stream)
+                .max(Long::compare)
+                .orElse(null);
     }
 
 
@@ -508,6 +538,7 @@ public class ChatServiceImpl implements ChatService{
         if(optionalUserChatRoom.isPresent()){
             UserChatRoom userChatRoom = optionalUserChatRoom.get();
             userChatRoom.delete();
+            chatAuthorizationCache.evictMembership(userId, chatRoomId);
             return optionalUserChatRoom;
         }
 
@@ -558,6 +589,37 @@ public class ChatServiceImpl implements ChatService{
     }
 
 
+    // 메세지 작성자 아이디 목록
+    private List<Long> senderIdsOf(List<Messages> messages){
+        return messages.stream()
+                .map(Messages::getSenderId)
+                .toList();
+    }
+
+
+    // 메세지 엔티티 -> dto
+    private ChatMessageDTO toChatMessageDTO(Messages m, Map<Long, SenderProfile> profiles){
+        return ChatMessageDTO.builder()
+                .messageId(m.getId().toString())
+                .roomId(m.getChatRoom().getId().toString())
+                .senderId(m.getSenderId())
+                .senderNickname(m.getSenderNickname())
+                .imgUrl(senderImageUrl(profiles, m.getSenderId()))
+                .content(m.getContent())
+                .timestamp(m.getCreation_time())
+                .build();
+    }
+
+
+    // 작성자 프로필 이미지 (작성자 정보가 없으면 null)
+    private String senderImageUrl(Map<Long, SenderProfile> profiles, Long senderId){
+        if(senderId == null || !profiles.containsKey(senderId)){
+            return null;
+        }
+        return profiles.get(senderId).imageUrl();
+    }
+
+
     // userChatRoom 에 추가하기
     public void createUserChatRoom(Long userId, Long chatRoomId){
 
@@ -569,6 +631,19 @@ public class ChatServiceImpl implements ChatService{
         User user = optionalUser.get();
 
 
+        // 나갔던 채팅방이면 (soft delete) 새로 만들지 않고 복구 (user_id, chatroom_id 는 unique)
+        Optional<UserChatRoom> exited = userChatRoomRepository.findByUserChatroom(userId, chatRoomId);
+        if(exited.isPresent()){
+            UserChatRoom userChatRoom = exited.get();
+            userChatRoom.updateIsDelete(false);
+            userChatRoomRepository.save(userChatRoom);
+            chatAuthorizationCache.evictMembership(userId, chatRoomId);
+            unreadCountStore.markRead(userId, chatRoomId);
+            log.debug("농구장 채팅방 userChatRoom 복구 : {}", userChatRoom.getId());
+            return;
+        }
+
+
         // 농구장 채팅방 필드 가져오기
         Optional<ChatRoom> optionalChatRoom = chatRoomRepository.findById(chatRoomId);
         if(optionalChatRoom.isPresent()){
@@ -584,43 +659,11 @@ public class ChatServiceImpl implements ChatService{
                     .readIndex(0L)
                     .build();
             UserChatRoom saved = userChatRoomRepository.save(userChatRoom);
+            chatAuthorizationCache.evictMembership(userId, chatRoomId);
+            unreadCountStore.markRead(userId, chatRoomId);
             log.debug("농구장 채팅방 userChatRoom 에 저장완료 : {}",saved);
         }
     }
 
 
-    // redis 에서 메세지 가져오기
-    @Transactional(isolation = Isolation.READ_UNCOMMITTED)
-    @Override
-    public Optional<List<ChatMessageDTO>> redisFirstDataBaseLater(Long userId,Long chatRoomId,int count){
-
-        List<ChatMessageDTO> msgList = new ArrayList<>();
-        
-        // user의 readIndex 를 가져와야함
-        Optional<UserChatRoom> optionalUserChatRoom = userChatRoomRepository.findByUserChatroom(userId, chatRoomId);
-
-        // userChatRoom에서 방의 존재가 확인이 안되는 경우 empty 로 반환
-        if(optionalUserChatRoom.isEmpty()){
-            throw new BaseException(ChatErrorResponseCode.CHAT_ROOM_NOT_FOUND);
-        }
-
-        UserChatRoom userChatRoom = optionalUserChatRoom.get();
-        // 특정 유저가 특정 채팅방에 가지고 있는 readIndex
-        Long readIndex = userChatRoom.getReadIndex();
-        log.debug("유저의 ReadIndex:{}",readIndex);
-
-        // redis에서 과거 내역 조회 20개씩
-        List<ChatMessageDTO> messages = redisService.getMessages(chatRoomId, readIndex);
-
-        // redis에서 가져온데이터가 없으면 empty return
-        if(messages.isEmpty()){
-            log.debug("레디스로 가져온 데이터가 없습니다.");
-            return Optional.empty();
-        }
-
-        // redis 로 가져온데이터 반환
-        return Optional.of(messages);
-    }
-
-
 }
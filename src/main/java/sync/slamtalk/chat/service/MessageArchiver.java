@@ -0,0 +1,158 @@
+package sync.slamtalk.chat.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sync.slamtalk.chat.archive.ArchiveStore;
+import sync.slamtalk.chat.archive.ArchivedMessage;
+import sync.slamtalk.chat.archive.MessageArchive;
+import sync.slamtalk.chat.archive.MessageArchiveCodec;
+import sync.slamtalk.chat.entity.MessageArchiveBlock;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+import sync.slamtalk.common.id.SnowflakeIdGenerator;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 오래된 메세지 아카이브 (warm MySQL -> cold 압축 블록)
+ * chat.archive.after-days 보다 오래된 메세지를 채팅방별로 chat.archive.block-size 개씩 묶어서
+ * 압축 블록으로 저장하고 messages 테이블에서 지운다.
+ *
+ * - 경계 : Snowflake 아이디는 발급 시각 순이므로 기준 시각의 최소 아이디보다 작은 메세지가 대상 ((chatroom_id, message_id) 인덱스)
+ * - 하한 : Snowflake 이전에 발급된 작은 아이디(DB auto increment, Redis INCR)는 발급 시각과 상관없이 경계보다 작으므로
+ *          chat.archive.min-message-id (기본 EPOCH + 1일 시각의 최소 아이디, 약 3.6 * 10^14) 미만 메세지는 아카이브하지 않는다.
+ *          블록 삭제가 아이디 범위(between)로 지우므로 하한이 없으면 최근에 보낸 이전 아이디 메세지까지 지울 수 있다.
+ * - 순서 : 채팅방마다 가장 오래된 메세지부터 블록을 만들어서 블록끼리 아이디 범위가 겹치지 않는다.
+ * - 실패 : 블록 저장 후 DB 반영(블록 등록 + 삭제)이 실패하면 메세지는 DB 에 남고 다음 실행에서 다시 시도한다.
+ * - 중복 : 여러 서버가 같은 블록을 만들면 (chatroom_id, first_message_id) unique 에 걸린 쪽은 롤백되고 이미 아카이브된 것으로 본다.
+ *          블록 본문 키는 메세지 범위로 정해지므로 같은 블록은 같은 키에 같은 내용으로 덮어쓴다.
+ *
+ * 메세지 아이디가 시각 순이 아닌 발급기(chat.message.id-generator=redis)에서는 동작하지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.archive.enabled", havingValue = "true")
+public class MessageArchiver {
+
+    // Snowflake 아이디 하한 (EPOCH 다음 날 발급된 아이디부터, 이전 발급기 아이디는 이보다 훨씬 작다)
+    static final long DEFAULT_MIN_MESSAGE_ID =
+            SnowflakeIdGenerator.minIdAt(SnowflakeIdGenerator.EPOCH + Duration.ofDays(1).toMillis());
+
+    private final MessagesJdbcRepository messagesJdbcRepository;
+    private final MessageArchive messageArchive;
+    private final ArchiveStore archiveStore;
+    private final MessageArchiveCodec messageArchiveCodec;
+    private final boolean timeOrderedIds;
+    private final long minMessageId;
+    private final Duration archiveAfter;
+    private final int blockSize;
+    private final int roomsPerRun;
+
+    private final Counter archivedMessagesCounter;
+    private final Counter archivedBlocksCounter;
+    private final Counter rawBytesCounter;
+    private final Counter compressedBytesCounter;
+
+    public MessageArchiver(
+            MessagesJdbcRepository messagesJdbcRepository,
+            MessageArchive messageArchive,
+            ArchiveStore archiveStore,
+            MessageArchiveCodec messageArchiveCodec,
+            MessageIdGenerator messageIdGenerator,
+            MeterRegistry meterRegistry,
+            @Value("${chat.archive.min-message-id:-1}") long minMessageId,
+            @Value("${chat.archive.after-days:90}") long afterDays,
+            @Value("${chat.archive.block-size:1000}") int blockSize,
+            @Value("${chat.archive.rooms-per-run:100}") int roomsPerRun
+    ) {
+        this.messagesJdbcRepository = messagesJdbcRepository;
+        this.messageArchive = messageArchive;
+        this.archiveStore = archiveStore;
+        this.messageArchiveCodec = messageArchiveCodec;
+        this.timeOrderedIds = messageIdGenerator instanceof SnowflakeMessageIdGenerator;
+        this.minMessageId = minMessageId >= 0 ? minMessageId : DEFAULT_MIN_MESSAGE_ID;
+        this.archiveAfter = Duration.ofDays(afterDays);
+        this.blockSize = blockSize;
+        this.roomsPerRun = roomsPerRun;
+        this.archivedMessagesCounter = meterRegistry.counter("chat.archive.messages");
+        this.archivedBlocksCounter = meterRegistry.counter("chat.archive.blocks");
+        this.rawBytesCounter = meterRegistry.counter("chat.archive.bytes.raw");
+        this.compressedBytesCounter = meterRegistry.counter("chat.archive.bytes.compressed");
+        if (!timeOrderedIds) {
+            log.warn("[아카이브] 메세지 아이디가 시각 순이 아니라서 아카이브를 실행하지 않습니다.");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.archive.interval-millis:3600000}")
+    public void archive() {
+        if (!timeOrderedIds) {
+            return;
+        }
+        long boundary = SnowflakeIdGenerator.minIdAt(System.currentTimeMillis() - archiveAfter.toMillis());
+        if (boundary <= minMessageId) {
+            return;
+        }
+        List<Long> roomIds = messagesJdbcRepository.findArchivableRoomIds(minMessageId, boundary, roomsPerRun);
+        for (Long roomId : roomIds) {
+            try {
+                archiveBlock(roomId, boundary);
+            } catch (Exception e) {
+                log.warn("[아카이브] 실패 roomId:{}, cause:{}", roomId, e.getMessage());
+            }
+        }
+    }
+
+    // 채팅방의 가장 오래된 메세지 blockSize 개를 블록 하나로 아카이브
+    void archiveBlock(Long roomId, long boundary) {
+        List<ArchivedMessage> messages = messagesJdbcRepository.findOldestMessages(roomId, minMessageId, boundary, blockSize);
+        if (messages.isEmpty()) {
+            return;
+        }
+        long firstMessageId = messages.get(0).id();
+        long lastMessageId = messages.get(messages.size() - 1).id();
+        byte[] block = messageArchiveCodec.encode(messages);
+        String storageKey = roomId + "/" + firstMessageId + "-" + lastMessageId + ".json.deflate";
+        archiveStore.put(storageKey, block);
+
+        int deleted;
+        try {
+            deleted = messageArchive.register(MessageArchiveBlock.builder()
+                    .chatRoomId(roomId)
+                    .firstMessageId(firstMessageId)
+                    .lastMessageId(lastMessageId)
+                    .messageCount(messages.size())
+                    .storageKey(storageKey)
+                    .compressedBytes(block.length)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // 다른 서버가 먼저 등록함
+            log.debug("[아카이브] 이미 아카이브된 블록 roomId:{}, firstMessageId:{}", roomId, firstMessageId);
+            return;
+        }
+
+        archivedBlocksCounter.increment();
+        archivedMessagesCounter.increment(deleted);
+        rawBytesCounter.increment(rawSize(messages));
+        compressedBytesCounter.increment(block.length);
+        log.debug("[아카이브] roomId:{}, 메세지 {}개 -> {} bytes", roomId, deleted, block.length);
+    }
+
+    // 압축 전 본문 크기 (대략적인 압축률 메트릭용)
+    private long rawSize(List<ArchivedMessage> messages) {
+        long size = 0;
+        for (ArchivedMessage message : messages) {
+            size += 20 + length(message.senderNickname()) + length(message.content()) + length(message.creationTime());
+        }
+        return size;
+    }
+
+    private int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
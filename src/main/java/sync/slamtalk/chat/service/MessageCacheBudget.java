@@ -0,0 +1,47 @@
+package sync.slamtalk.chat.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sync.slamtalk.chat.redis.RedisService;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 채팅 메세지 캐시 예산 관리
+ * 주기적으로 캐시하는 채팅방 수가 chat.cache.max-rooms 를 넘지 않도록 오래된 채팅방을 정리하고,
+ * 캐시 크기 메트릭을 갱신한다.
+ *
+ * - chat.cache.rooms : 캐시 중인 채팅방 수
+ * - chat.cache.redis.used-memory : redis 사용 메모리 (bytes)
+ * - chat.cache.trimmed / chat.cache.evicted.* : RedisService 에서 기록
+ */
+@Slf4j
+@Component
+public class MessageCacheBudget {
+
+    private final RedisService redisService;
+    private final AtomicLong cachedRooms = new AtomicLong();
+    private final AtomicLong usedMemory = new AtomicLong(-1);
+
+    public MessageCacheBudget(RedisService redisService, MeterRegistry meterRegistry) {
+        this.redisService = redisService;
+        Gauge.builder("chat.cache.rooms", cachedRooms, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("chat.cache.redis.used-memory", usedMemory, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.cache.budget-check-millis:60000}")
+    public void enforce() {
+        try {
+            redisService.evictOverBudget();
+            cachedRooms.set(redisService.cachedRoomCount());
+            usedMemory.set(redisService.usedMemoryBytes());
+        } catch (Exception e) {
+            log.warn("[메세지 캐시 예산] 정리 실패 : {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package sync.slamtalk.chat.service;
+
+/**
+ * 메세지 아이디 발급기
+ * 메세지를 DB 에 저장하기 전에 아이디를 먼저 발급해서
+ * 브로드캐스트, Redis 캐싱, DB 저장이 같은 아이디를 사용하도록 한다.
+ * 같은 채팅방에서 발급되는 아이디는 (어느 서버에서 발급하든) 항상 이전에 발급된 아이디보다 커야 한다.
+ * (resume, readIndex, 안 읽은 메세지 수 비교에 사용)
+ */
+public interface MessageIdGenerator {
+
+    /**
+     * @param roomId 메세지를 보낼 채팅방 아이디
+     * @return 채팅방의 이전 메세지 아이디보다 큰 아이디 (채팅방끼리도 겹치지 않음)
+     */
+    long nextId(Long roomId);
+}
@@ -0,0 +1,246 @@
+package sync.slamtalk.chat.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+import sync.slamtalk.common.BaseException;
+import sync.slamtalk.common.ErrorResponseCode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 메세지 write-behind 큐
+ * STOMP SEND 처리 스레드는 메세지를 큐에 넣고 바로 반환하고,
+ * 샤드별 워커 스레드가 큐에 쌓인 메세지를 batch insert 로 저장한다.
+ *
+ * - 순서 보장 : 같은 채팅방의 메세지는 항상 같은 샤드(단일 워커)로 들어가므로 들어온 순서대로 저장된다.
+ * - backpressure : 샤드 큐가 가득 차서 offerTimeout 안에 넣지 못하면 메세지를 거절한다. (클라이언트는 ERROR 프레임 수신)
+ * - 종료 : 애플리케이션 종료 시 새 메세지를 받지 않고 남은 메세지를 모두 저장한 뒤 종료한다.
+ * - 저장 실패 : 한 건씩 다시 저장해도 실패한 메세지는 dead-letter 큐에 넣고 주기적으로 재시도한다.
+ *   maxAttempts 번 실패하면 복구할 수 있도록 메세지 전체를 error 로그로 남기고 버린다.
+ */
+@Slf4j
+@Component
+public class MessageWriteBehindQueue implements SmartLifecycle {
+
+    private final MessagesJdbcRepository messagesJdbcRepository;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final long drainTimeoutMillis;
+    private final int deadLetterMaxAttempts;
+
+    private final List<BlockingQueue<ChatMessageDTO>> shards = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final BlockingQueue<DeadLetter> deadLetters;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running = false;
+
+    public MessageWriteBehindQueue(
+            MessagesJdbcRepository messagesJdbcRepository,
+            MeterRegistry meterRegistry,
+            @Value("${chat.write-behind.shards:4}") int shardCount,
+            @Value("${chat.write-behind.capacity:10000}") int capacity,
+            @Value("${chat.write-behind.batch-size:100}") int batchSize,
+            @Value("${chat.write-behind.offer-timeout-millis:200}") long offerTimeoutMillis,
+            @Value("${chat.write-behind.drain-timeout-seconds:30}") long drainTimeoutSeconds,
+            @Value("${chat.write-behind.dead-letter.max-attempts:5}") int deadLetterMaxAttempts
+    ) {
+        this.messagesJdbcRepository = messagesJdbcRepository;
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.drainTimeoutMillis = TimeUnit.SECONDS.toMillis(drainTimeoutSeconds);
+        this.deadLetterMaxAttempts = deadLetterMaxAttempts;
+        this.deadLetters = new LinkedBlockingQueue<>(capacity);
+
+        for (int i = 0; i < shardCount; i++) {
+            BlockingQueue<ChatMessageDTO> queue = new ArrayBlockingQueue<>(capacity);
+            shards.add(queue);
+            Gauge.builder("chat.write-behind.queue.size", queue, BlockingQueue::size)
+                    .tag("shard", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        this.rejectedCounter = meterRegistry.counter("chat.write-behind.rejected");
+        this.failedCounter = meterRegistry.counter("chat.write-behind.failed");
+        this.droppedCounter = meterRegistry.counter("chat.write-behind.dropped");
+        Gauge.builder("chat.write-behind.dead-letter.size", deadLetters, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 저장할 메세지를 큐에 추가
+     * 메세지 아이디는 미리 발급되어 있어야 한다.
+     *
+     * @param message 저장할 메세지
+     */
+    public void enqueue(ChatMessageDTO message) {
+        // 종료 중이거나 시작 전이면 바로 저장
+        if (!running) {
+            persist(List.of(message));
+            return;
+        }
+
+        BlockingQueue<ChatMessageDTO> queue = shardOf(message.getRoomId());
+        try {
+            if (!queue.offer(message, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                log.warn("[write-behind] 큐가 가득 차서 메세지를 거절합니다. roomId:{}", message.getRoomId());
+                throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+    }
+
+    // 채팅방 아이디로 샤드 선택 (같은 채팅방은 항상 같은 샤드)
+    private BlockingQueue<ChatMessageDTO> shardOf(String roomId) {
+        int index = Math.floorMod(Long.hashCode(Long.parseLong(roomId)), shards.size());
+        return shards.get(index);
+    }
+
+    // 샤드 워커 : 큐에서 batchSize 만큼 꺼내서 저장
+    private void work(BlockingQueue<ChatMessageDTO> queue) {
+        List<ChatMessageDTO> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ChatMessageDTO first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // batch 저장에 실패하면 한 건씩 다시 저장해서 실패한 메세지만 dead-letter 큐로
+    private void persist(List<ChatMessageDTO> batch) {
+        try {
+            messagesJdbcRepository.batchInsert(batch);
+            log.debug("[write-behind] 메세지 {}개 저장", batch.size());
+        } catch (Exception batchException) {
+            log.warn("[write-behind] batch 저장 실패, 한 건씩 재시도 : {}", batchException.getMessage());
+            for (ChatMessageDTO message : batch) {
+                try {
+                    messagesJdbcRepository.batchInsert(List.of(message));
+                } catch (Exception e) {
+                    failedCounter.increment();
+                    log.warn("[write-behind] 메세지 저장 실패, dead-letter 큐로 이동 messageId:{}, roomId:{}, cause:{}",
+                            message.getMessageId(), message.getRoomId(), e.getMessage());
+                    deadLetter(new DeadLetter(message, 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * dead-letter 큐 재시도
+     * 지금 들어 있는 메세지만 한 번씩 다시 저장한다. (재시도 중에 다시 들어온 메세지는 다음 주기에)
+     */
+    @Scheduled(fixedDelayString = "${chat.write-behind.dead-letter.retry-millis:30000}")
+    public void retryDeadLetters() {
+        int count = deadLetters.size();
+        for (int i = 0; i < count; i++) {
+            DeadLetter deadLetter = deadLetters.poll();
+            if (deadLetter == null) {
+                return;
+            }
+            try {
+                messagesJdbcRepository.batchInsert(List.of(deadLetter.message()));
+                log.info("[write-behind] dead-letter 메세지 저장 messageId:{}, 시도 {}회",
+                        deadLetter.message().getMessageId(), deadLetter.attempts() + 1);
+            } catch (Exception e) {
+                deadLetter(new DeadLetter(deadLetter.message(), deadLetter.attempts() + 1));
+            }
+        }
+    }
+
+    // 재시도 횟수를 넘었거나 dead-letter 큐도 가득 차면 메세지 전체를 로그로 남기고 버림
+    private void deadLetter(DeadLetter deadLetter) {
+        if (deadLetter.attempts() < deadLetterMaxAttempts && deadLetters.offer(deadLetter)) {
+            return;
+        }
+        drop(deadLetter);
+    }
+
+    private void drop(DeadLetter deadLetter) {
+        ChatMessageDTO message = deadLetter.message();
+        droppedCounter.increment();
+        log.error("[write-behind] 메세지를 저장하지 못하고 버립니다. 시도:{}회, messageId:{}, roomId:{}, senderId:{}, senderNickname:{}, content:{}, timestamp:{}",
+                deadLetter.attempts(), message.getMessageId(), message.getRoomId(), message.getSenderId(),
+                message.getSenderNickname(), message.getContent(), message.getTimestamp());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < shards.size(); i++) {
+            BlockingQueue<ChatMessageDTO> queue = shards.get(i);
+            Thread worker = new Thread(() -> work(queue), "chat-write-behind-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    // 종료 시 남은 메세지를 모두 저장 (drain-on-shutdown)
+    @Override
+    public void stop() {
+        running = false;
+        long deadline = System.currentTimeMillis() + drainTimeoutMillis;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int remaining = shards.stream().mapToInt(BlockingQueue::size).sum();
+        if (remaining > 0) {
+            log.error("[write-behind] 종료 시간 안에 저장하지 못한 메세지 {}개", remaining);
+        }
+        workers.clear();
+
+        // dead-letter 큐는 한 번 더 재시도하고 남은 메세지는 로그로
+        retryDeadLetters();
+        DeadLetter deadLetter;
+        while ((deadLetter = deadLetters.poll()) != null) {
+            drop(deadLetter);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 웹소켓 브로커(Integer.MAX_VALUE) 가 먼저 멈춘 뒤에 종료되도록 낮은 phase 사용
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1000;
+    }
+
+    private record DeadLetter(ChatMessageDTO message, int attempts) {
+    }
+}
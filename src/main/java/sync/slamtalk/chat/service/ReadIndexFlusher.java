@@ -0,0 +1,76 @@
+package sync.slamtalk.chat.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sync.slamtalk.chat.redis.ReadIndexStore;
+import sync.slamtalk.chat.redis.ReadIndexStore.ReadIndex;
+import sync.slamtalk.chat.repository.UserChatRoomJdbcRepository;
+
+import java.util.List;
+
+/**
+ * readIndex DB 반영
+ * Redis 에 기록된 readIndex 중 바뀐 것(dirty) 을 주기적으로 꺼내서 user_chatroom 에 batch update 한다.
+ * (유저, 채팅방) 마다 가장 큰 값 하나만 반영하므로 뒤로 가기 횟수와 상관없이 반영 주기당 한 번만 UPDATE 한다.
+ * 반영에 실패하면 다시 dirty 로 표시해서 다음 주기에 재시도한다.
+ * 꺼낸 readIndex 는 DB 커밋 후에 ack 하고, 반영 도중 서버가 종료되어 ack 하지 못한 것은
+ * chat.read-index.processing-timeout-millis 가 지나면 (어느 서버에서든) 다시 반영한다. (UPDATE 는 큰 값만 반영하므로 중복 반영해도 안전)
+ */
+@Slf4j
+@Component
+public class ReadIndexFlusher {
+
+    private final ReadIndexStore readIndexStore;
+    private final UserChatRoomJdbcRepository userChatRoomJdbcRepository;
+    private final int batchSize;
+    private final long processingTimeoutMillis;
+    private final Counter flushedCounter;
+    private final Counter requeuedCounter;
+
+    public ReadIndexFlusher(
+            ReadIndexStore readIndexStore,
+            UserChatRoomJdbcRepository userChatRoomJdbcRepository,
+            MeterRegistry meterRegistry,
+            @Value("${chat.read-index.flush-batch-size:1000}") int batchSize,
+            @Value("${chat.read-index.processing-timeout-millis:60000}") long processingTimeoutMillis
+    ) {
+        this.readIndexStore = readIndexStore;
+        this.userChatRoomJdbcRepository = userChatRoomJdbcRepository;
+        this.batchSize = batchSize;
+        this.processingTimeoutMillis = processingTimeoutMillis;
+        this.flushedCounter = meterRegistry.counter("chat.read-index.flushed");
+        this.requeuedCounter = meterRegistry.counter("chat.read-index.requeued");
+    }
+
+
+    @Scheduled(fixedDelayString = "${chat.read-index.flush-millis:5000}")
+    public void flush() {
+        int requeued = readIndexStore.requeueStale(processingTimeoutMillis);
+        if (requeued > 0) {
+            requeuedCounter.increment(requeued);
+            log.warn("[readIndex 반영] ack 되지 않은 {}건 다시 반영", requeued);
+        }
+
+        List<ReadIndex> readIndexes;
+        do {
+            readIndexes = readIndexStore.claimDirty(batchSize);
+            if (readIndexes.isEmpty()) {
+                return;
+            }
+            try {
+                userChatRoomJdbcRepository.batchUpdateReadIndex(readIndexes);
+            } catch (Exception e) {
+                log.warn("[readIndex 반영] 실패 {}건, cause:{}", readIndexes.size(), e.getMessage());
+                readIndexStore.markDirty(readIndexes);
+                return;
+            }
+            // 커밋 후 ack (ack 가 실패해도 processing-timeout 뒤에 다시 반영됨)
+            readIndexStore.ack(readIndexes);
+            flushedCounter.increment(readIndexes.size());
+        } while (readIndexes.size() >= batchSize);
+    }
+}
@@ -0,0 +1,86 @@
+package sync.slamtalk.chat.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import sync.slamtalk.common.BaseException;
+import sync.slamtalk.common.ErrorResponseCode;
+import sync.slamtalk.common.id.SnowflakeIdGenerator;
+
+import java.util.List;
+
+/**
+ * Snowflake 기반 메세지 아이디 발급기 (기본값)
+ * Snowflake 아이디는 노드 안에서만 단조 증가하고, 노드끼리는 시계 차이(id.snowflake.max-clock-skew-millis 이내)와
+ * 같은 ms 안의 노드 아이디 순서만큼 뒤집힐 수 있다.
+ * 같은 채팅방의 메세지 아이디는 항상 증가해야 하므로 (resume, readIndex, 안 읽은 메세지 수가 아이디 크기를 비교)
+ * 채팅방마다 마지막 아이디를 Redis 에 두고, 그보다 큰 아이디만 발급한다.
+ *
+ * - chat_message:last_id:{roomId} : 채팅방의 마지막 메세지 아이디, 더 큰 아이디일 때만 바꾼다. (원자적)
+ *   만료되면 순서를 보장할 수 없으므로 TTL 없이 채팅방마다 하나씩 유지한다.
+ * - 다른 서버가 더 큰 아이디를 먼저 기록했으면 그 아이디 다음부터 다시 발급한다. (nextIdAfter)
+ * - 키가 없으면 (첫 메세지, Redis 유실) 다른 서버가 자기 시계로 방금 발급했을 수 있는 아이디보다 크도록
+ *   현재 시각 + 시계 차이 2배 이후의 아이디부터 발급한다. (각 서버 시계는 Redis 시계와 maxClockSkew 이내)
+ *
+ * 아이디는 발급 시각을 담고 있으므로 아카이브, 시각 기준 조회에 그대로 사용할 수 있다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.message.id-generator", havingValue = "snowflake", matchIfMissing = true)
+public class SnowflakeMessageIdGenerator implements MessageIdGenerator {
+
+    private static final String LAST_ID_PREFIX = "chat_message:last_id:";
+    private static final String ACCEPTED = "OK";
+    private static final String MISSING = "MISSING";
+    private static final int MAX_ATTEMPTS = 5;
+
+    // 마지막 아이디보다 클 때만 기록 -> OK, 작으면 마지막 아이디, 키가 없으면 (ARGV[2] = 0 일 때) MISSING
+    // 아이디는 2^53 을 넘어서 Lua 숫자(double)로 비교하면 틀릴 수 있으므로 문자열 길이, 사전순으로 비교
+    private static final RedisScript<String> ADVANCE_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) " +
+            "if not current and ARGV[2] == '0' then return 'MISSING' end " +
+            "if current and (#current > #ARGV[1] or (#current == #ARGV[1] and current >= ARGV[1])) then return current end " +
+            "redis.call('SET', KEYS[1], ARGV[1]) " +
+            "return 'OK'", String.class);
+
+    private final SnowflakeIdGenerator snowflakeIdGenerator;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long maxClockSkewMillis;
+
+    public SnowflakeMessageIdGenerator(
+            SnowflakeIdGenerator snowflakeIdGenerator,
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${id.snowflake.max-clock-skew-millis:1000}") long maxClockSkewMillis
+    ) {
+        this.snowflakeIdGenerator = snowflakeIdGenerator;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.maxClockSkewMillis = maxClockSkewMillis;
+    }
+
+    @Override
+    public long nextId(Long roomId) {
+        String key = LAST_ID_PREFIX + roomId;
+        long floor = -1;
+        boolean seeded = false;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long id = floor < 0 ? snowflakeIdGenerator.nextId() : snowflakeIdGenerator.nextIdAfter(floor);
+            String result = stringRedisTemplate.execute(ADVANCE_SCRIPT, List.of(key),
+                    String.valueOf(id), seeded ? "1" : "0");
+            if (ACCEPTED.equals(result)) {
+                return id;
+            }
+            if (MISSING.equals(result)) {
+                floor = Math.max(floor, SnowflakeIdGenerator.minIdAt(System.currentTimeMillis() + 2 * maxClockSkewMillis + 1) - 1);
+                seeded = true;
+            } else if (result != null) {
+                floor = Math.max(floor, Long.parseLong(result));
+            }
+        }
+        log.warn("채팅방 {} 메세지 아이디를 {}번 시도했지만 발급하지 못했습니다.", roomId, MAX_ATTEMPTS);
+        throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+    }
+}
@@ -0,0 +1,107 @@
+package sync.slamtalk.chat.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sync.slamtalk.chat.redis.ReadIndexStore;
+import sync.slamtalk.chat.redis.UnreadCountStore;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 안 읽은 메세지 수 보정
+ * 메세지가 오간 채팅방(dirty) 을 주기적으로 꺼내서 Messages 테이블 기준 값으로 redis 카운터를 보정한다.
+ * 채팅방마다 chat.unread.reconcile-interval-seconds 에 한 번만 보정한다. (UnreadCountStore 참고)
+ *
+ * 참여자별 읽은 메세지 수는 메세지 테이블과 조인하지 않고, 채팅방의 최근 메세지 아이디 maxUnread 개와
+ * 참여자 readIndex 를 비교해서 계산한다. (안 읽은 메세지가 maxUnread 개를 넘으면 maxUnread 개로 보정)
+ * 참여자가 maxMembers 명을 넘는 채팅방은 채팅방 메세지 수만 보정한다.
+ */
+@Slf4j
+@Component
+public class UnreadCountReconciler {
+
+    private final UnreadCountStore unreadCountStore;
+    private final ReadIndexStore readIndexStore;
+    private final MessagesJdbcRepository messagesJdbcRepository;
+    private final int batchSize;
+    private final int maxMembers;
+    private final int maxUnread;
+    private final Counter reconciledCounter;
+    private final Counter exactCounter;
+
+    public UnreadCountReconciler(
+            UnreadCountStore unreadCountStore,
+            ReadIndexStore readIndexStore,
+            MessagesJdbcRepository messagesJdbcRepository,
+            MeterRegistry meterRegistry,
+            @Value("${chat.unread.reconcile-batch-size:100}") int batchSize,
+            @Value("${chat.unread.reconcile-max-members:1000}") int maxMembers,
+            @Value("${chat.unread.reconcile-max-unread:300}") int maxUnread
+    ) {
+        this.unreadCountStore = unreadCountStore;
+        this.readIndexStore = readIndexStore;
+        this.messagesJdbcRepository = messagesJdbcRepository;
+        this.batchSize = batchSize;
+        this.maxMembers = maxMembers;
+        this.maxUnread = maxUnread;
+        this.reconciledCounter = meterRegistry.counter("chat.unread.reconciled");
+        this.exactCounter = meterRegistry.counter("chat.unread.reconciled.exact");
+    }
+
+    @Scheduled(fixedDelayString = "${chat.unread.reconcile-millis:60000}")
+    public void reconcile() {
+        List<Long> roomIds = unreadCountStore.popDirtyRooms(batchSize);
+        for (Long roomId : roomIds) {
+            try {
+                reconcile(roomId);
+            } catch (Exception e) {
+                log.warn("[안 읽은 메세지 보정] 실패 roomId:{}, cause:{}", roomId, e.getMessage());
+            }
+        }
+    }
+
+    private void reconcile(Long roomId) {
+        long roomCount = messagesJdbcRepository.countMessages(roomId);
+        Map<Long, Long> readIndexes = messagesJdbcRepository.findMemberReadIndexes(roomId, maxMembers + 1);
+        boolean allMembers = readIndexes.size() <= maxMembers;
+
+        Map<Long, Long> readSeqByUser = new HashMap<>();
+        if (allMembers && !readIndexes.isEmpty()) {
+            // DB 반영 전인 readIndex 는 Redis 값이 더 크다
+            readIndexStore.readIndexes(roomId, new ArrayList<>(readIndexes.keySet()))
+                    .forEach((userId, readIndex) -> readIndexes.merge(userId, readIndex, Math::max));
+
+            List<Long> recentIds = messagesJdbcRepository.findRecentMessageIds(roomId, maxUnread);
+            readIndexes.forEach((userId, readIndex) ->
+                    readSeqByUser.put(userId, Math.max(0L, roomCount - countAfter(recentIds, readIndex))));
+        }
+
+        if (unreadCountStore.reconcile(roomId, roomCount, readSeqByUser, allMembers)) {
+            exactCounter.increment();
+        }
+        reconciledCounter.increment();
+    }
+
+    // 최근 메세지 아이디(최신순) 중 readIndex 보다 큰 아이디 수
+    private long countAfter(List<Long> recentIdsDesc, long readIndex) {
+        int low = 0;
+        int high = recentIdsDesc.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (recentIdsDesc.get(mid) > readIndex) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,41 @@
+package sync.slamtalk.common.db;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * 스키마 마이그레이션 (Flyway) 설정
+ *
+ * - 마이그레이션 위치 : classpath:db/schema/{vendor} (MySQL 전용 DDL 이 H2 테스트 DB 에서 실행되지 않도록 DB 별로 분리)
+ * - baseline-on-migrate : ddl-auto 로 만들어진 기존 DB 는 버전 0 으로 baseline 후 V1 부터 적용 (V1, V2 는 이미 있는 테이블/인덱스를 건너뜀)
+ */
+@Configuration
+public class FlywayConfig {
+
+    private static final String LOCATION_PREFIX = "classpath:db/schema/";
+
+    @Bean
+    public FlywayConfigurationCustomizer vendorSchemaLocationCustomizer() {
+        return configuration -> configuration
+                .locations(LOCATION_PREFIX + vendorOf(configuration.getDataSource()))
+                .baselineOnMigrate(true)
+                .baselineVersion("0");
+    }
+
+    // JDBC URL 로 DB 종류 (mysql, h2 ...)
+    private static String vendorOf(DataSource dataSource) {
+        try {
+            String url = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getURL);
+            return DatabaseDriver.fromJdbcUrl(url).getId();
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("DB 종류를 확인할 수 없습니다.", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package sync.slamtalk.common.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+
+/**
+ * 아이디 발급기 설정
+ *
+ * - id.snowflake.node-id : 서버(노드) 아이디 0 ~ 1023, 서버마다 달라야 한다.
+ *   설정하지 않으면 Redis 에서 비어 있는 노드 아이디를 임대한다. ({@link SnowflakeNodeLease})
+ *   (호스트 이름 해시는 서버끼리 겹칠 수 있으므로 임대를 시작할 위치로만 사용)
+ * - id.snowflake.max-clock-skew-millis : 서버 시계와 Redis 시계의 최대 차이, 넘으면 시작하지 않는다.
+ *   임대한 노드 아이디를 잃거나 실행 중에 차이가 넘으면 다시 정상이 될 때까지 아이디를 발급하지 않는다.
+ * - Snowflake 아이디를 사용하는 엔티티는 insert 를 batch 로 보낼 수 있도록 Hibernate batch 설정을 켠다.
+ */
+@Slf4j
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public SnowflakeNodeLease snowflakeNodeLease(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${id.snowflake.lease-ttl-seconds:60}") long leaseTtlSeconds,
+            @Value("${id.snowflake.max-clock-skew-millis:1000}") long maxClockSkewMillis
+    ) {
+        return new SnowflakeNodeLease(stringRedisTemplate, Duration.ofSeconds(leaseTtlSeconds), maxClockSkewMillis);
+    }
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(
+            @Value("${id.snowflake.node-id:-1}") long nodeId,
+            ObjectProvider<SnowflakeNodeLease> nodeLease
+    ) {
+        SnowflakeIdGenerator generator;
+        if (nodeId >= 0) {
+            generator = new SnowflakeIdGenerator(nodeId);
+        } else {
+            SnowflakeNodeLease lease = nodeLease.getObject();
+            generator = new SnowflakeIdGenerator(lease.acquire(nodeIdFromHostName()));
+            generator.setGuard(lease::isValid);
+        }
+        SnowflakeIdGenerator.configureShared(generator);
+        log.info("Snowflake 아이디 발급기 노드 아이디 : {}", generator.getNodeId());
+        return generator;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchCustomizer(@Value("${id.jdbc-batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+
+    private long nodeIdFromHostName() {
+        try {
+            String hostName = InetAddress.getLocalHost().getHostName();
+            return Math.floorMod(hostName.hashCode(), SnowflakeIdGenerator.MAX_NODE_ID + 1);
+        } catch (UnknownHostException e) {
+            log.warn("호스트 이름을 알 수 없어 노드 아이디 0 을 사용합니다.");
+            return 0;
+        }
+    }
+}
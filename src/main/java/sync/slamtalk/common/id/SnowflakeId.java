@@ -0,0 +1,24 @@
+package sync.slamtalk.common.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 엔티티 식별자를 Snowflake 아이디로 발급
+ * IDENTITY 와 달리 insert 전에 아이디가 정해지므로 Hibernate JDBC batch insert 가 동작한다.
+ *
+ * <pre>
+ * &#64;Id
+ * &#64;SnowflakeId
+ * private Long id;
+ * </pre>
+ */
+@IdGeneratorType(SnowflakeIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
@@ -0,0 +1,139 @@
+package sync.slamtalk.common.id;
+
+import sync.slamtalk.common.BaseException;
+import sync.slamtalk.common.ErrorResponseCode;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake 방식 64bit 아이디 발급기
+ *
+ * | 1bit (0) | 41bit 타임스탬프(ms, EPOCH 기준) | 10bit 노드 아이디 | 12bit 시퀀스 |
+ *
+ * - 시간순 정렬 : 아이디 크기 비교가 곧 발급 시각 비교가 된다.
+ * - 노드 구분 : 서버마다 다른 노드 아이디를 사용하면 DB 왕복 없이도 아이디가 겹치지 않는다.
+ * - 단조 증가 : 한 노드 안에서는 시계가 뒤로 가더라도 항상 이전 아이디보다 큰 아이디를 발급한다.
+ *   서로 다른 노드의 아이디 순서는 노드 시계 차이와 노드 아이디 순서만큼 어긋날 수 있다.
+ *   노드끼리도 순서가 맞아야 하는 곳은 nextIdAfter 로 마지막 아이디보다 큰 아이디를 발급한다.
+ * - 발급 중단 : 노드 아이디 임대를 잃었거나 시계 차이가 허용 범위를 넘으면 ({@link SnowflakeNodeLease})
+ *   아이디가 겹치거나 순서가 어긋나지 않도록 다시 정상이 될 때까지 발급하지 않는다.
+ */
+public class SnowflakeIdGenerator {
+
+    // 2024-01-01T00:00:00Z
+    public static final long EPOCH = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int NODE_SHIFT = SEQUENCE_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + NODE_BITS;
+
+    // Hibernate 아이디 생성기처럼 스프링 빈을 주입받을 수 없는 곳에서 사용하는 공용 인스턴스
+    private static volatile SnowflakeIdGenerator shared = new SnowflakeIdGenerator(0);
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    // 발급해도 되는 상태인지 (노드 아이디 임대, 시계 차이)
+    private volatile BooleanSupplier guard = () -> true;
+
+    private long lastTimestamp = -1L;
+    private long sequence = 0L;
+
+    public SnowflakeIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId 는 0 ~ " + MAX_NODE_ID + " 사이여야 합니다 : " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public static SnowflakeIdGenerator shared() {
+        return shared;
+    }
+
+    static void configureShared(SnowflakeIdGenerator generator) {
+        shared = generator;
+    }
+
+    void setGuard(BooleanSupplier guard) {
+        this.guard = guard;
+    }
+
+    /**
+     * 다음 아이디 발급
+     * 같은 ms 안에서 시퀀스를 모두 사용했거나 시계가 뒤로 간 경우
+     * 기다리지 않고 마지막 타임스탬프를 이어서 사용한다.
+     */
+    public synchronized long nextId() {
+        checkAvailable();
+        return next(clock.getAsLong());
+    }
+
+    /**
+     * floor 보다 큰 다음 아이디 발급
+     * 다른 노드가 발급한 아이디(floor)가 이 노드 시계보다 앞서 있으면 floor 의 시각부터 이어서 발급한다.
+     * (같은 ms 라도 노드 아이디가 더 큰 노드의 아이디일 수 있으므로 그때는 다음 ms 로 넘어간다)
+     *
+     * @param floor 이보다 큰 아이디를 발급
+     */
+    public synchronized long nextIdAfter(long floor) {
+        checkAvailable();
+        long id = next(Math.max(clock.getAsLong(), timestampOf(floor)));
+        if (id <= floor) {
+            id = next(timestampOf(floor) + 1);
+        }
+        return id;
+    }
+
+    private void checkAvailable() {
+        if (!guard.getAsBoolean()) {
+            throw new BaseException(ErrorResponseCode.CHAT_FAIL);
+        }
+    }
+
+    private long next(long now) {
+        long timestamp = Math.max(now, lastTimestamp);
+
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                timestamp = lastTimestamp + 1;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+
+        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT)
+                | (nodeId << NODE_SHIFT)
+                | sequence;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 아이디가 발급된 시각 (epoch millis)
+     */
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+
+    /**
+     * 특정 시각 이전에 발급된 아이디보다 항상 큰 가장 작은 아이디
+     * (시각 기준 keyset 조회 경계로 사용)
+     */
+    public static long minIdAt(long epochMillis) {
+        return (epochMillis - EPOCH) << TIMESTAMP_SHIFT;
+    }
+}
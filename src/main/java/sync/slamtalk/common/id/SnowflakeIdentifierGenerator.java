@@ -0,0 +1,20 @@
+package sync.slamtalk.common.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * {@link SnowflakeId} 가 붙은 식별자의 Hibernate 생성기
+ * 이미 아이디가 할당된 엔티티(write-behind 등에서 미리 발급한 경우)는 그 아이디를 그대로 사용한다.
+ */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Object assigned = session.getEntityPersister(null, object).getIdentifier(object, session);
+        if (assigned != null) {
+            return assigned;
+        }
+        return SnowflakeIdGenerator.shared().nextId();
+    }
+}
@@ -0,0 +1,171 @@
+package sync.slamtalk.common.id;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Snowflake 노드 아이디 임대 (Redis)
+ * id.snowflake.node-id 를 설정하지 않은 서버는 Redis 에서 비어 있는 노드 아이디를 하나 빌려서 사용한다.
+ * 호스트 이름 해시처럼 서버끼리 같은 노드 아이디를 사용해서 아이디가 겹치는 일이 없다.
+ *
+ * - 임대 : id_snowflake:node:{nodeId} 키를 SET NX 로 선점, 서버가 살아 있는 동안 주기적으로 TTL 을 연장한다.
+ * - 반납 : 종료 시 키를 삭제한다. (비정상 종료 시에는 TTL 이 지나야 다른 서버가 사용할 수 있다)
+ * - 시계 : 서버 시계와 Redis 시계 차이가 maxClockSkew 를 넘으면 시작하지 않는다. (아래 참고)
+ * - 발급 중단 : 임대가 만료되었거나(연장 실패, 다른 서버가 가져감) 실행 중에 시계 차이가 maxClockSkew 를 넘으면
+ *   isValid 가 false 가 되어 아이디 발급이 실패한다. 다시 임대하고 시계 차이가 범위 안으로 돌아오면 발급을 재개한다.
+ *
+ * Snowflake 아이디는 노드 안에서만 단조 증가하고, 서로 다른 노드의 아이디 순서는 두 서버의 시계 차이만큼 어긋날 수 있다.
+ * 채팅 메세지는 아이디 순으로 정렬하므로 모든 서버의 시계를 같은 기준(Redis TIME)과 maxClockSkew 이내로 맞춘다.
+ */
+@Slf4j
+public class SnowflakeNodeLease {
+
+    private static final String KEY_PREFIX = "id_snowflake:node:";
+
+    // 내가 임대한 키일 때만 TTL 연장
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "end " +
+            "return 0", Long.class);
+
+    // 내가 임대한 키일 때만 삭제
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration ttl;
+    private final long maxClockSkewMillis;
+    private final String owner = UUID.randomUUID().toString();
+
+    private long nodeId = -1;
+    // 임대가 유효한 시각 (System.nanoTime 기준, 서버 시계 변경에 영향받지 않도록)
+    private volatile long leaseValidUntilNanos = Long.MIN_VALUE;
+    private volatile boolean leased = false;
+    private volatile boolean clockInSync = true;
+
+    public SnowflakeNodeLease(StringRedisTemplate stringRedisTemplate, Duration ttl, long maxClockSkewMillis) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttl = ttl;
+        this.maxClockSkewMillis = maxClockSkewMillis;
+    }
+
+    /**
+     * 비어 있는 노드 아이디 임대
+     * preferred 부터 차례대로 찾는다.
+     *
+     * @param preferred 먼저 시도할 노드 아이디
+     * @return 임대한 노드 아이디
+     */
+    public synchronized long acquire(long preferred) {
+        checkClockSkew(true);
+        for (long i = 0; i <= SnowflakeIdGenerator.MAX_NODE_ID; i++) {
+            long candidate = (preferred + i) % (SnowflakeIdGenerator.MAX_NODE_ID + 1);
+            long requestedAt = System.nanoTime();
+            if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key(candidate), owner, ttl))) {
+                nodeId = candidate;
+                leased(requestedAt);
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("임대할 수 있는 Snowflake 노드 아이디가 없습니다.");
+    }
+
+    /**
+     * 아이디를 발급해도 되는지
+     * 임대가 만료되지 않았고 (연장하지 못한 채 TTL 이 지나면 다른 서버가 가져갈 수 있음) 시계 차이가 허용 범위 안일 때만 true
+     */
+    public boolean isValid() {
+        return leased && clockInSync && System.nanoTime() - leaseValidUntilNanos < 0;
+    }
+
+    /**
+     * 임대 연장
+     * 연장하지 못했으면 (Redis 데이터 유실 등) 같은 노드 아이디를 다시 선점한다.
+     * 다른 서버가 이미 가져갔으면 아이디가 겹치지 않도록 발급을 중단하고, 그 서버가 반납할 때까지 다시 선점을 시도한다.
+     */
+    @Scheduled(fixedDelayString = "${id.snowflake.lease-renew-millis:10000}")
+    public synchronized void renew() {
+        if (nodeId < 0) {
+            return;
+        }
+        long requestedAt = System.nanoTime();
+        Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(key(nodeId)), owner, String.valueOf(ttl.toMillis()));
+        if (renewed != null && renewed == 1) {
+            leased(requestedAt);
+        } else if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key(nodeId), owner, ttl))) {
+            log.warn("Snowflake 노드 아이디 임대가 사라져서 다시 임대했습니다 : {}", nodeId);
+            leased(requestedAt);
+        } else {
+            leased = false;
+            log.error("Snowflake 노드 아이디 {} 를 다른 서버가 사용하고 있어서 아이디 발급을 중단합니다.", nodeId);
+        }
+        checkClockSkew(false);
+    }
+
+    // 요청을 보낸 시각부터 TTL 동안 유효 (응답이 늦게 와도 Redis 의 만료보다 늦게 끝나지 않도록)
+    private void leased(long requestedAtNanos) {
+        leaseValidUntilNanos = requestedAtNanos + ttl.toNanos();
+        leased = true;
+    }
+
+    @PreDestroy
+    public synchronized void release() {
+        if (nodeId < 0) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(key(nodeId)), owner);
+        } catch (Exception e) {
+            log.warn("Snowflake 노드 아이디 반납 실패 : {}", e.getMessage());
+        }
+        nodeId = -1;
+        leased = false;
+    }
+
+    /**
+     * 서버 시계와 Redis 시계 차이 확인
+     * 왕복 시간의 절반은 오차로 보고 허용한다.
+     *
+     * @param enforce true 면 차이가 maxClockSkew 를 넘을 때 예외 (시작 시), false 면 범위 안으로 돌아올 때까지 발급 중단
+     */
+    void checkClockSkew(boolean enforce) {
+        long before = System.currentTimeMillis();
+        Long redisTime = stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().time());
+        long after = System.currentTimeMillis();
+        if (redisTime == null) {
+            return;
+        }
+        long skew = Math.abs(redisTime - (before + after) / 2);
+        long tolerance = maxClockSkewMillis + (after - before) / 2;
+        if (skew <= tolerance) {
+            if (!clockInSync) {
+                log.warn("서버 시계와 Redis 시계 차이가 허용 범위로 돌아와서 아이디 발급을 재개합니다 : {}ms", skew);
+            }
+            clockInSync = true;
+            return;
+        }
+        String message = "서버 시계와 Redis 시계 차이가 " + skew + "ms 로 허용 범위(" + maxClockSkewMillis + "ms)를 넘었습니다. NTP 설정을 확인하세요.";
+        if (enforce) {
+            throw new IllegalStateException(message);
+        }
+        clockInSync = false;
+        log.error(message + " 아이디 발급을 중단합니다.");
+    }
+
+    private String key(long nodeId) {
+        return KEY_PREFIX + nodeId;
+    }
+}
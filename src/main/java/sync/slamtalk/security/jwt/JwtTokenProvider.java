@@ -168,6 +168,19 @@ public class JwtTokenProvider implements InitializingBean {
         return Long.valueOf(claims.getSubject());
     }
 
+    /**
+     * 웹소켓 STOMP CONNECT 시 accessToken 을 검증하고 Claims 를 반환하는 메서드
+     * userId(subject) 와 만료 시각(expiration) 을 세션에 저장해서 이후 프레임에서는 다시 검증하지 않는다.
+     * @param accessToken Bearer 접두사가 붙은 엑세스 토큰
+     * @return Claims
+     * */
+    public Claims stompExtractClaimsFromToken(String accessToken){
+        // 웹 소켓에서 오는 Bearer 키워드 제거하기
+        String token = resolveToken(accessToken);
+
+        return getClaimsFromAccessToken(token);
+    }
+
     /**
      *  accessToken에서 서명 검증 및 Claims 반환하는 메서드
      *
@@ -0,0 +1,24 @@
+package sync.slamtalk.user.cache;
+
+import sync.slamtalk.user.entity.User;
+
+/**
+ * 채팅 메세지에 표시되는 발신자 프로필
+ *
+ * @param userId   유저 아이디
+ * @param nickname 닉네임 (존재하지 않는 유저라면 null)
+ * @param imageUrl 프로필 이미지 (존재하지 않는 유저라면 null)
+ */
+public record SenderProfile(Long userId, String nickname, String imageUrl) {
+
+    public static SenderProfile from(User user) {
+        return new SenderProfile(user.getId(), user.getNickname(), user.getImageUrl());
+    }
+
+    /**
+     * 탈퇴했거나 존재하지 않는 유저의 프로필 (negative caching 용)
+     */
+    public static SenderProfile unknown(Long userId) {
+        return new SenderProfile(userId, null, null);
+    }
+}
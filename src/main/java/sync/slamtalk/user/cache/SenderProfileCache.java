@@ -0,0 +1,148 @@
+package sync.slamtalk.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sync.slamtalk.user.UserRepository;
+import sync.slamtalk.user.entity.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 채팅 메세지 발신자 프로필(닉네임, 이미지) 캐시
+ * 메세지 한 페이지를 만들 때 발신자마다 findById 를 호출하지 않고
+ * 캐시에 없는 발신자만 findAllById 한번으로 채운다.
+ *
+ * 프로필이 변경되면 해당 유저를 제거하고, Redis 채널(chat:sender-profile:evict)로
+ * 다른 서버에도 알려서 같은 유저를 제거하게 한다.
+ * pub/sub 은 연결이 끊긴 동안의 신호를 잃을 수 있으므로 ttl 이 지나면 다시 조회한다.
+ * 히트/미스, 제거 횟수는 cache.* 메트릭(cache=chat.sender.profile)으로 노출된다.
+ */
+@Slf4j
+@Component
+public class SenderProfileCache implements MessageListener {
+
+    public static final String CACHE_NAME = "chat.sender.profile";
+    public static final String EVICT_CHANNEL = "chat:sender-profile:evict";
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Cache<Long, SenderProfile> cache;
+
+    public SenderProfileCache(
+            UserRepository userRepository,
+            StringRedisTemplate stringRedisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${chat.sender-profile-cache.maximum-size:10000}") long maximumSize,
+            @Value("${chat.sender-profile-cache.ttl-seconds:600}") long ttlSeconds
+    ) {
+        this.userRepository = userRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 발신자 한 명의 프로필 조회
+     *
+     * @param userId 발신자 아이디
+     * @return SenderProfile (존재하지 않는 유저라면 nickname, imageUrl 이 null)
+     */
+    public SenderProfile get(Long userId) {
+        return getAll(Set.of(userId)).get(userId);
+    }
+
+    /**
+     * 여러 발신자의 프로필 조회
+     * 캐시에 없는 발신자들은 한번의 findAllById 로 가져온다.
+     *
+     * @param userIds 발신자 아이디 목록
+     * @return 발신자 아이디 -> SenderProfile
+     */
+    public Map<Long, SenderProfile> getAll(Collection<Long> userIds) {
+        Set<Long> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return cache.getAll(ids, this::loadAll);
+    }
+
+    /**
+     * 프로필이 변경된 유저를 캐시에서 제거하고 다른 서버에도 알림
+     * 트랜잭션 안에서 호출되면 커밋 이후에 한번 더 제거해서
+     * 커밋 전에 다시 적재된 이전 값이 남지 않도록 하고, 다른 서버에는 커밋 이후에 알린다.
+     * (커밋 전에 알리면 다른 서버가 이전 값을 다시 적재할 수 있음)
+     *
+     * @param userId 유저 아이디
+     */
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                    publish(userId);
+                }
+            });
+            return;
+        }
+        publish(userId);
+    }
+
+    // 다른 서버에서 보낸 제거 신호 수신
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            cache.invalidate(Long.parseLong(body));
+        } catch (NumberFormatException e) {
+            log.warn("[발신자 프로필 캐시] 잘못된 제거 신호 : {}", body);
+        }
+    }
+
+    // 알림에 실패해도 다른 서버는 ttl 이 지나면 다시 조회하므로 예외를 던지지 않음
+    private void publish(Long userId) {
+        try {
+            stringRedisTemplate.convertAndSend(EVICT_CHANNEL, String.valueOf(userId));
+        } catch (Exception e) {
+            log.warn("[발신자 프로필 캐시] 제거 신호 발행 실패 {} : {}", userId, e.getMessage());
+        }
+    }
+
+    private Map<Long, SenderProfile> loadAll(Set<? extends Long> userIds) {
+        log.debug("[발신자 프로필 캐시] DB 조회 : {}", userIds);
+        Map<Long, SenderProfile> loaded = new HashMap<>();
+        for (User user : userRepository.findAllById(new ArrayList<Long>(userIds))) {
+            loaded.put(user.getId(), SenderProfile.from(user));
+        }
+        // 존재하지 않는 유저도 캐시해서 매번 DB 를 조회하지 않도록 함
+        for (Long userId : userIds) {
+            loaded.putIfAbsent(userId, SenderProfile.unknown(userId));
+        }
+        return loaded;
+    }
+}
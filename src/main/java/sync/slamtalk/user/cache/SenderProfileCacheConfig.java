@@ -0,0 +1,25 @@
+package sync.slamtalk.user.cache;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 다른 서버에서 보낸 발신자 프로필 캐시 제거 신호를 수신하는 리스너 설정
+ */
+@Configuration
+public class SenderProfileCacheConfig {
+
+    @Bean
+    public RedisMessageListenerContainer senderProfileEvictListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            SenderProfileCache senderProfileCache
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(senderProfileCache, new ChannelTopic(SenderProfileCache.EVICT_CHANNEL));
+        return container;
+    }
+}
@@ -20,6 +20,7 @@ import sync.slamtalk.team.dto.ToTeamFormDTO;
 import sync.slamtalk.team.entity.TeamMatching;
 import sync.slamtalk.team.repository.TeamMatchingRepository;
 import sync.slamtalk.user.UserRepository;
+import sync.slamtalk.user.cache.SenderProfileCache;
 import sync.slamtalk.user.dto.request.UpdateUserDetailInfoReq;
 import sync.slamtalk.user.dto.request.UserUpdateNicknameReq;
 import sync.slamtalk.user.dto.request.UserUpdatePositionAndSkillReq;
@@ -55,6 +56,7 @@ public class UserService {
     private final CommunityRepository communityRepository;
     private final AwsS3RepositoryImpl awsS3Service;
     private final EntityToDtoMapper entityToDtoMapper;
+    private final SenderProfileCache senderProfileCache;
 
     /**
      * 유저의 마이페이지 보기 조회시 사용되는 서비스
@@ -176,6 +178,7 @@ public class UserService {
         log.debug("유저 아이디 " + userId);
         checkNicknameExistence(userUpdateNicknameReq.getNickname());
         userRepository.updateUserNickname(userId, userUpdateNicknameReq.getNickname());
+        senderProfileCache.evict(userId);
     }
 
     /**
@@ -254,6 +257,7 @@ public class UserService {
             log.debug("[유저 마이페이지 수정] 닉네임 변경 시도!");
             checkNicknameExistence(updateUserDetailInfoReq.getNickname());
             user.updateNickname(updateUserDetailInfoReq.getNickname());
+            senderProfileCache.evict(userId);
         }
 
         // 이미지 파일이 존재한다면 업데이트
@@ -261,6 +265,7 @@ public class UserService {
             log.debug("[유저 마이페이지 수정] 파일 업데이트 시도!");
             String fileUrl = awsS3Service.uploadFile(file);
             user.updateProfileUrl(fileUrl);
+            senderProfileCache.evict(userId);
         }
 
         // 자기 소개 한마디이 null이 아니라면 값 update 하기
@@ -0,0 +1,75 @@
+-- 채팅 테이블 (chatroom, user_chatroom, messages)
+-- ddl-auto 로 이미 만들어진 DB 에서는 있는 테이블을 건너뛴다. (baseline-on-migrate)
+-- 다른 테이블을 참조하는 외래키는 해당 테이블이 만들어진 뒤 추가된다.
+
+create table if not exists chatroom (
+    chatroom_id          bigint       not null auto_increment,
+    created_at           datetime(6),
+    updated_at           datetime(6),
+    is_deleted           bit,
+    chatroom_type        enum ('DIRECT','TOGETHER','BASKETBALL','MATCHING') not null,
+    chatroom_name        varchar(255),
+    basketball_id        bigint,
+    together_id          bigint,
+    team_matching_id     bigint,
+    last_message_id      bigint,
+    last_message_preview varchar(100),
+    last_activity_at     datetime(6),
+    primary key (chatroom_id)
+) engine = InnoDB;
+
+create table if not exists user_chatroom (
+    user_chatroom_id bigint not null,
+    created_at       datetime(6),
+    updated_at       datetime(6),
+    is_deleted       bit,
+    user_id          bigint not null,
+    chatroom_id      bigint not null,
+    chatroom_name    varchar(255),
+    chatroom_type    enum ('DIRECT','TOGETHER','BASKETBALL','MATCHING'),
+    basketball_id    bigint,
+    together_id      bigint,
+    team_matching_id bigint,
+    direct_id        bigint,
+    chatroom_img     varchar(255),
+    read_index       bigint,
+    is_first         bit,
+    primary key (user_chatroom_id),
+    constraint fk_user_chatroom_chatroom_id foreign key (chatroom_id) references chatroom (chatroom_id)
+) engine = InnoDB;
+
+create table if not exists messages (
+    message_id      bigint       not null,
+    created_at      datetime(6),
+    updated_at      datetime(6),
+    is_deleted      bit,
+    sender_nickname varchar(255),
+    sender_id       bigint,
+    content         varchar(255),
+    creation_time   varchar(255) not null,
+    chatroom_id     bigint       not null,
+    primary key (message_id),
+    constraint fk_messages_chatroom_id foreign key (chatroom_id) references chatroom (chatroom_id)
+) engine = InnoDB;
+
+-- ddl-auto 로 만들어진 DB 에 마지막 메세지 컬럼 추가 (이미 있으면 건너뜀)
+set @ddl = (select if(count(*) = 0, 'alter table chatroom add column last_message_id bigint', 'select 1')
+            from information_schema.columns
+            where table_schema = database() and table_name = 'chatroom' and column_name = 'last_message_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = (select if(count(*) = 0, 'alter table chatroom add column last_message_preview varchar(100)', 'select 1')
+            from information_schema.columns
+            where table_schema = database() and table_name = 'chatroom' and column_name = 'last_message_preview');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = (select if(count(*) = 0, 'alter table chatroom add column last_activity_at datetime(6)', 'select 1')
+            from information_schema.columns
+            where table_schema = database() and table_name = 'chatroom' and column_name = 'last_activity_at');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
@@ -0,0 +1,118 @@
+-- 채팅 조회 쿼리용 인덱스
+-- MySQL 은 create index if not exists 를 지원하지 않으므로 information_schema 로 확인 후 생성한다.
+-- (ddl-auto 로 같은 이름의 인덱스가 이미 만들어졌을 수 있음)
+
+-- unique 인덱스를 만들기 전에 중복 확인
+-- MySQL DDL 은 트랜잭션이 아니라서 인덱스를 만드는 도중에 실패하면 앞의 인덱스만 만들어진 채로 남으므로
+-- 모든 DDL 보다 먼저 중복을 정리하거나, 정리할 수 없으면 아무것도 바꾸지 않고 중단한다.
+
+-- user_chatroom (user_id, chatroom_id) 중복 : 한 행만 남김
+-- 가장 큰 readIndex 를 남길 행에 옮긴 뒤, 나가지 않은 행 -> readIndex 가 큰 행 -> 아이디가 큰 행 순으로 하나만 남기고 삭제
+update user_chatroom u
+    join (select user_id, chatroom_id, max(read_index) as read_index
+          from user_chatroom
+          group by user_id, chatroom_id
+          having count(*) > 1) d on d.user_id = u.user_id and d.chatroom_id = u.chatroom_id
+set u.read_index = d.read_index;
+
+delete u
+from user_chatroom u
+         join (select user_chatroom_id,
+                      row_number() over (partition by user_id, chatroom_id
+                          order by coalesce(is_deleted, 0), coalesce(read_index, -1) desc, user_chatroom_id desc) as rn
+               from user_chatroom) d on d.user_chatroom_id = u.user_chatroom_id
+where d.rn > 1;
+
+-- chatroom 의 농구장/같이하기/팀매칭 아이디 중복 : 채팅방마다 메세지와 참여자가 있어서 자동으로 합칠 수 없으므로 중단
+-- 없는 테이블을 조회해서 실패시키고, 테이블 이름으로 어떤 중복인지 알려준다.
+-- 정리 : select basketball_id, group_concat(chatroom_id) from chatroom where basketball_id is not null group by basketball_id having count(*) > 1;
+--        로 찾아서 남길 채팅방 외에는 basketball_id 를 null 로 바꾸거나 메세지/참여자를 옮긴 뒤 다시 실행 (together_id, team_matching_id 도 같음)
+set @ddl = (select if(count(*) = 0, 'select 1', 'select 1 from v2_aborted_duplicate_chatroom_basketball_id')
+            from (select basketball_id from chatroom where basketball_id is not null group by basketball_id having count(*) > 1) d);
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = (select if(count(*) = 0, 'select 1', 'select 1 from v2_aborted_duplicate_chatroom_together_id')
+            from (select together_id from chatroom where together_id is not null group by together_id having count(*) > 1) d);
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = (select if(count(*) = 0, 'select 1', 'select 1 from v2_aborted_duplicate_chatroom_team_matching_id')
+            from (select team_matching_id from chatroom where team_matching_id is not null group by team_matching_id having count(*) > 1) d);
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 채팅방별 keyset 페이징 (과거 내역, 새 메세지)
+set @ddl = (select if(count(*) = 0, 'create index idx_messages_chatroom_id_message_id on messages (chatroom_id, message_id desc)', 'select 1')
+            from information_schema.statistics
+            where table_schema = database() and table_name = 'messages' and index_name = 'idx_messages_chatroom_id_message_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 유저의 채팅방 (참여 여부, readIndex, 채팅 리스트)
+set @ddl = (select if(count(*) = 0, 'create unique index uk_user_chatroom_user_id_chatroom_id on user_chatroom (user_id, chatroom_id)', 'select 1')
+            from information_schema.statistics
+            where table_schema = database() and table_name = 'user_chatroom' and index_name = 'uk_user_chatroom_user_id_chatroom_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 1:1 채팅방 찾기
+set @ddl = (select if(count(*) = 0, 'create index idx_user_chatroom_user_id_direct_id on user_chatroom (user_id, direct_id)', 'select 1')
+            from information_schema.statistics
+            where table_schema = database() and table_name = 'user_chatroom' and index_name = 'idx_user_chatroom_user_id_direct_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 유저의 농구장 채팅방 찾기
+set @ddl = (select if(count(*) = 0, 'create index idx_user_chatroom_user_id_basketball_id on user_chatroom (user_id, basketball_id)', 'select 1')
+            from information_schema.statistics
+            where table_schema = database() and table_name = 'user_chatroom' and index_name = 'idx_user_chatroom_user_id_basketball_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 같이하기 게시글 채팅방
+set @ddl = (select if(count(*) = 0, 'create index idx_user_chatroom_together_id on user_chatroom (together_id)', 'select 1')
+            from information_schema.statistics
+            where table_schema = database() and table_name = 'user_chatroom' and index_name = 'idx_user_chatroom_together_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 팀매칭 게시글 채팅방
+set @ddl = (select if(count(*) = 0, 'create index idx_user_chatroom_team_matching_id on user_chatroom (team_matching_id)', 'select 1')
+            from information_schema.statistics
+            where table_schema = database() and table_name = 'user_chatroom' and index_name = 'idx_user_chatroom_team_matching_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 농구장 채팅방 (농구장당 하나)
+set @ddl = (select if(count(*) = 0, 'create unique index uk_chatroom_basketball_id on chatroom (basketball_id)', 'select 1')
+            from information_schema.statistics
+            where table_schema = database() and table_name = 'chatroom' and index_name = 'uk_chatroom_basketball_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 같이하기 채팅방 (게시글당 하나)
+set @ddl = (select if(count(*) = 0, 'create unique index uk_chatroom_together_id on chatroom (together_id)', 'select 1')
+            from information_schema.statistics
+            where table_schema = database() and table_name = 'chatroom' and index_name = 'uk_chatroom_together_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 팀매칭 채팅방 (게시글당 하나)
+set @ddl = (select if(count(*) = 0, 'create unique index uk_chatroom_team_matching_id on chatroom (team_matching_id)', 'select 1')
+            from information_schema.statistics
+            where table_schema = database() and table_name = 'chatroom' and index_name = 'uk_chatroom_team_matching_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
@@ -0,0 +1,12 @@
+-- 마지막 메세지 컬럼이 추가되기 전에 만들어진 채팅방의 last_message_* 채우기
+-- 이미 채워진 채팅방은 건드리지 않는다.
+
+update chatroom c
+set last_message_id = (select max(m.message_id) from messages m where m.chatroom_id = c.chatroom_id)
+where c.last_message_id is null;
+
+update chatroom c
+set last_message_preview = (select substring(m.content, 1, 100) from messages m where m.message_id = c.last_message_id),
+    last_activity_at     = (select m.created_at from messages m where m.message_id = c.last_message_id)
+where c.last_message_id is not null
+  and c.last_activity_at is null;
@@ -0,0 +1,29 @@
+-- 1:1 채팅방 참여자 키 (작은 유저 아이디:큰 유저 아이디)
+-- 같은 두 유저의 1:1 채팅방이 동시에 만들어지지 않도록 unique
+
+set @ddl = (select if(count(*) = 0, 'alter table chatroom add column direct_key varchar(41)', 'select 1')
+            from information_schema.columns
+            where table_schema = database() and table_name = 'chatroom' and column_name = 'direct_key');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 기존 1:1 채팅방 채우기 (같은 두 유저의 채팅방이 여러개면 가장 최근 채팅방만)
+update chatroom c
+    join (select max(p.chatroom_id) as chatroom_id, concat(p.user_a, ':', p.user_b) as direct_key
+          from (select u.chatroom_id, min(u.user_id) as user_a, max(u.user_id) as user_b
+                from user_chatroom u
+                         join chatroom r on r.chatroom_id = u.chatroom_id
+                where r.chatroom_type = 'DIRECT'
+                group by u.chatroom_id
+                having count(distinct u.user_id) = 2) p
+          group by p.user_a, p.user_b) k on k.chatroom_id = c.chatroom_id
+set c.direct_key = k.direct_key
+where c.direct_key is null;
+
+set @ddl = (select if(count(*) = 0, 'create unique index uk_chatroom_direct_key on chatroom (direct_key)', 'select 1')
+            from information_schema.statistics
+            where table_schema = database() and table_name = 'chatroom' and index_name = 'uk_chatroom_direct_key');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
@@ -0,0 +1,27 @@
+-- 아카이브로 옮긴 메세지 블록 (블록 본문은 ArchiveStore 에 저장)
+
+create table if not exists message_archive_block (
+    block_id         bigint       not null auto_increment,
+    chatroom_id      bigint       not null,
+    first_message_id bigint       not null,
+    last_message_id  bigint       not null,
+    message_count    int          not null,
+    storage_key      varchar(255) not null,
+    compressed_bytes int          not null,
+    created_at       datetime(6),
+    updated_at       datetime(6),
+    is_deleted       bit,
+    primary key (block_id)
+) engine = InnoDB;
+
+-- 여러 서버가 같은 블록을 동시에 아카이브하면 나중에 등록하는 쪽이 unique 에 걸려서 롤백됨 (메세지 삭제도 함께 롤백)
+set @ddl = (select if(count(*) = 0,
+                      'create unique index uk_message_archive_block_chatroom_id_first_message_id on message_archive_block (chatroom_id, first_message_id)',
+                      'select 1')
+            from information_schema.statistics
+            where table_schema = database()
+              and table_name = 'message_archive_block'
+              and index_name = 'uk_message_archive_block_chatroom_id_first_message_id');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
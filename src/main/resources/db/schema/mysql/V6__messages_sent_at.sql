@@ -0,0 +1,20 @@
+-- 메세지 작성시간 타입 컬럼 (creation_time 문자열은 응답 호환을 위해 유지)
+-- 정렬은 시간 순으로 발급되는 message_id 의 (chatroom_id, message_id) 인덱스를 사용한다.
+
+set @ddl = (select if(count(*) = 0, 'alter table messages add column sent_at datetime(6)', 'select 1')
+            from information_schema.columns
+            where table_schema = database() and table_name = 'messages' and column_name = 'sent_at');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 기존 메세지 채우기 : ISO 형식('T' 또는 공백 구분) creation_time 을 변환
+update messages
+set sent_at = cast(left(replace(creation_time, 'T', ' '), 26) as datetime(6))
+where sent_at is null
+  and creation_time regexp '^[0-9]{4}-[0-9]{2}-[0-9]{2}[T ][0-9]{2}:[0-9]{2}(:[0-9]{2}([.][0-9]{1,9})?)?$';
+
+-- 형식이 맞지 않는 메세지는 저장된 시각으로
+update messages
+set sent_at = created_at
+where sent_at is null;
@@ -0,0 +1,105 @@
+package sync.slamtalk.chat.archive;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import sync.slamtalk.chat.entity.MessageArchiveBlock;
+import sync.slamtalk.chat.repository.MessageArchiveBlockRepository;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageArchiveTest {
+
+    private final MessageArchiveCodec codec = new MessageArchiveCodec(Jackson2ObjectMapperBuilder.json().build());
+    private final Map<String, byte[]> storage = new HashMap<>();
+    private final List<MessageArchiveBlock> blocks = new ArrayList<>();
+
+    private MessageArchive messageArchive;
+
+    @BeforeEach
+    void setUp() {
+        ArchiveStore store = new ArchiveStore() {
+            @Override
+            public void put(String key, byte[] block) {
+                storage.put(key, block);
+            }
+
+            @Override
+            public byte[] get(String key) {
+                return storage.get(key);
+            }
+        };
+        MessageArchiveBlockRepository repository = mock(MessageArchiveBlockRepository.class);
+        when(repository.findFirstByChatRoomIdAndFirstMessageIdLessThanOrderByFirstMessageIdDesc(eq(1L), anyLong()))
+                .thenAnswer(invocation -> {
+                    long cursor = invocation.getArgument(1);
+                    return blocks.stream()
+                            .filter(block -> block.getFirstMessageId() < cursor)
+                            .max(Comparator.comparing(MessageArchiveBlock::getFirstMessageId));
+                });
+        messageArchive = new MessageArchive(repository, mock(MessagesJdbcRepository.class), store, codec,
+                new SimpleMeterRegistry(), 16);
+
+        // 메세지 1~10, 11~20 두 블록
+        archive(1, 10);
+        archive(11, 20);
+    }
+
+    @Test
+    @DisplayName("압축한 블록을 풀면 같은 메세지가 나온다")
+    void codecRoundTrip() {
+        List<ArchivedMessage> messages = messages(1, 3);
+
+        assertThat(codec.decode(codec.encode(messages))).isEqualTo(messages);
+    }
+
+    @Test
+    @DisplayName("커서 이전 메세지를 최신순으로 여러 블록에 걸쳐 읽는다")
+    void findBeforeAcrossBlocks() {
+        List<ArchivedMessage> page = messageArchive.findBefore(1L, 14, 6);
+
+        assertThat(page).extracting(ArchivedMessage::id).containsExactly(13L, 12L, 11L, 10L, 9L, 8L);
+    }
+
+    @Test
+    @DisplayName("가장 오래된 블록을 지나면 더 읽지 않는다")
+    void findBeforeStopsAtOldestBlock() {
+        assertThat(messageArchive.findBefore(1L, 3, 10)).extracting(ArchivedMessage::id).containsExactly(2L, 1L);
+        assertThat(messageArchive.findBefore(1L, 1, 10)).isEmpty();
+    }
+
+    private void archive(long first, long last) {
+        String key = "1/" + first + "-" + last;
+        storage.put(key, codec.encode(messages(first, last)));
+        blocks.add(MessageArchiveBlock.builder()
+                .id((long) blocks.size() + 1)
+                .chatRoomId(1L)
+                .firstMessageId(first)
+                .lastMessageId(last)
+                .messageCount((int) (last - first + 1))
+                .storageKey(key)
+                .compressedBytes(storage.get(key).length)
+                .build());
+    }
+
+    private List<ArchivedMessage> messages(long first, long last) {
+        return LongStream.rangeClosed(first, last)
+                .mapToObj(id -> new ArchivedMessage(id, 3L, "슬램", "메세지 " + id, "2024-01-01T00:00"))
+                .toList();
+    }
+}
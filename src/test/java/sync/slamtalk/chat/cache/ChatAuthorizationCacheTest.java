@@ -0,0 +1,84 @@
+package sync.slamtalk.chat.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import sync.slamtalk.chat.entity.ChatRoom;
+import sync.slamtalk.chat.entity.RoomType;
+import sync.slamtalk.chat.repository.ChatRoomRepository;
+import sync.slamtalk.chat.repository.UserChatRoomRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ChatAuthorizationCacheTest {
+
+    private ChatRoomRepository chatRoomRepository;
+    private UserChatRoomRepository userChatRoomRepository;
+    private StringRedisTemplate stringRedisTemplate;
+    private ChatAuthorizationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        chatRoomRepository = mock(ChatRoomRepository.class);
+        userChatRoomRepository = mock(UserChatRoomRepository.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        cache = new ChatAuthorizationCache(chatRoomRepository, userChatRoomRepository, stringRedisTemplate,
+                new SimpleMeterRegistry(), 1000, 600, 600);
+    }
+
+    @Test
+    @DisplayName("채팅방 타입은 한 번만 조회하고, 없는 채팅방도 캐시한다")
+    void roomTypeIsCached() {
+        ChatRoom chatRoom = ChatRoom.builder().roomType(RoomType.DIRECT).build();
+        given(chatRoomRepository.findById(1L)).willReturn(Optional.of(chatRoom));
+        given(chatRoomRepository.findById(2L)).willReturn(Optional.empty());
+
+        assertThat(cache.roomType(1L)).contains(RoomType.DIRECT);
+        assertThat(cache.roomType(1L)).contains(RoomType.DIRECT);
+        assertThat(cache.roomType(2L)).isEmpty();
+        assertThat(cache.roomType(2L)).isEmpty();
+
+        verify(chatRoomRepository, times(1)).findById(1L);
+        verify(chatRoomRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    @DisplayName("참여 여부를 제거하면 다시 조회한다")
+    void membershipIsReloadedAfterEvict() {
+        given(userChatRoomRepository.existsByUserChatroom(1L, 10L)).willReturn(false, true);
+
+        assertThat(cache.isMember(1L, 10L)).isFalse();
+        assertThat(cache.isMember(1L, 10L)).isFalse();
+
+        cache.evictMembership(1L, 10L);
+
+        assertThat(cache.isMember(1L, 10L)).isTrue();
+        verify(userChatRoomRepository, times(2)).existsByUserChatroom(1L, 10L);
+        verify(stringRedisTemplate).convertAndSend(ChatAuthorizationCache.EVICT_CHANNEL, "membership:1:10");
+    }
+
+    @Test
+    @DisplayName("다른 서버에서 보낸 제거 신호를 받으면 참여 여부를 다시 조회한다")
+    void membershipIsReloadedAfterRemoteEvict() {
+        given(userChatRoomRepository.existsByUserChatroom(1L, 10L)).willReturn(true, false);
+
+        assertThat(cache.isMember(1L, 10L)).isTrue();
+
+        cache.onMessage(new DefaultMessage(
+                ChatAuthorizationCache.EVICT_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "membership:1:10".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(cache.isMember(1L, 10L)).isFalse();
+        verify(userChatRoomRepository, times(2)).existsByUserChatroom(1L, 10L);
+    }
+}
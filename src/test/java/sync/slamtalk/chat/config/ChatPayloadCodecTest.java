@@ -0,0 +1,72 @@
+package sync.slamtalk.chat.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.common.BaseException;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatPayloadCodecTest {
+
+    private final ChatPayloadCodec codec = new ChatPayloadCodec(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    @DisplayName("본문을 한 번에 디코딩하고 문자열 값에 따옴표가 남지 않는다")
+    void decode() {
+        String json = "{\"senderId\":3,\"senderNickname\":\"슬램\",\"content\":\"안녕하세요\",\"unknown\":true}";
+
+        ChatMessageDTO message = codec.decode(json.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(message.getSenderId()).isEqualTo(3L);
+        assertThat(message.getSenderNickname()).isEqualTo("슬램");
+        assertThat(message.getContent()).isEqualTo("안녕하세요");
+    }
+
+    @Test
+    @DisplayName("본문이 비어있으면 빈 메세지를 반환한다")
+    void decodeEmptyPayload() {
+        ChatMessageDTO message = codec.decode(new byte[0]);
+
+        assertThat(message.getContent()).isNull();
+    }
+
+    @Test
+    @DisplayName("JSON 이 아니면 예외가 발생한다")
+    void decodeMalformedPayload() {
+        assertThatThrownBy(() -> codec.decode("not json".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(BaseException.class);
+    }
+
+    @Test
+    @DisplayName("브로드캐스트 프레임은 JSON 으로 한 번 직렬화되고 destination 을 채울 수 있도록 헤더가 열려있다")
+    void encode() {
+        ChatMessageDTO message = ChatMessageDTO.builder()
+                .messageId("10")
+                .roomId("7")
+                .senderId(3L)
+                .senderNickname("슬램")
+                .content("안녕하세요")
+                .build();
+
+        Message<byte[]> frame = codec.encode(message);
+
+        SimpMessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(frame, SimpMessageHeaderAccessor.class);
+        assertThat(accessor).isNotNull();
+        assertThat(accessor.isMutable()).isTrue();
+        assertThat(accessor.getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+
+        ChatMessageDTO decoded = codec.decode(frame.getPayload());
+        assertThat(decoded.getMessageId()).isEqualTo("10");
+        assertThat(decoded.getRoomId()).isEqualTo("7");
+        assertThat(decoded.getContent()).isEqualTo("안녕하세요");
+    }
+}
@@ -0,0 +1,46 @@
+package sync.slamtalk.chat.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sync.slamtalk.chat.cache.ChatAuthorizationCache;
+import sync.slamtalk.chat.service.ChatServiceImpl;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+
+class StompHandlerTest {
+
+    private final StompHandler stompHandler = new StompHandler(mock(ChatServiceImpl.class), mock(ChatAuthorizationCache.class));
+
+    @Test
+    @DisplayName("resume 헤더는 잘못된 항목을 무시하고 같은 채팅방은 큰 아이디를 사용한다")
+    void extractResumePoints() {
+        Map<Long, Long> points = stompHandler.extractResumePoints(" 1:10, 2:abc, 3, 1:12 ,4:7:1, 5:20");
+
+        assertThat(points).containsExactly(entry(1L, 12L), entry(5L, 20L));
+    }
+
+    @Test
+    @DisplayName("resume 헤더는 채팅방 100개까지만 읽는다")
+    void extractResumePointsIsCapped() {
+        String header = IntStream.rangeClosed(1, 150)
+                .mapToObj(roomId -> roomId + ":" + roomId * 10)
+                .collect(Collectors.joining(","));
+
+        Map<Long, Long> points = stompHandler.extractResumePoints(header);
+
+        assertThat(points).hasSize(100).containsEntry(100L, 1000L).doesNotContainKey(101L);
+    }
+
+    @Test
+    @DisplayName("resume 헤더가 없으면 빈 목록")
+    void extractResumePointsFromEmptyHeader() {
+        assertThat(stompHandler.extractResumePoints(null)).isEmpty();
+        assertThat(stompHandler.extractResumePoints(" ")).isEmpty();
+    }
+}
@@ -0,0 +1,47 @@
+package sync.slamtalk.chat.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class StompSessionRegistryTest {
+
+    private final StompSessionRegistry registry = new StompSessionRegistry(new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("토큰이 만료된 세션만 연결을 종료한다")
+    void closeExpiredSessions() throws Exception {
+        WebSocketSession expired = session("expired", Instant.now().minusSeconds(1));
+        WebSocketSession valid = session("valid", Instant.now().plusSeconds(600));
+        registry.register(expired);
+        registry.register(valid);
+
+        registry.closeExpiredSessions();
+
+        verify(expired).close(StompSessionRegistry.TOKEN_EXPIRED);
+        verify(valid, never()).close(any());
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    private WebSocketSession session(String id, Instant expiresAt) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(StompPrincipal.SESSION_ATTRIBUTE, new StompPrincipal(1L, expiresAt));
+
+        WebSocketSession session = mock(WebSocketSession.class);
+        given(session.getId()).willReturn(id);
+        given(session.getAttributes()).willReturn(attributes);
+        return session;
+    }
+}
@@ -0,0 +1,106 @@
+package sync.slamtalk.chat.fanout;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import sync.slamtalk.chat.cache.ChatAuthorizationCache;
+import sync.slamtalk.chat.entity.RoomType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class LargeRoomFanoutTest {
+
+    private final MessageChannel outboundChannel = mock(MessageChannel.class);
+    private final ChatAuthorizationCache chatAuthorizationCache = mock(ChatAuthorizationCache.class);
+    private RoomSubscriberRegistry roomSubscriberRegistry;
+    private LargeRoomFanout largeRoomFanout;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<MessageChannel> provider = mock(ObjectProvider.class);
+        given(provider.getObject()).willReturn(outboundChannel);
+        given(outboundChannel.send(any())).willReturn(true);
+        given(chatAuthorizationCache.roomType(1L)).willReturn(Optional.of(RoomType.BASKETBALL));
+        given(chatAuthorizationCache.roomType(2L)).willReturn(Optional.of(RoomType.DIRECT));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        roomSubscriberRegistry = new RoomSubscriberRegistry(meterRegistry, 100);
+        largeRoomFanout = new LargeRoomFanout(roomSubscriberRegistry, chatAuthorizationCache, provider, meterRegistry, 2);
+    }
+
+    @Test
+    @DisplayName("농구장 채팅방 메세지는 구독한 세션마다 같은 페이로드로 전달하고 브로커에는 넘기지 않는다")
+    void fanoutSharesPayload() {
+        roomSubscriberRegistry.add(1L, new RoomSubscriberRegistry.Subscription("s1", "sub-1"));
+        roomSubscriberRegistry.add(1L, new RoomSubscriberRegistry.Subscription("s2", "sub-2"));
+        Message<byte[]> message = chatMessage("/sub/chat/room/1");
+
+        Message<?> result = largeRoomFanout.preSend(message, mock(MessageChannel.class));
+
+        assertThat(SimpMessageHeaderAccessor.getDestination(result.getHeaders())).isEqualTo(LargeRoomFanout.HANDLED_DESTINATION);
+        ArgumentCaptor<Message<?>> frames = ArgumentCaptor.forClass(Message.class);
+        verify(outboundChannel, times(2)).send(frames.capture());
+        assertThat(frames.getAllValues()).allSatisfy(frame -> assertThat(frame.getPayload()).isSameAs(message.getPayload()));
+        assertThat(frames.getAllValues()).extracting(frame -> SimpMessageHeaderAccessor.getSessionId(frame.getHeaders()))
+                .containsExactlyInAnyOrder("s1", "s2");
+    }
+
+    @Test
+    @DisplayName("농구장이 아닌 채팅방 메세지는 그대로 브로커로 보낸다")
+    void otherRoomsGoToBroker() {
+        Message<byte[]> message = chatMessage("/sub/chat/room/2");
+
+        assertThat(largeRoomFanout.preSend(message, mock(MessageChannel.class))).isSameAs(message);
+    }
+
+    @Test
+    @DisplayName("전송 중인 세션은 대기열에 쌓고 가득 차면 가장 오래된 프레임을 버린다")
+    void slowConsumerDropsOldest() {
+        roomSubscriberRegistry.add(1L, new RoomSubscriberRegistry.Subscription("s1", "sub-1"));
+
+        // 첫 프레임 전송 중에 3개가 더 들어오면 (대기열 2) 가장 오래된 1개를 버림
+        List<Message<byte[]>> messages = List.of(chatMessage("/sub/chat/room/1", "1"), chatMessage("/sub/chat/room/1", "2"),
+                chatMessage("/sub/chat/room/1", "3"), chatMessage("/sub/chat/room/1", "4"));
+        messages.forEach(message -> largeRoomFanout.preSend(message, mock(MessageChannel.class)));
+
+        ArgumentCaptor<Message<?>> frames = ArgumentCaptor.forClass(Message.class);
+        verify(outboundChannel, times(1)).send(frames.capture());
+
+        // 전송 완료 -> 다음 프레임
+        largeRoomFanout.completionInterceptor().afterMessageHandled(frames.getValue(), outboundChannel, null, null);
+        largeRoomFanout.completionInterceptor().afterMessageHandled(frames.getValue(), outboundChannel, null, null);
+        largeRoomFanout.completionInterceptor().afterMessageHandled(frames.getValue(), outboundChannel, null, null);
+
+        verify(outboundChannel, times(3)).send(frames.capture());
+        assertThat(frames.getAllValues().subList(1, 4)).extracting(Message::getPayload)
+                .containsExactly(messages.get(0).getPayload(), messages.get(2).getPayload(), messages.get(3).getPayload());
+    }
+
+    private Message<byte[]> chatMessage(String destination) {
+        return chatMessage(destination, "농구하자");
+    }
+
+    private Message<byte[]> chatMessage(String destination, String content) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(("{\"content\":\"" + content + "\"}").getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,77 @@
+package sync.slamtalk.chat.presence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import sync.slamtalk.chat.redis.RedisContainerExtension;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresenceStoreTest {
+
+    @RegisterExtension
+    static final RedisContainerExtension redis = new RedisContainerExtension();
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private PresenceStore presenceStore;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = redis.getStringRedisTemplate();
+        presenceStore = new PresenceStore(stringRedisTemplate, 60, 1000);
+    }
+
+    @Test
+    @DisplayName("유저의 모든 세션이 종료되어야 offline 이 된다")
+    void onlineUntilLastSessionClosed() {
+        presenceStore.connect(1L, "session-a");
+        presenceStore.connect(1L, "session-b");
+
+        presenceStore.disconnect(1L, "session-a");
+        assertThat(presenceStore.isOnline(1L)).isTrue();
+
+        presenceStore.disconnect(1L, "session-b");
+        assertThat(presenceStore.isOnline(1L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("채팅방 접속자는 입장/퇴장을 반영하고 만료된 접속자는 제외한다")
+    void occupants() {
+        presenceStore.enter(10L, 1L);
+        presenceStore.heartbeat(Map.of(), Map.of(10L, Set.of(2L, 3L)));
+        presenceStore.leave(10L, 3L);
+        // 다른 서버가 종료되어 heartbeat 가 끊긴 접속자
+        stringRedisTemplate.opsForZSet().add("chat_presence:room:10", "4:other-server", System.currentTimeMillis() - 1);
+
+        assertThat(presenceStore.occupants(10L)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("한 서버에서 퇴장해도 다른 서버에서 구독 중이면 접속자로 남는다")
+    void occupantOnAnotherServer() {
+        PresenceStore otherServer = new PresenceStore(stringRedisTemplate, 60, 1000);
+        presenceStore.enter(10L, 1L);
+        otherServer.enter(10L, 1L);
+
+        presenceStore.leave(10L, 1L);
+        assertThat(presenceStore.occupants(10L)).containsExactly(1L);
+        assertThat(otherServer.occupants(10L)).containsExactly(1L);
+
+        otherServer.leave(10L, 1L);
+        assertThat(presenceStore.occupants(10L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("입력 중 표시는 throttle 시간 안에 한 번만 허용된다")
+    void typingIsCoalesced() {
+        assertThat(presenceStore.tryTyping(10L, 1L)).isTrue();
+        assertThat(presenceStore.tryTyping(10L, 1L)).isFalse();
+        assertThat(presenceStore.tryTyping(10L, 2L)).isTrue();
+    }
+}
@@ -0,0 +1,91 @@
+package sync.slamtalk.chat.redis;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import sync.slamtalk.chat.redis.ReadIndexStore.ReadIndex;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadIndexStoreTest {
+
+    @RegisterExtension
+    static final RedisContainerExtension redis = new RedisContainerExtension();
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private ReadIndexStore readIndexStore;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = redis.getStringRedisTemplate();
+        readIndexStore = new ReadIndexStore(stringRedisTemplate, 60);
+    }
+
+    @Test
+    @DisplayName("여러 번 읽어도 (유저, 채팅방)마다 가장 큰 readIndex 하나만 반영 대상이 된다")
+    void coalesceToMax() {
+        readIndexStore.advance(1L, 10L, 100);
+        readIndexStore.advance(1L, 10L, 300);
+        readIndexStore.advance(1L, 10L, 200);
+        readIndexStore.advance(2L, 10L, 150);
+
+        assertThat(readIndexStore.readIndex(1L, 10L)).contains(300L);
+        assertThat(readIndexStore.claimDirty(10)).containsExactlyInAnyOrder(
+                new ReadIndex(1L, 10L, 300),
+                new ReadIndex(2L, 10L, 150));
+        assertThat(readIndexStore.claimDirty(10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("더 작은 readIndex 는 반영 대상으로 표시하지 않고, 반영에 실패하면 다시 표시한다")
+    void ignoreOlderAndRetry() {
+        readIndexStore.advance(1L, 10L, 300);
+        List<ReadIndex> claimed = readIndexStore.claimDirty(10);
+
+        readIndexStore.advance(1L, 10L, 200);
+        assertThat(readIndexStore.claimDirty(10)).isEmpty();
+
+        readIndexStore.markDirty(claimed);
+        assertThat(readIndexStore.claimDirty(10)).containsExactly(new ReadIndex(1L, 10L, 300));
+    }
+
+    @Test
+    @DisplayName("꺼낸 뒤 ack 하지 못하고 서버가 종료되면, 다른 서버가 다시 반영 대상으로 되돌린다")
+    void requeueUnacked() {
+        readIndexStore.advance(1L, 10L, 300);
+        readIndexStore.claimDirty(10);
+        // ack 하지 않고 종료
+
+        ReadIndexStore otherServer = new ReadIndexStore(stringRedisTemplate, 60);
+        assertThat(otherServer.requeueStale(60_000)).isZero();
+        assertThat(otherServer.requeueStale(0)).isEqualTo(1);
+        assertThat(otherServer.claimDirty(10)).containsExactly(new ReadIndex(1L, 10L, 300));
+    }
+
+    @Test
+    @DisplayName("ack 한 readIndex 는 되돌리지 않는다")
+    void ackedNotRequeued() {
+        readIndexStore.advance(1L, 10L, 300);
+        readIndexStore.ack(readIndexStore.claimDirty(10));
+
+        assertThat(readIndexStore.requeueStale(0)).isZero();
+        assertThat(readIndexStore.claimDirty(10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("반영 중에 더 큰 readIndex 가 기록되면 ack 후에도 다시 반영된다")
+    void advanceWhileProcessing() {
+        readIndexStore.advance(1L, 10L, 300);
+        List<ReadIndex> claimed = readIndexStore.claimDirty(10);
+
+        readIndexStore.advance(1L, 10L, 400);
+        readIndexStore.ack(claimed);
+
+        assertThat(readIndexStore.claimDirty(10)).containsExactly(new ReadIndex(1L, 10L, 400));
+    }
+}
@@ -0,0 +1,167 @@
+package sync.slamtalk.chat.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 서버 두 대(웹 서버 + STOMP 엔드포인트 + SimpleBroker)를 하나의 Redis 컨테이너에 연결하고
+ * 실제 STOMP 클라이언트로 구독해서, 한 서버에서 발행한 /sub/** 메세지가
+ * 양쪽 서버의 구독자에게 정확히 한 번씩 전달되는지 확인
+ */
+class RedisBrokerFanoutMultiNodeTest {
+
+    private static final String DESTINATION = "/sub/chat/room/1";
+
+    @RegisterExtension
+    static final RedisContainerExtension redis = new RedisContainerExtension();
+
+    @Test
+    @DisplayName("한 서버에서 발행한 채팅 메세지가 다른 서버의 구독자에게 전달되고, 발행한 서버의 구독자도 한 번만 받는다")
+    void messageReachesSubscribersOnBothNodes() throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        try (ConfigurableApplicationContext nodeA = startNode();
+             ConfigurableApplicationContext nodeB = startNode()) {
+
+            BlockingQueue<String> receivedOnA = new LinkedBlockingQueue<>();
+            BlockingQueue<String> receivedOnB = new LinkedBlockingQueue<>();
+            StompSession sessionA = subscribe(stompClient, nodeA, receivedOnA);
+            StompSession sessionB = subscribe(stompClient, nodeB, receivedOnB);
+
+            // 컨트롤러와 같은 경로 (brokerMessagingTemplate -> brokerChannel -> SimpleBroker + Redis)
+            String payload = "{\"content\":\"안녕하세요\"}";
+            nodeA.getBean(SimpMessagingTemplate.class).send(DESTINATION,
+                    MessageBuilder.withPayload(payload.getBytes(StandardCharsets.UTF_8)).build());
+
+            assertThat(receivedOnB.poll(5, TimeUnit.SECONDS)).isEqualTo(payload);
+            assertThat(receivedOnA.poll(5, TimeUnit.SECONDS)).isEqualTo(payload);
+            // Redis 로 되돌아온 메세지를 다시 전달하지 않는다
+            assertThat(receivedOnA.poll(500, TimeUnit.MILLISECONDS)).isNull();
+            assertThat(receivedOnB.poll(500, TimeUnit.MILLISECONDS)).isNull();
+
+            sessionA.disconnect();
+            sessionB.disconnect();
+        } finally {
+            stompClient.stop();
+        }
+    }
+
+    private ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(NodeConfig.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "chat.broker.mode=redis",
+                        "spring.data.redis.host=" + redis.getHost(),
+                        "spring.data.redis.port=" + redis.getPort())
+                .run();
+    }
+
+    // 구독이 브로커에 등록될 때까지 기다린 뒤 반환
+    private StompSession subscribe(WebSocketStompClient stompClient, ConfigurableApplicationContext node,
+                                   BlockingQueue<String> received) throws Exception {
+        int port = ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        StompSession session = stompClient.connectAsync("ws://localhost:" + port + "/ws", new StompSessionHandlerAdapter() {
+        }).get(5, TimeUnit.SECONDS);
+        session.subscribe(DESTINATION, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add(new String((byte[]) payload, StandardCharsets.UTF_8));
+            }
+        });
+
+        SimpleBrokerMessageHandler broker = node.getBean(SimpleBrokerMessageHandler.class);
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(DESTINATION);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (broker.getSubscriptionRegistry()
+                .findSubscriptions(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()))
+                .isEmpty()) {
+            assertThat(System.currentTimeMillis()).as("구독 등록 대기").isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        return session;
+    }
+
+    /**
+     * StompWebSocketConfig 의 redis 모드 브로커 설정과 같은 구성
+     * (인증/권한 인터셉터는 이 테스트의 대상이 아니므로 제외)
+     */
+    @Configuration
+    @EnableWebSocketMessageBroker
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebSocketServletAutoConfiguration.class,
+            RedisAutoConfiguration.class,
+            JacksonAutoConfiguration.class})
+    @Import({RedisBrokerFanout.class, RedisBrokerConfig.class})
+    static class NodeConfig implements WebSocketMessageBrokerConfigurer {
+
+        private final RedisBrokerFanout redisBrokerFanout;
+
+        NodeConfig(RedisBrokerFanout redisBrokerFanout) {
+            this.redisBrokerFanout = redisBrokerFanout;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Override
+        public void registerStompEndpoints(StompEndpointRegistry registry) {
+            registry.addEndpoint("/ws").setAllowedOrigins("*");
+        }
+
+        @Override
+        public void configureMessageBroker(MessageBrokerRegistry registry) {
+            registry.setApplicationDestinationPrefixes("/pub");
+            registry.enableSimpleBroker("/sub");
+            registry.configureBrokerChannel().interceptors(redisBrokerFanout);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package sync.slamtalk.chat.redis;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+import sync.slamtalk.common.DockerRequiredOnCi;
+
+/**
+ * 테스트 클래스마다 Redis 7 컨테이너를 띄우고, 테스트마다 비운다.
+ * 운영과 같은 버전의 명령(SPOP count, 스크립트 등)으로 검증하기 위해 embedded Redis(2.8) 대신 컨테이너를 사용한다.
+ * Docker 가 없으면 로컬에서는 건너뛰고 CI 에서는 실패한다. (DockerRequiredOnCi)
+ *
+ * <pre>
+ * &#64;RegisterExtension
+ * static final RedisContainerExtension redis = new RedisContainerExtension();
+ * </pre>
+ */
+public class RedisContainerExtension implements ExecutionCondition, BeforeAllCallback, AfterAllCallback, BeforeEachCallback {
+
+    private static final DockerImageName IMAGE = DockerImageName.parse("redis:7-alpine");
+    private static final int REDIS_PORT = 6379;
+
+    private final DockerRequiredOnCi dockerRequired = new DockerRequiredOnCi();
+
+    private GenericContainer<?> container;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        return dockerRequired.evaluateExecutionCondition(context);
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        container = new GenericContainer<>(IMAGE).withExposedPorts(REDIS_PORT);
+        container.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(getHost(), getPort()));
+        connectionFactory.afterPropertiesSet();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    public StringRedisTemplate getStringRedisTemplate() {
+        return stringRedisTemplate;
+    }
+
+    public String getHost() {
+        return container.getHost();
+    }
+
+    public int getPort() {
+        return container.getMappedPort(REDIS_PORT);
+    }
+}
@@ -0,0 +1,174 @@
+package sync.slamtalk.chat.redis;
+
+import io.lettuce.core.cluster.SlotHash;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.user.cache.SenderProfileCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RedisServiceTest {
+
+    @RegisterExtension
+    static final RedisContainerExtension redis = new RedisContainerExtension();
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RedisService redisService;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = redis.getStringRedisTemplate();
+        SenderProfileCache senderProfileCache = mock(SenderProfileCache.class);
+        when(senderProfileCache.getAll(any())).thenReturn(Map.of());
+        meterRegistry = new SimpleMeterRegistry();
+        // 채팅방당 5개, 채팅방 2개까지 캐시
+        redisService = new RedisService(stringRedisTemplate, stringRedisTemplate, senderProfileCache, meterRegistry, 60, 5, 2);
+    }
+
+    @Test
+    @DisplayName("채팅방마다 최근 메세지만 남기고 오래된 메세지 hash 는 함께 삭제한다")
+    void trimToMaxMessagesPerRoom() {
+        redisService.saveMessages(LongStream.rangeClosed(1, 8).mapToObj(id -> message(1L, id)).toList());
+
+        List<ChatMessageDTO> cached = redisService.getMessagesBefore(1L, Long.MAX_VALUE, 100);
+
+        assertThat(cached).extracting(ChatMessageDTO::getMessageId).containsExactly("8", "7", "6", "5", "4");
+        assertThat(stringRedisTemplate.opsForHash().hasKey("chat:{1}:bodies", "3")).isFalse();
+        assertThat(stringRedisTemplate.opsForHash().size("chat:{1}:bodies")).isEqualTo(5);
+        assertThat(meterRegistry.counter("chat.cache.trimmed").count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("채팅방 키는 해시 태그로 같은 클러스터 슬롯에 있다")
+    void roomKeysShareSlot() {
+        redisService.saveMessage(message(1L, 1));
+
+        assertThat(stringRedisTemplate.keys("chat:*"))
+                .containsExactlyInAnyOrder("chat:{1}:messages", "chat:{1}:bodies");
+        assertThat(SlotHash.getSlot("chat:{1}:bodies")).isEqualTo(SlotHash.getSlot("chat:{1}:messages"));
+    }
+
+    @Test
+    @DisplayName("특수 문자가 들어간 닉네임, 내용도 그대로 읽는다")
+    void roundTripBody() {
+        ChatMessageDTO saved = ChatMessageDTO.builder()
+                .messageId("10")
+                .roomId("1")
+                .senderId(3L)
+                .senderNickname("슬램:\"덩크\"")
+                .content("안녕하세요\n[1, 2]")
+                .timestamp("2024-01-01T00:00")
+                .build();
+        redisService.saveMessage(saved);
+
+        assertThat(redisService.getMessagesBefore(1L, 11, 10)).singleElement().satisfies(message -> {
+            assertThat(message.getMessageId()).isEqualTo("10");
+            assertThat(message.getSenderId()).isEqualTo(3L);
+            assertThat(message.getSenderNickname()).isEqualTo(saved.getSenderNickname());
+            assertThat(message.getContent()).isEqualTo(saved.getContent());
+            assertThat(message.getTimestamp()).isEqualTo(saved.getTimestamp());
+        });
+    }
+
+    @Test
+    @DisplayName("캐시 채팅방 수가 예산을 넘으면 가장 오래전에 저장된 채팅방부터 삭제한다")
+    void evictLeastRecentlyWrittenRooms() throws InterruptedException {
+        redisService.saveMessage(message(1L, 1));
+        Thread.sleep(5);
+        redisService.saveMessage(message(2L, 2));
+        Thread.sleep(5);
+        redisService.saveMessage(message(3L, 3));
+
+        assertThat(redisService.evictOverBudget()).isEqualTo(1);
+
+        assertThat(redisService.cachedRoomCount()).isEqualTo(2);
+        assertThat(redisService.getMessagesBefore(1L, Long.MAX_VALUE, 10)).isEmpty();
+        assertThat(stringRedisTemplate.hasKey("chat:{1}:bodies")).isFalse();
+        assertThat(meterRegistry.counter("chat.cache.evicted.messages").count()).isEqualTo(1);
+        assertThat(redisService.getMessagesBefore(3L, Long.MAX_VALUE, 10)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("재연결 catch-up 은 커서 이후 메세지를 오래된 순으로 가져오고, 캐시가 커서까지 이어지지 않으면 -1 을 센다")
+    void messagesAfterCursor() {
+        redisService.saveMessages(LongStream.rangeClosed(1, 8).mapToObj(id -> message(1L, id)).toList());
+
+        assertThat(redisService.getMessagesAfter(1L, 5, 2))
+                .extracting(ChatMessageDTO::getMessageId).containsExactly("6", "7");
+        assertThat(redisService.countMessagesAfter(1L, 5)).isEqualTo(3);
+        // 1~3 은 잘려서 캐시에 없음
+        assertThat(redisService.countMessagesAfter(1L, 2)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("double 로 구분되지 않는 큰 아이디도 커서 앞뒤를 정확히 나눈다")
+    void largeIdsAreExact() {
+        // 2^58 근처 (Snowflake 아이디 크기), double 로 바꾸면 64 단위로 뭉개짐
+        long base = 1L << 58;
+        redisService.saveMessages(LongStream.rangeClosed(base + 1, base + 4).mapToObj(id -> message(1L, id)).toList());
+
+        assertThat(redisService.getMessagesBefore(1L, base + 3, 10))
+                .extracting(ChatMessageDTO::getMessageId)
+                .containsExactly(String.valueOf(base + 2), String.valueOf(base + 1));
+        assertThat(redisService.getMessagesAfter(1L, base + 2, 1))
+                .extracting(ChatMessageDTO::getMessageId).containsExactly(String.valueOf(base + 3));
+        assertThat(redisService.countMessagesAfter(1L, base + 2)).isEqualTo(2);
+        assertThat(redisService.getLastMessageId(1L)).contains(base + 4);
+    }
+
+    @Test
+    @DisplayName("자릿수가 다른 아이디도 아이디 순으로 정렬된다")
+    void mixedLengthIdsAreOrdered() {
+        redisService.saveMessages(List.of(message(1L, 9), message(1L, 10), message(1L, 100)));
+
+        assertThat(redisService.getMessagesBefore(1L, Long.MAX_VALUE, 10))
+                .extracting(ChatMessageDTO::getMessageId).containsExactly("100", "10", "9");
+        assertThat(stringRedisTemplate.opsForHash().hasKey("chat:{1}:bodies", "9")).isTrue();
+    }
+
+    @Test
+    @DisplayName("계속 저장해도 캐시 키와 메세지 수는 예산 안에 머문다")
+    void boundedUnderSustainedLoad() {
+        for (long round = 0; round < 20; round++) {
+            long base = round * 100;
+            for (long room = 1; room <= 10; room++) {
+                Long roomId = room;
+                redisService.saveMessages(LongStream.range(base, base + 10).mapToObj(id -> message(roomId, id)).toList());
+            }
+            redisService.evictOverBudget();
+
+            // 채팅방 2개 * (인덱스 + 본문) + 채팅방 목록
+            Long keys = stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().dbSize());
+            assertThat(keys).isLessThanOrEqualTo(5);
+            for (String key : stringRedisTemplate.keys("chat:*:bodies")) {
+                assertThat(stringRedisTemplate.opsForHash().size(key)).isLessThanOrEqualTo(5);
+            }
+        }
+    }
+
+    private ChatMessageDTO message(Long roomId, long messageId) {
+        return ChatMessageDTO.builder()
+                .messageId(String.valueOf(messageId))
+                .roomId(roomId.toString())
+                .senderId(3L)
+                .senderNickname("슬램")
+                .content("메세지 " + messageId)
+                .timestamp("2024-01-01T00:00")
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package sync.slamtalk.chat.redis;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnreadCountStoreTest {
+
+    @RegisterExtension
+    static final RedisContainerExtension redis = new RedisContainerExtension();
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private UnreadCountStore unreadCountStore;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = redis.getStringRedisTemplate();
+        unreadCountStore = new UnreadCountStore(stringRedisTemplate, 60_000, 600);
+    }
+
+    @Test
+    @DisplayName("보낸 사람을 제외한 참여자의 안 읽은 메세지 수가 증가하고 읽음 처리하면 0 이 된다")
+    void countAndMarkRead() {
+        unreadCountStore.markRead(1L, 10L);
+        unreadCountStore.markRead(2L, 10L);
+
+        unreadCountStore.onMessage(10L, 1L);
+        unreadCountStore.onMessage(10L, 1L);
+
+        assertThat(unreadCountStore.unreadCounts(1L, List.of(10L))).containsEntry(10L, 0L);
+        assertThat(unreadCountStore.unreadCounts(2L, List.of(10L))).containsEntry(10L, 2L);
+
+        unreadCountStore.markRead(2L, 10L);
+        assertThat(unreadCountStore.unreadCounts(2L, List.of(10L))).containsEntry(10L, 0L);
+    }
+
+    @Test
+    @DisplayName("값이 없는 채팅방은 0 으로 반환하고 보정 후에는 DB 기준 값으로 계산된다")
+    void reconcileMissingRoom() {
+        assertThat(unreadCountStore.unreadCounts(2L, List.of(20L))).containsEntry(20L, 0L);
+        assertThat(unreadCountStore.popDirtyRooms(10)).containsExactly(20L);
+
+        // DB : 메세지 5개, 유저 2 는 3개까지 읽음
+        assertThat(unreadCountStore.reconcile(20L, 5L, Map.of(2L, 3L), true)).isTrue();
+        assertThat(unreadCountStore.unreadCounts(2L, List.of(20L))).containsEntry(20L, 2L);
+    }
+
+    @Test
+    @DisplayName("메세지가 오가는 중에는 보정이 값을 줄이지 않고, 보정한 채팅방은 보정 주기 동안 다시 보정 대상이 되지 않는다")
+    void reconcileActiveRoomOnlyRaises() {
+        unreadCountStore.reconcile(20L, 5L, Map.of(2L, 3L), true);
+        unreadCountStore.onMessage(20L, 1L);
+
+        // 아직 DB 에 저장되지 않은 메세지가 있을 수 있음
+        assertThat(unreadCountStore.reconcile(20L, 4L, Map.of(2L, 1L), true)).isFalse();
+        assertThat(unreadCountStore.unreadCounts(2L, List.of(20L))).containsEntry(20L, 3L);
+        assertThat(unreadCountStore.popDirtyRooms(10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("최근 메세지가 없는 채팅방은 DB 기준 값으로 줄일 수 있다")
+    void reconcileIdleRoomLowers() throws InterruptedException {
+        UnreadCountStore shortSettle = new UnreadCountStore(stringRedisTemplate, 10, 600);
+        shortSettle.markRead(2L, 20L);
+        // 저장에 실패해서 DB 에는 없는 메세지 3개
+        shortSettle.onMessage(20L, 1L);
+        shortSettle.onMessage(20L, 1L);
+        shortSettle.onMessage(20L, 1L);
+        assertThat(shortSettle.unreadCounts(2L, List.of(20L))).containsEntry(20L, 3L);
+        Thread.sleep(50);
+
+        // 참여자 일부만 있으면 줄이지 않는다
+        assertThat(shortSettle.reconcile(20L, 0L, Map.of(2L, 0L), false)).isFalse();
+        assertThat(shortSettle.unreadCounts(2L, List.of(20L))).containsEntry(20L, 3L);
+
+        assertThat(shortSettle.reconcile(20L, 0L, Map.of(1L, 0L, 2L, 0L), true)).isTrue();
+        assertThat(shortSettle.unreadCounts(2L, List.of(20L))).containsEntry(20L, 0L);
+    }
+}
@@ -0,0 +1,301 @@
+package sync.slamtalk.chat.repository;
+
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.internal.DefaultSchemaFilterProvider;
+import org.hibernate.tool.schema.spi.SchemaFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import sync.slamtalk.common.DockerRequiredOnCi;
+import sync.slamtalk.common.db.FlywayConfig;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 채팅 스키마 / 쿼리 실행 계획 회귀 테스트 (MySQL 컨테이너)
+ * Docker 가 없으면 로컬에서는 건너뛰지만, CI 환경 변수가 있으면 건너뛰지 않고 실패한다. (CI 에서 조용히 빠지지 않도록)
+ * (마이그레이션이 MySQL 전용 문법(information_schema, prepare)을 사용하고 EXPLAIN 형식도 달라서 H2 로 대신하지 않는다)
+ *
+ * - 스키마 : db/schema/mysql 마이그레이션만으로 채팅 테이블을 만들고 ddl-auto=validate 로 채팅 엔티티와 맞는지 검증한다.
+ *   (채팅 이외의 테이블은 마이그레이션 대상이 아니므로 검증에서 제외)
+ * - 실행 계획 : 리포지토리 메서드가 실제로 보내는 SQL 을 DataSource 에서 기록해서 EXPLAIN 하고,
+ *   인덱스 없이 테이블/인덱스 전체를 읽으면 실패한다.
+ */
+@DataJpaTest
+@ExtendWith(DockerRequiredOnCi.class)
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FlywayConfig.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.hbm2ddl.schema_filter_provider=sync.slamtalk.chat.repository.ChatQueryPlanTest$ChatTables"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChatQueryPlanTest {
+
+    private static final Set<String> CHAT_TABLES = Set.of("chatroom", "user_chatroom", "messages", "message_archive_block");
+    private static final int ROOMS = 50;
+    private static final int MEMBERS = 20;
+    private static final int MESSAGES = 100;
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    // DataSource 로 보낸 SQL
+    private static final List<String> RECORDED = new CopyOnWriteArrayList<>();
+    private static boolean seeded = false;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MessagesRepository messagesRepository;
+    @Autowired
+    private UserChatRoomRepository userChatRoomRepository;
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+    @Autowired
+    private MessageArchiveBlockRepository messageArchiveBlockRepository;
+
+    private MessagesJdbcRepository messagesJdbcRepository;
+
+    // 실행 계획이 실제 데이터 분포를 따르도록 채팅방 여러개에 데이터를 넣고 통계 갱신
+    @BeforeEach
+    void seed() {
+        messagesJdbcRepository = new MessagesJdbcRepository(jdbcTemplate);
+        if (seeded) {
+            return;
+        }
+        List<Object[]> rooms = new ArrayList<>();
+        List<Object[]> members = new ArrayList<>();
+        List<Object[]> messages = new ArrayList<>();
+        List<Object[]> blocks = new ArrayList<>();
+        List<Object[]> users = new ArrayList<>();
+        for (long room = 1; room <= ROOMS; room++) {
+            rooms.add(new Object[]{room, "room" + room, room, room, room, room + ":" + (room + 1)});
+            // 게시글/1:1 아이디는 (유저, 채팅방) 마다 하나씩만 조회되도록 첫번째 유저에게만
+            for (long user = 1; user <= MEMBERS; user++) {
+                Long only = user == 1 ? room : null;
+                members.add(new Object[]{room * 1000 + user, user, room, room, only, only,
+                        user == 1 ? room + 1 : null, room * 1000});
+            }
+            for (long i = 0; i < MESSAGES; i++) {
+                messages.add(new Object[]{room * 1000 + i, user(i), "message" + i, "2024-01-01T00:00:00", room});
+            }
+            for (long i = 0; i < MESSAGES; i += 10) {
+                blocks.add(new Object[]{room, room * 1000 + i, room * 1000 + i + 9, 10, "block" + room + "-" + i, 100});
+            }
+        }
+        for (long user = 1; user <= Math.max(MEMBERS, ROOMS + 1); user++) {
+            users.add(new Object[]{user, "user" + user, "image" + user});
+        }
+        // 채팅 리스트 조회가 1:1 상대방(users)과 조인하므로 필요한 컬럼만 만듦 (users 는 채팅 마이그레이션 대상이 아님)
+        jdbcTemplate.execute("create table if not exists users (id bigint not null, nickname varchar(255), " +
+                "image_url varchar(255), primary key (id))");
+        jdbcTemplate.batchUpdate("insert into users (id, nickname, image_url) values (?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("insert into chatroom (chatroom_id, is_deleted, chatroom_type, chatroom_name, basketball_id, " +
+                "together_id, team_matching_id, direct_key) values (?, false, 'BASKETBALL', ?, ?, ?, ?, ?)", rooms);
+        jdbcTemplate.batchUpdate("insert into user_chatroom (user_chatroom_id, is_deleted, user_id, chatroom_id, basketball_id, " +
+                "together_id, team_matching_id, direct_id, read_index) values (?, false, ?, ?, ?, ?, ?, ?, ?)", members);
+        jdbcTemplate.batchUpdate("insert into messages (message_id, is_deleted, sender_id, content, creation_time, chatroom_id) " +
+                "values (?, false, ?, ?, ?, ?)", messages);
+        jdbcTemplate.batchUpdate("insert into message_archive_block (is_deleted, chatroom_id, first_message_id, last_message_id, " +
+                "message_count, storage_key, compressed_bytes) values (false, ?, ?, ?, ?, ?, ?)", blocks);
+        CHAT_TABLES.forEach(table -> jdbcTemplate.execute("analyze table " + table));
+        seeded = true;
+    }
+
+    @Test
+    void migrationsMatchChatEntities() {
+        // ddl-auto=validate 로 컨텍스트가 떠야 여기까지 온다
+        Integer applied = jdbcTemplate.queryForObject(
+                "select count(*) from flyway_schema_history where success = true and version is not null", Integer.class);
+        assertThat(applied).isGreaterThanOrEqualTo(6);
+    }
+
+    @Test
+    void messageQueriesUseIndex() {
+        assertIndexed(() -> messagesRepository.findLatestByChatRoomId(1L, PageRequest.of(0, 20)));
+        assertIndexed(() -> messagesRepository.findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(1L, 1050L, PageRequest.of(0, 20)));
+        assertIndexed(() -> messagesRepository.findByChatRoomIdAndMessageIdGreaterThanOrderedByMessageIdAsc(1L, 1050L, PageRequest.of(0, 50)));
+        assertIndexed(() -> messageArchiveBlockRepository.findFirstByChatRoomIdAndFirstMessageIdLessThanOrderByFirstMessageIdDesc(1L, 1050L));
+    }
+
+    @Test
+    void messageJdbcQueriesUseIndex() {
+        assertIndexed(() -> messagesJdbcRepository.countMessages(1L));
+        assertIndexed(() -> messagesJdbcRepository.countMessagesAfter(1L, 1050L, 300));
+        assertIndexed(() -> messagesJdbcRepository.findRecentMessageIds(1L, 300));
+        assertIndexed(() -> messagesJdbcRepository.findMemberReadIndexes(1L, 1000));
+        assertIndexed(() -> messagesJdbcRepository.findOldestMessages(1L, 1000L, 1050L, 1000));
+        assertIndexed(() -> messagesJdbcRepository.findArchivableRoomIds(1000L, 1050L, 100));
+    }
+
+    @Test
+    void userChatRoomQueriesUseIndex() {
+        assertIndexed(() -> userChatRoomRepository.existsByUserChatroom(1L, 1L));
+        assertIndexed(() -> userChatRoomRepository.existsSharedChatroom(1L, 2L));
+        assertIndexed(() -> userChatRoomRepository.findByUserChatroom(1L, 1L));
+        assertIndexed(() -> userChatRoomRepository.findByUser_Id(1L));
+        assertIndexed(() -> userChatRoomRepository.findByChat_Id(1L));
+        assertIndexed(() -> userChatRoomRepository.findByDirectId(1L, 2L));
+        assertIndexed(() -> userChatRoomRepository.findUserChatRoomByBasketballId(1L, 1L));
+        assertIndexed(() -> userChatRoomRepository.findByTogetherId(1L));
+        assertIndexed(() -> userChatRoomRepository.findByTeamMatchingId(1L));
+        assertIndexed(() -> userChatRoomRepository.findChatRoomList(1L));
+    }
+
+    @Test
+    void chatRoomQueriesUseIndex() {
+        assertIndexed(() -> chatRoomRepository.findByBasketBallId(1L));
+        assertIndexed(() -> chatRoomRepository.findByTogetherId(1L));
+        assertIndexed(() -> chatRoomRepository.findByTeamMatchingId(1L));
+        assertIndexed(() -> chatRoomRepository.findLastMessageIdById(1L));
+        assertIndexed(() -> chatRoomRepository.findActiveDirectRoom("1:2"));
+    }
+
+    // 리포지토리 호출이 보낸 select 를 EXPLAIN 해서 테이블(ALL)/인덱스(index) 전체 스캔이 없는지 확인
+    private void assertIndexed(Runnable repositoryCall) {
+        RECORDED.clear();
+        repositoryCall.run();
+        List<String> selects = RECORDED.stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .toList();
+        assertThat(selects).isNotEmpty();
+
+        for (String sql : selects) {
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("explain " + withSampleParameters(sql));
+            for (Map<String, Object> row : plan) {
+                String table = String.valueOf(row.get("table"));
+                if (table.startsWith("<")) {
+                    // 파생 테이블(<derived2>)은 안쪽 쿼리의 행에서 확인
+                    continue;
+                }
+                assertThat(String.valueOf(row.get("type")))
+                        .as("%s%n%s", sql, plan)
+                        .isNotIn("ALL", "index");
+            }
+        }
+    }
+
+    // 바인드 파라미터를 값으로 바꿈 (limit/offset 은 숫자, 나머지는 문자열 '1' -> 숫자 컬럼도 인덱스 사용 가능)
+    private String withSampleParameters(String sql) {
+        return sql.replaceAll("(?i)limit\\s+\\?(\\s*,\\s*\\?)?", "limit 1")
+                .replaceAll("(?i)offset\\s+\\?", "offset 0")
+                .replace("?", "'1'");
+    }
+
+    private static Long user(long i) {
+        return i % MEMBERS + 1;
+    }
+
+    /**
+     * 채팅 테이블만 스키마 검증
+     */
+    public static class ChatTables extends DefaultSchemaFilterProvider {
+
+        @Override
+        public SchemaFilter getValidateFilter() {
+            return new SchemaFilter() {
+                @Override
+                public boolean includeNamespace(Namespace namespace) {
+                    return true;
+                }
+
+                @Override
+                public boolean includeTable(Table table) {
+                    return CHAT_TABLES.contains(table.getName().toLowerCase());
+                }
+
+                @Override
+                public boolean includeSequence(Sequence sequence) {
+                    return false;
+                }
+            };
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new RecordingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // prepareStatement 로 보낸 SQL 기록
+    private static class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return recording(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return recording(super.getConnection(username, password));
+        }
+
+        private Connection recording(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("prepareStatement".equals(method.getName()) && args != null && args[0] instanceof String sql) {
+                            RECORDED.add(sql);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
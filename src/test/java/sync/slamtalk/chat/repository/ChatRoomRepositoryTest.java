@@ -1,10 +1,18 @@
 package sync.slamtalk.chat.repository;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import sync.slamtalk.chat.entity.ChatRoom;
+import sync.slamtalk.chat.entity.RoomType;
+import sync.slamtalk.chat.entity.UserChatRoom;
+import sync.slamtalk.user.dto.request.UserSignUpReq;
+import sync.slamtalk.user.entity.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(SpringExtension.class)
 @DataJpaTest
@@ -16,4 +24,32 @@ class ChatRoomRepositoryTest {
     @Autowired
     private ChatRoomRepository chatRoomRepository;
 
-}
\ No newline at end of file
+    @Test
+    void findActiveDirectRoomAndReleaseDirectKey() {
+        User userA = entityManager.persist(new UserSignUpReq("a@naver.com", "123@password!", "userA").toEntity());
+        User userB = entityManager.persist(new UserSignUpReq("b@naver.com", "123@password!", "userB").toEntity());
+
+        String directKey = ChatRoom.directKeyOf(userB.getId(), userA.getId());
+        ChatRoom direct = entityManager.persist(ChatRoom.builder()
+                .name("1:1")
+                .roomType(RoomType.DIRECT)
+                .directKey(directKey)
+                .build());
+        UserChatRoom ucrA = entityManager.persist(UserChatRoom.builder().user(userA).chat(direct).readIndex(0L).build());
+        entityManager.persist(UserChatRoom.builder().user(userB).chat(direct).readIndex(0L).build());
+        entityManager.flush();
+
+        // 두 유저 모두 남아있으면 기존 채팅방, 해제되지 않음
+        assertThat(chatRoomRepository.findActiveDirectRoom(directKey)).map(ChatRoom::getId).contains(direct.getId());
+        assertThat(chatRoomRepository.releaseDirectKey(directKey)).isZero();
+
+        // 한명이 나가면 새로 만들 수 있도록 해제
+        ucrA.updateIsDelete(true);
+        entityManager.flush();
+        assertThat(chatRoomRepository.findActiveDirectRoom(directKey)).isEmpty();
+        assertThat(chatRoomRepository.releaseDirectKey(directKey)).isEqualTo(1);
+
+        entityManager.clear();
+        assertThat(chatRoomRepository.findById(direct.getId()).get().getDirectKey()).isNull();
+    }
+}
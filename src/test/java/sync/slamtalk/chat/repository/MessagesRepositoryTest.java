@@ -166,4 +166,72 @@ class MessagesRepositoryTest {
 
 
     }
-}
\ No newline at end of file
+
+    // 가장 최근 메세지는 creation_time 문자열 형식과 상관없이 아이디 순서로 찾는다
+    @Test
+    void findLatestByChatRoomIdOrdersById() {
+        ChatRoom chatRoom = ChatRoom.builder()
+                .roomType(RoomType.TOGETHER)
+                .name("같이하기")
+                .build();
+        entityManager.persist(chatRoom);
+
+        // 문자열로는 'T' 가 공백보다 커서 먼저 보낸 메세지가 더 최근처럼 정렬됨
+        Messages older = Messages.builder()
+                .creation_time("2024-01-01T09:59:59.999")
+                .chatRoom(chatRoom)
+                .content("먼저")
+                .build();
+        Messages newer = Messages.builder()
+                .creation_time("2024-01-01 10:00:00")
+                .chatRoom(chatRoom)
+                .content("나중")
+                .build();
+        entityManager.persist(older);
+        entityManager.persist(newer);
+
+        Page<Messages> latest = messagesRepository.findLatestByChatRoomId(chatRoom.getId(), PageRequest.of(0, 1));
+
+        Assertions.assertThat(latest.getContent()).extracting(Messages::getId).containsExactly(newer.getId());
+        Assertions.assertThat(Messages.sentAtOf(newer.getCreation_time())).isEqualTo(LocalDateTime.of(2024, 1, 1, 10, 0));
+    }
+
+    @Test
+    void findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc() {
+        ChatRoom chatRoom = ChatRoom.builder()
+                .roomType(RoomType.BASKETBALL)
+                .name("농구장채팅")
+                .build();
+        entityManager.persist(chatRoom);
+
+        Messages messages1 = Messages.builder()
+                .creation_time(LocalDateTime.now().toString())
+                .chatRoom(chatRoom)
+                .content("첫번째")
+                .build();
+        Messages messages2 = Messages.builder()
+                .creation_time(LocalDateTime.now().toString())
+                .chatRoom(chatRoom)
+                .content("두번째")
+                .build();
+        Messages messages3 = Messages.builder()
+                .creation_time(LocalDateTime.now().toString())
+                .chatRoom(chatRoom)
+                .content("세번째")
+                .build();
+        entityManager.persist(messages1);
+        entityManager.persist(messages2);
+        entityManager.persist(messages3);
+
+        // 커서 메세지는 포함하지 않고 이전 메세지만 최신순으로
+        List<Messages> page = messagesRepository.findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(
+                chatRoom.getId(), messages3.getId(), PageRequest.of(0, 20));
+        Assertions.assertThat(page).extracting(Messages::getId)
+                .containsExactly(messages2.getId(), messages1.getId());
+
+        // 다음 페이지
+        List<Messages> next = messagesRepository.findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(
+                chatRoom.getId(), messages1.getId(), PageRequest.of(0, 20));
+        Assertions.assertThat(next).isEmpty();
+    }
+}
@@ -8,7 +8,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
 import sync.slamtalk.chat.entity.ChatRoom;
 import sync.slamtalk.chat.entity.RoomType;
 import sync.slamtalk.chat.entity.UserChatRoom;
@@ -19,6 +21,9 @@ import sync.slamtalk.user.entity.User;
 import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -32,6 +37,9 @@ class UserChatRoomRepositoryTest {
     @Autowired
     private UserChatRoomRepository userChatRoomRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     public String email = "test1@naver.com";
     public String password = "123@password!";
     public String nickname = "nickname";
@@ -107,4 +115,70 @@ class UserChatRoomRepositoryTest {
         assertTrue(byUserChatroom.isPresent(),"존재합니다");
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void existsByUserChatroomExcludesExited() {
+        UserChatRoom userChatRoom = userChatRoomRepository.findAll().get(0);
+        Long userId = userChatRoom.getUser().getId();
+        Long roomId = userChatRoom.getChat().getId();
+        assertTrue(userChatRoomRepository.existsByUserChatroom(userId, roomId));
+
+        // 채팅방 나가기 (soft delete)
+        userChatRoom.delete();
+        entityManager.flush();
+
+        assertFalse(userChatRoomRepository.existsByUserChatroom(userId, roomId));
+    }
+
+    @Test
+    void findChatRoomList() {
+        User me = userChatRoomRepository.findAll().get(0).getUser();
+        User partner = new UserSignUpReq("test2@naver.com", password, "partner").toEntity();
+        entityManager.persist(partner);
+
+        ChatRoom direct = ChatRoom.builder()
+                .name("1:1")
+                .roomType(RoomType.DIRECT)
+                .build();
+        entityManager.persist(direct);
+        UserChatRoom myDirect = UserChatRoom.builder()
+                .user(me)
+                .chat(direct)
+                .roomType(RoomType.DIRECT)
+                .directId(partner.getId())
+                .readIndex(0L)
+                .build();
+        entityManager.persist(myDirect);
+
+        entityManager.flush();
+
+        // 메세지 저장 경로(batch insert)에서 채팅방의 마지막 메세지가 함께 갱신됨
+        MessagesJdbcRepository messagesJdbcRepository = new MessagesJdbcRepository(jdbcTemplate);
+        messagesJdbcRepository.batchInsert(List.of(
+                message(direct.getId(), 2L, partner.getId(), "두번째"),
+                message(direct.getId(), 1L, partner.getId(), "첫번째")));
+        entityManager.clear();
+
+        List<ChatRoomListRow> rows = userChatRoomRepository.findChatRoomList(me.getId());
+
+        // 삭제되지 않은 채팅방 4개, 메세지가 있는 1:1 채팅방이 가장 앞
+        assertEquals(4, rows.size());
+        ChatRoomListRow first = rows.get(0);
+        assertEquals(direct.getId(), first.roomId());
+        assertEquals(partner.getId(), first.partnerId());
+        assertEquals("partner", first.partnerNickname());
+        assertEquals(2L, first.lastMessageId());
+        assertEquals("두번째", first.lastMessageContent());
+        assertNull(rows.get(1).lastMessageId());
+    }
+
+    private ChatMessageDTO message(Long roomId, Long messageId, Long senderId, String content) {
+        return ChatMessageDTO.builder()
+                .roomId(roomId.toString())
+                .messageId(messageId.toString())
+                .senderId(senderId)
+                .content(content)
+                .timestamp("2024-01-01T00:00:00")
+                .build();
+    }
+}
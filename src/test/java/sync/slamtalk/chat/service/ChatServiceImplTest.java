@@ -0,0 +1,221 @@
+package sync.slamtalk.chat.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import sync.slamtalk.chat.cache.ChatAuthorizationCache;
+import sync.slamtalk.chat.dto.Request.ChatMessageDTO;
+import sync.slamtalk.chat.dto.Response.ChatResumeDTO;
+import sync.slamtalk.chat.entity.ChatRoom;
+import sync.slamtalk.chat.entity.Messages;
+import sync.slamtalk.chat.redis.RedisService;
+import sync.slamtalk.chat.repository.ChatRoomRepository;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+import sync.slamtalk.chat.repository.MessagesRepository;
+import sync.slamtalk.user.cache.SenderProfileCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ChatServiceImplTest {
+
+    private static final Long ROOM_ID = 1L;
+
+    @Mock
+    private RedisService redisService;
+    @Mock
+    private MessagesRepository messagesRepository;
+    @Mock
+    private MessagesJdbcRepository messagesJdbcRepository;
+    @Mock
+    private SenderProfileCache senderProfileCache;
+    @Mock
+    private ChatAuthorizationCache chatAuthorizationCache;
+    @Mock
+    private ChatRoomRepository chatRoomRepository;
+
+    @InjectMocks
+    private ChatServiceImpl chatService;
+
+    @BeforeEach
+    void setUp() {
+        when(senderProfileCache.getAll(any())).thenReturn(Map.of());
+    }
+
+    @Test
+    @DisplayName("redis 인덱스가 커서까지 이어져 있으면 DB 를 조회하지 않는다")
+    void resumeFromRedis() {
+        when(redisService.countMessagesAfter(ROOM_ID, 10L)).thenReturn(3L);
+        when(redisService.getMessagesAfter(eq(ROOM_ID), eq(10L), anyInt())).thenReturn(dtos(11, 13));
+
+        ChatResumeDTO resume = chatService.resumeRoom(ROOM_ID, 10L);
+
+        assertThat(resume.getMessages()).extracting(ChatMessageDTO::getMessageId).containsExactly("11", "12", "13");
+        assertThat(resume.isHasMore()).isFalse();
+        assertThat(resume.isGapTooLarge()).isFalse();
+        verifyNoInteractions(messagesRepository, messagesJdbcRepository);
+    }
+
+    @Test
+    @DisplayName("redis 에 놓친 메세지가 상한보다 많으면 메세지 없이 gapTooLarge")
+    void gapTooLargeInRedis() {
+        when(redisService.countMessagesAfter(ROOM_ID, 10L)).thenReturn(301L);
+
+        ChatResumeDTO resume = chatService.resumeRoom(ROOM_ID, 10L);
+
+        assertThat(resume.isGapTooLarge()).isTrue();
+        assertThat(resume.getMessages()).isEmpty();
+        verify(redisService, never()).getMessagesAfter(anyLong(), anyLong(), anyInt());
+        verifyNoInteractions(messagesRepository);
+    }
+
+    @Test
+    @DisplayName("redis 가 커서까지 이어지지 않으면 DB 에서 세고, 상한보다 많으면 gapTooLarge")
+    void gapTooLargeInDb() {
+        when(redisService.countMessagesAfter(ROOM_ID, 10L)).thenReturn(-1L);
+        when(messagesJdbcRepository.countMessagesAfter(ROOM_ID, 10L, 301)).thenReturn(301L);
+
+        ChatResumeDTO resume = chatService.resumeRoom(ROOM_ID, 10L);
+
+        assertThat(resume.isGapTooLarge()).isTrue();
+        assertThat(resume.getMessages()).isEmpty();
+        verifyNoInteractions(messagesRepository);
+    }
+
+    @Test
+    @DisplayName("DB 에서 조회하고 아직 DB 에 없는 메세지(write-behind)는 redis 에서 이어서 채운다")
+    void resumeFromDbWithRedisTopUp() {
+        when(redisService.countMessagesAfter(ROOM_ID, 10L)).thenReturn(-1L);
+        when(messagesJdbcRepository.countMessagesAfter(ROOM_ID, 10L, 301)).thenReturn(5L);
+        when(messagesRepository.findByChatRoomIdAndMessageIdGreaterThanOrderedByMessageIdAsc(eq(ROOM_ID), eq(10L), any()))
+                .thenReturn(entities(11, 13));
+        when(redisService.getMessagesAfter(eq(ROOM_ID), eq(13L), anyInt())).thenReturn(dtos(14, 15));
+
+        ChatResumeDTO resume = chatService.resumeRoom(ROOM_ID, 10L);
+
+        assertThat(resume.getMessages()).extracting(ChatMessageDTO::getMessageId)
+                .containsExactly("11", "12", "13", "14", "15");
+        assertThat(resume.isHasMore()).isFalse();
+        assertThat(resume.isGapTooLarge()).isFalse();
+    }
+
+    @Test
+    @DisplayName("한 배치보다 많이 놓쳤으면 한 배치만 내려주고 hasMore")
+    void hasMoreThanOneBatch() {
+        when(redisService.countMessagesAfter(ROOM_ID, 10L)).thenReturn(120L);
+        when(redisService.getMessagesAfter(ROOM_ID, 10L, 51)).thenReturn(dtos(11, 61));
+
+        ChatResumeDTO resume = chatService.resumeRoom(ROOM_ID, 10L);
+
+        assertThat(resume.getMessages()).hasSize(50);
+        assertThat(resume.getMessages().get(49).getMessageId()).isEqualTo("60");
+        assertThat(resume.isHasMore()).isTrue();
+    }
+
+    @Test
+    @DisplayName("참여하고 있지 않은 채팅방은 resume 하지 않는다")
+    void resumeSkipsRoomsNotJoined() {
+        when(chatAuthorizationCache.isMember(7L, ROOM_ID)).thenReturn(true);
+        when(chatAuthorizationCache.isMember(7L, 2L)).thenReturn(false);
+        when(redisService.countMessagesAfter(ROOM_ID, 10L)).thenReturn(301L);
+        Map<Long, Long> lastSeen = new LinkedHashMap<>();
+        lastSeen.put(ROOM_ID, 10L);
+        lastSeen.put(2L, 10L);
+
+        List<ChatResumeDTO> resume = chatService.resume(7L, lastSeen);
+
+        assertThat(resume).extracting(ChatResumeDTO::getRoomId).containsExactly(ROOM_ID);
+        verify(redisService, never()).countMessagesAfter(eq(2L), anyLong());
+    }
+
+    @Test
+    @DisplayName("재입장 시 redis 의 최근 메세지에 모자란 만큼 DB 에서 채우고, 읽은 메세지 이하는 버린다")
+    void participationFromRedisThenDb() {
+        when(redisService.getMessagesBefore(ROOM_ID, Long.MAX_VALUE, 50)).thenReturn(newestFirst(dtos(14, 15)));
+        when(messagesRepository.findByChatRoomIdAndMessageIdLessThanOrderedByMessageIdDesc(eq(ROOM_ID), eq(14L), any()))
+                .thenReturn(newestFirst(entities(9, 13)));
+
+        List<ChatMessageDTO> messages = chatService.getChatMessages(ROOM_ID, 10L);
+
+        assertThat(messages).extracting(ChatMessageDTO::getMessageId).containsExactly("11", "12", "13", "14", "15");
+        assertThat(messages).extracting(ChatMessageDTO::getImgUrl).containsOnly("null");
+    }
+
+    @Test
+    @DisplayName("redis 에서 읽은 메세지까지 닿으면 DB 를 조회하지 않는다")
+    void participationFromRedis() {
+        when(redisService.getMessagesBefore(ROOM_ID, Long.MAX_VALUE, 50)).thenReturn(newestFirst(dtos(8, 12)));
+
+        List<ChatMessageDTO> messages = chatService.getChatMessages(ROOM_ID, 10L);
+
+        assertThat(messages).extracting(ChatMessageDTO::getMessageId).containsExactly("11", "12");
+        verifyNoInteractions(messagesRepository);
+    }
+
+    @Test
+    @DisplayName("마지막 메세지 아이디는 redis 와 DB 중 큰 값이다")
+    void lastMessageIdIsMax() {
+        when(redisService.getLastMessageId(ROOM_ID)).thenReturn(Optional.of(100L));
+        when(chatRoomRepository.findLastMessageIdById(ROOM_ID)).thenReturn(Optional.of(200L));
+        assertThat(chatService.getLastMessageIdFromChatRoom(ROOM_ID)).contains(200L);
+
+        when(redisService.getLastMessageId(ROOM_ID)).thenReturn(Optional.of(300L));
+        assertThat(chatService.getLastMessageIdFromChatRoom(ROOM_ID)).contains(300L);
+
+        when(redisService.getLastMessageId(ROOM_ID)).thenReturn(Optional.empty());
+        assertThat(chatService.getLastMessageIdFromChatRoom(ROOM_ID)).contains(200L);
+    }
+
+    private List<ChatMessageDTO> dtos(long first, long last) {
+        return LongStream.rangeClosed(first, last)
+                .mapToObj(id -> ChatMessageDTO.builder()
+                        .messageId(String.valueOf(id))
+                        .roomId(ROOM_ID.toString())
+                        .senderId(3L)
+                        .content("메세지 " + id)
+                        .build())
+                .toList();
+    }
+
+    private <T> List<T> newestFirst(List<T> list) {
+        List<T> reversed = new ArrayList<>(list);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
+    private List<Messages> entities(long first, long last) {
+        ChatRoom chatRoom = ChatRoom.builder().id(ROOM_ID).build();
+        return LongStream.rangeClosed(first, last)
+                .mapToObj(id -> Messages.builder()
+                        .id(id)
+                        .chatRoom(chatRoom)
+                        .senderId(3L)
+                        .content("메세지 " + id)
+                        .creation_time("2024-01-01T00:00")
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,142 @@
+package sync.slamtalk.chat.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import sync.slamtalk.chat.archive.ArchiveStore;
+import sync.slamtalk.chat.archive.ArchivedMessage;
+import sync.slamtalk.chat.archive.MessageArchive;
+import sync.slamtalk.chat.archive.MessageArchiveCodec;
+import sync.slamtalk.chat.entity.MessageArchiveBlock;
+import sync.slamtalk.chat.repository.MessagesJdbcRepository;
+import sync.slamtalk.common.id.SnowflakeIdGenerator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageArchiverTest {
+
+    private final List<ArchivedMessage> stored = new ArrayList<>();
+    private final List<MessageArchiveBlock> registered = new ArrayList<>();
+
+    private MessagesJdbcRepository messagesJdbcRepository;
+    private MessageArchive messageArchive;
+    private ArchiveStore archiveStore;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        // messages 테이블 (채팅방 1) 대신 목록에서 쿼리 조건 그대로 거른다
+        messagesJdbcRepository = mock(MessagesJdbcRepository.class);
+        when(messagesJdbcRepository.findArchivableRoomIds(anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long before = invocation.getArgument(1);
+            return stored.stream().anyMatch(message -> message.id() >= from && message.id() < before) ? List.of(1L) : List.of();
+        });
+        when(messagesJdbcRepository.findOldestMessages(eq(1L), anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(1);
+            long before = invocation.getArgument(2);
+            int limit = invocation.getArgument(3);
+            return stored.stream().filter(message -> message.id() >= from && message.id() < before).limit(limit).toList();
+        });
+
+        // (chatroom_id, first_message_id) unique
+        messageArchive = mock(MessageArchive.class);
+        when(messageArchive.register(any())).thenAnswer(invocation -> {
+            MessageArchiveBlock block = invocation.getArgument(0);
+            if (registered.stream().anyMatch(it -> it.getFirstMessageId().equals(block.getFirstMessageId()))) {
+                throw new DuplicateKeyException("uk_message_archive_block_chatroom_id_first_message_id");
+            }
+            registered.add(block);
+            return block.getMessageCount();
+        });
+
+        meterRegistry = new SimpleMeterRegistry();
+        Map<String, byte[]> storage = new HashMap<>();
+        archiveStore = new ArchiveStore() {
+            @Override
+            public void put(String key, byte[] block) {
+                storage.put(key, block);
+            }
+
+            @Override
+            public byte[] get(String key) {
+                return storage.get(key);
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Snowflake 이전의 작은 아이디는 최근 메세지여도 아카이브하지 않는다")
+    void skipLegacyIds() {
+        long now = System.currentTimeMillis();
+        long old = SnowflakeIdGenerator.minIdAt(now - Duration.ofDays(120).toMillis());
+        // 이전 발급기로 어제 보낸 메세지, 120일 전 Snowflake 메세지, 방금 보낸 Snowflake 메세지
+        stored.add(message(42L));
+        stored.add(message(old));
+        stored.add(message(old + 1));
+        stored.add(message(SnowflakeIdGenerator.minIdAt(now)));
+
+        archiver(-1).archive();
+
+        assertThat(registered).singleElement().satisfies(block -> {
+            assertThat(block.getFirstMessageId()).isEqualTo(old);
+            assertThat(block.getLastMessageId()).isEqualTo(old + 1);
+            assertThat(block.getMessageCount()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    @DisplayName("하한 아이디를 지정하면 그 아이디부터 아카이브한다")
+    void configuredMinMessageId() {
+        long old = SnowflakeIdGenerator.minIdAt(System.currentTimeMillis() - Duration.ofDays(120).toMillis());
+        stored.add(message(old));
+        stored.add(message(old + 1));
+
+        archiver(old + 1).archive();
+
+        assertThat(registered).singleElement()
+                .satisfies(block -> assertThat(block.getFirstMessageId()).isEqualTo(old + 1));
+    }
+
+    @Test
+    @DisplayName("다른 서버가 같은 블록을 먼저 등록했으면 이미 아카이브된 것으로 본다")
+    void duplicateBlockIsAlreadyArchived() {
+        long old = SnowflakeIdGenerator.minIdAt(System.currentTimeMillis() - Duration.ofDays(120).toMillis());
+        stored.add(message(old));
+        stored.add(message(old + 1));
+
+        // 먼저 등록한 서버가 지우기 전에 같은 메세지를 읽은 두 서버
+        archiver(-1).archive();
+        archiver(-1).archive();
+
+        assertThat(registered).hasSize(1);
+        assertThat(meterRegistry.counter("chat.archive.blocks").count()).isEqualTo(1.0);
+    }
+
+    private MessageArchiver archiver(long minMessageId) {
+        return new MessageArchiver(messagesJdbcRepository, messageArchive, archiveStore,
+                new MessageArchiveCodec(Jackson2ObjectMapperBuilder.json().build()),
+                new SnowflakeMessageIdGenerator(new SnowflakeIdGenerator(0), mock(StringRedisTemplate.class), 1000),
+                meterRegistry, minMessageId, 90, 1000, 100);
+    }
+
+    private ArchivedMessage message(long id) {
+        return new ArchivedMessage(id, 3L, "슬램", "메세지 " + id, "2024-01-01T00:00");
+    }
+}
@@ -0,0 +1,56 @@
+package sync.slamtalk.chat.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import sync.slamtalk.chat.redis.RedisContainerExtension;
+import sync.slamtalk.common.id.SnowflakeIdGenerator;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnowflakeMessageIdGeneratorTest {
+
+    @RegisterExtension
+    static final RedisContainerExtension redis = new RedisContainerExtension();
+
+    @Test
+    @DisplayName("시계가 다른 두 서버가 번갈아 발급해도 같은 채팅방의 아이디는 항상 증가한다")
+    void monotonicPerRoomAcrossNodes() {
+        long now = System.currentTimeMillis();
+        // 노드 아이디가 큰 서버의 시계가 500ms 앞섬
+        SnowflakeMessageIdGenerator ahead = generator(new SnowflakeIdGenerator(9, () -> now + 500));
+        SnowflakeMessageIdGenerator behind = generator(new SnowflakeIdGenerator(1, () -> now));
+
+        Set<Long> ids = new HashSet<>();
+        long previous = -1;
+        for (int i = 0; i < 1000; i++) {
+            long id = (i % 3 == 0 ? ahead : behind).nextId(1L);
+            assertThat(id).isGreaterThan(previous);
+            ids.add(id);
+            previous = id;
+        }
+        assertThat(ids).hasSize(1000);
+    }
+
+    @Test
+    @DisplayName("채팅방 마지막 아이디가 사라져도 시계가 앞선 서버가 방금 발급한 아이디보다 큰 아이디를 발급한다")
+    void lastIdLost() {
+        long now = System.currentTimeMillis();
+        SnowflakeMessageIdGenerator ahead = generator(new SnowflakeIdGenerator(9, () -> now + 900));
+        SnowflakeMessageIdGenerator behind = generator(new SnowflakeIdGenerator(1, () -> now));
+
+        redis.getStringRedisTemplate().opsForValue().set("chat_message:last_id:1", "1");
+        long first = ahead.nextId(1L);
+        // Redis 유실
+        redis.getStringRedisTemplate().delete("chat_message:last_id:1");
+
+        assertThat(behind.nextId(1L)).isGreaterThan(first);
+    }
+
+    private SnowflakeMessageIdGenerator generator(SnowflakeIdGenerator ids) {
+        return new SnowflakeMessageIdGenerator(ids, redis.getStringRedisTemplate(), 1000);
+    }
+}
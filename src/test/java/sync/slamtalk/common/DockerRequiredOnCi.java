@@ -0,0 +1,24 @@
+package sync.slamtalk.common;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.testcontainers.DockerClientFactory;
+
+/**
+ * 컨테이너(Testcontainers)가 필요한 테스트 실행 조건
+ * Docker 가 없으면 로컬에서는 건너뛰고, CI(환경 변수 CI)에서는 조용히 건너뛰지 않도록 실패시킨다.
+ */
+public class DockerRequiredOnCi implements ExecutionCondition {
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            return ConditionEvaluationResult.enabled("Docker 사용 가능");
+        }
+        if (System.getenv("CI") != null) {
+            throw new IllegalStateException("CI 에서는 Docker 가 있어야 " + context.getDisplayName() + " 을(를) 실행할 수 있습니다.");
+        }
+        return ConditionEvaluationResult.disabled("Docker 가 없어서 건너뜀 (CI 에서는 실패)");
+    }
+}
@@ -0,0 +1,98 @@
+package sync.slamtalk.common.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sync.slamtalk.common.BaseException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH + 1_000_000L;
+
+    @Test
+    @DisplayName("같은 ms 안에서도 아이디는 단조 증가하고 겹치지 않는다")
+    void monotonicWithinSameMillisecond() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> NOW);
+
+        Set<Long> ids = new HashSet<>();
+        long previous = -1L;
+        // 시퀀스(4096)를 넘겨서 다음 ms 로 넘어가는 경우까지 확인
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            ids.add(id);
+            previous = id;
+        }
+        assertThat(ids).hasSize(10_000);
+    }
+
+    @Test
+    @DisplayName("시계가 뒤로 가도 이전 아이디보다 큰 아이디를 발급한다")
+    void clockMovingBackwards() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+        long before = generator.nextId();
+        clock.set(NOW - 5_000);
+        long after = generator.nextId();
+
+        assertThat(after).isGreaterThan(before);
+    }
+
+    @Test
+    @DisplayName("아이디에서 발급 시각과 노드를 복원할 수 있다")
+    void timestampAndNodeAreEncoded() {
+        SnowflakeIdGenerator nodeA = new SnowflakeIdGenerator(1, () -> NOW);
+        SnowflakeIdGenerator nodeB = new SnowflakeIdGenerator(2, () -> NOW);
+
+        long idA = nodeA.nextId();
+        long idB = nodeB.nextId();
+
+        assertThat(idA).isNotEqualTo(idB);
+        assertThat(SnowflakeIdGenerator.timestampOf(idA)).isEqualTo(NOW);
+        assertThat(SnowflakeIdGenerator.minIdAt(NOW)).isLessThanOrEqualTo(idA);
+        assertThat(SnowflakeIdGenerator.minIdAt(NOW + 1)).isGreaterThan(idB);
+    }
+
+    @Test
+    @DisplayName("다른 노드의 아이디가 앞서 있으면 그보다 큰 아이디를 발급한다")
+    void nextIdAfterOtherNode() {
+        SnowflakeIdGenerator ahead = new SnowflakeIdGenerator(5, () -> NOW + 500);
+        SnowflakeIdGenerator behind = new SnowflakeIdGenerator(1, () -> NOW);
+        SnowflakeIdGenerator sameMillis = new SnowflakeIdGenerator(2, () -> NOW + 500);
+
+        long floor = ahead.nextId();
+
+        assertThat(behind.nextIdAfter(floor)).isGreaterThan(floor);
+        // 같은 ms, 노드 아이디가 더 작은 노드
+        assertThat(sameMillis.nextIdAfter(floor)).isGreaterThan(floor);
+    }
+
+    @Test
+    @DisplayName("발급할 수 없는 상태면 아이디를 발급하지 않고, 정상으로 돌아오면 다시 발급한다")
+    void guardStopsIssuing() {
+        AtomicBoolean valid = new AtomicBoolean(false);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> NOW);
+        generator.setGuard(valid::get);
+
+        assertThatThrownBy(generator::nextId).isInstanceOf(BaseException.class);
+        assertThatThrownBy(() -> generator.nextIdAfter(0)).isInstanceOf(BaseException.class);
+
+        valid.set(true);
+        assertThat(generator.nextId()).isPositive();
+    }
+
+    @Test
+    @DisplayName("노드 아이디 범위를 벗어나면 예외가 발생한다")
+    void invalidNodeId() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
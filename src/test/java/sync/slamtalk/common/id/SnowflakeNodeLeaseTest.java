@@ -0,0 +1,56 @@
+package sync.slamtalk.common.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import sync.slamtalk.chat.redis.RedisContainerExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnowflakeNodeLeaseTest {
+
+    @RegisterExtension
+    static final RedisContainerExtension redis = new RedisContainerExtension();
+
+    @Test
+    @DisplayName("다른 서버가 노드 아이디를 가져가면 발급을 중단하고, 다시 임대하면 재개한다")
+    void invalidWhileNodeIdTaken() {
+        SnowflakeNodeLease lease = new SnowflakeNodeLease(redis.getStringRedisTemplate(), Duration.ofSeconds(60), 1000);
+        long nodeId = lease.acquire(5);
+        assertThat(nodeId).isEqualTo(5);
+        assertThat(lease.isValid()).isTrue();
+
+        redis.getStringRedisTemplate().opsForValue().set("id_snowflake:node:5", "other-server");
+        lease.renew();
+        assertThat(lease.isValid()).isFalse();
+
+        redis.getStringRedisTemplate().delete("id_snowflake:node:5");
+        lease.renew();
+        assertThat(lease.isValid()).isTrue();
+    }
+
+    @Test
+    @DisplayName("임대를 연장하지 못한 채 TTL 이 지나면 발급을 중단한다")
+    void invalidAfterLeaseExpires() throws InterruptedException {
+        SnowflakeNodeLease lease = new SnowflakeNodeLease(redis.getStringRedisTemplate(), Duration.ofMillis(200), 1000);
+        lease.acquire(5);
+
+        Thread.sleep(300);
+
+        assertThat(lease.isValid()).isFalse();
+    }
+
+    @Test
+    @DisplayName("반납하면 발급을 중단한다")
+    void invalidAfterRelease() {
+        SnowflakeNodeLease lease = new SnowflakeNodeLease(redis.getStringRedisTemplate(), Duration.ofSeconds(60), 1000);
+        lease.acquire(5);
+
+        lease.release();
+
+        assertThat(lease.isValid()).isFalse();
+        assertThat(redis.getStringRedisTemplate().hasKey("id_snowflake:node:5")).isFalse();
+    }
+}
@@ -0,0 +1,106 @@
+package sync.slamtalk.user.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import sync.slamtalk.user.UserRepository;
+import sync.slamtalk.user.dto.request.UserSignUpReq;
+import sync.slamtalk.user.entity.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+
+@ExtendWith(MockitoExtension.class)
+class SenderProfileCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SenderProfileCache senderProfileCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        senderProfileCache = new SenderProfileCache(userRepository, stringRedisTemplate, meterRegistry, 100, 600);
+    }
+
+    @Test
+    @DisplayName("캐시에 없는 발신자들은 findAllById 한번으로 조회한다")
+    void getAllLoadsMissesInOneQuery() {
+        User userA = user(1L, "userA");
+        User userB = user(2L, "userB");
+        Mockito.when(userRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(userA, userB));
+
+        Map<Long, SenderProfile> first = senderProfileCache.getAll(List.of(1L, 2L, 1L));
+        Map<Long, SenderProfile> second = senderProfileCache.getAll(List.of(1L, 2L));
+
+        assertThat(first.get(1L).nickname()).isEqualTo("userA");
+        assertThat(second.get(2L).imageUrl()).isEqualTo(userB.getImageUrl());
+        Mockito.verify(userRepository, Mockito.times(1)).findAllById(anyIterable());
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("존재하지 않는 유저도 캐시해서 다시 조회하지 않는다")
+    void unknownUserIsCached() {
+        Mockito.when(userRepository.findAllById(anyIterable()))
+                .thenReturn(List.of());
+
+        SenderProfile first = senderProfileCache.get(3L);
+        SenderProfile second = senderProfileCache.get(3L);
+
+        assertThat(first.imageUrl()).isNull();
+        assertThat(second).isEqualTo(first);
+        Mockito.verify(userRepository, Mockito.times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    @DisplayName("프로필이 변경되면 캐시에서 제거되어 다시 조회한다")
+    void evictReloadsProfile() {
+        Mockito.when(userRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(user(1L, "before")))
+                .thenReturn(List.of(user(1L, "after")));
+
+        senderProfileCache.get(1L);
+        senderProfileCache.evict(1L);
+
+        assertThat(senderProfileCache.get(1L).nickname()).isEqualTo("after");
+        Mockito.verify(stringRedisTemplate).convertAndSend(SenderProfileCache.EVICT_CHANNEL, "1");
+    }
+
+    @Test
+    @DisplayName("다른 서버에서 보낸 제거 신호를 받으면 캐시에서 제거되어 다시 조회한다")
+    void evictSignalFromOtherServer() {
+        Mockito.when(userRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(user(1L, "before")))
+                .thenReturn(List.of(user(1L, "after")));
+
+        senderProfileCache.get(1L);
+        senderProfileCache.onMessage(new DefaultMessage(
+                SenderProfileCache.EVICT_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(senderProfileCache.get(1L).nickname()).isEqualTo("after");
+    }
+
+    private User user(Long id, String nickname) {
+        User user = new UserSignUpReq(nickname + "@naver.com", "password", nickname).toEntity();
+        user.testSetUserId(id);
+        return user;
+    }
+}